@@ -0,0 +1,18 @@
+package com.yogesh.er_scanner.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "database")
+public class DatabaseConfig {
+
+    private String type;
+    private String schema;
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getSchema() { return schema; }
+    public void setSchema(String schema) { this.schema = schema; }
+}
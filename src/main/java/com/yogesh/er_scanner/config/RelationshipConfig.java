@@ -2,7 +2,10 @@ package com.yogesh.er_scanner.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 @ConfigurationProperties(prefix = "relationship")
@@ -11,7 +14,20 @@ public class RelationshipConfig {
     private boolean enabled;
     private int sampleSize;
     private int maxTables;
+    private int parallelism = 1;
+    private boolean incremental = true;
+    private int batchSize = 500;
+    private String profiling = "sample";
     private List<String> tables;
+    private Discovery discovery = new Discovery();
+    private Overlap overlap = new Overlap();
+    private Sampling sampling = new Sampling();
+    private Verification verification = new Verification();
+    private ProfileCache profileCache = new ProfileCache();
+    private Pruning pruning = new Pruning();
+    private Semantic semantic = new Semantic();
+    private FuzzyNames fuzzyNames = new FuzzyNames();
+    private CompositeKeys compositeKeys = new CompositeKeys();
 
     public boolean isEnabled() { return enabled; }
     public void setEnabled(boolean enabled) { this.enabled = enabled; }
@@ -22,6 +38,366 @@ public class RelationshipConfig {
     public int getMaxTables() { return maxTables; }
     public void setMaxTables(int maxTables) { this.maxTables = maxTables; }
 
+    public int getParallelism() { return parallelism; }
+    public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+
+    public boolean isIncremental() { return incremental; }
+    public void setIncremental(boolean incremental) { this.incremental = incremental; }
+
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+
+    public String getProfiling() { return profiling; }
+    public void setProfiling(String profiling) { this.profiling = profiling; }
+
     public List<String> getTables() { return tables; }
     public void setTables(List<String> tables) { this.tables = tables; }
-}
\ No newline at end of file
+
+    public Discovery getDiscovery() { return discovery; }
+    public void setDiscovery(Discovery discovery) { this.discovery = discovery; }
+
+    public Overlap getOverlap() { return overlap; }
+    public void setOverlap(Overlap overlap) { this.overlap = overlap; }
+
+    public Sampling getSampling() { return sampling; }
+    public void setSampling(Sampling sampling) { this.sampling = sampling; }
+
+    public Verification getVerification() { return verification; }
+    public void setVerification(Verification verification) { this.verification = verification; }
+
+    public ProfileCache getProfileCache() { return profileCache; }
+    public void setProfileCache(ProfileCache profileCache) { this.profileCache = profileCache; }
+
+    public Pruning getPruning() { return pruning; }
+    public void setPruning(Pruning pruning) { this.pruning = pruning; }
+
+    public Semantic getSemantic() { return semantic; }
+    public void setSemantic(Semantic semantic) { this.semantic = semantic; }
+
+    public FuzzyNames getFuzzyNames() { return fuzzyNames; }
+    public void setFuzzyNames(FuzzyNames fuzzyNames) { this.fuzzyNames = fuzzyNames; }
+
+    public CompositeKeys getCompositeKeys() { return compositeKeys; }
+    public void setCompositeKeys(CompositeKeys compositeKeys) { this.compositeKeys = compositeKeys; }
+
+    /**
+     * Pattern-based table discovery, used instead of the tables list when enabled.
+     * Patterns are case-insensitive globs ({@code *}, {@code ?}) or regexes
+     * prefixed with {@code regex:}. An empty include list matches every table.
+     */
+    public static class Discovery {
+
+        private boolean enabled;
+        private List<String> include = new ArrayList<>();
+        private List<String> exclude = new ArrayList<>();
+        private int pageSize = 1000;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public List<String> getInclude() { return include; }
+        public void setInclude(List<String> include) { this.include = include; }
+
+        public List<String> getExclude() { return exclude; }
+        public void setExclude(List<String> exclude) { this.exclude = exclude; }
+
+        public int getPageSize() { return pageSize; }
+        public void setPageSize(int pageSize) { this.pageSize = pageSize; }
+    }
+
+    /**
+     * Column-overlap engine. {@code exact} counts every shared value through an
+     * inverted value index, {@code minhash} verifies only LSH candidates, and
+     * {@code auto} switches to minhash once the sampled column count reaches
+     * {@code autoMinColumns}.
+     */
+    public static class Overlap {
+
+        private String engine = "auto";
+        private int numHashes = 128;
+        private int bands = 32;
+        private int autoMinColumns = 500;
+
+        public String getEngine() { return engine; }
+        public void setEngine(String engine) { this.engine = engine; }
+
+        public int getNumHashes() { return numHashes; }
+        public void setNumHashes(int numHashes) { this.numHashes = numHashes; }
+
+        public int getBands() { return bands; }
+        public void setBands(int bands) { this.bands = bands; }
+
+        public int getAutoMinColumns() { return autoMinColumns; }
+        public void setAutoMinColumns(int autoMinColumns) { this.autoMinColumns = autoMinColumns; }
+    }
+
+    /**
+     * Row sampling. {@code native} uses the dialect's sampling clause;
+     * {@code coordinated} keeps, in every table, the rows whose key value
+     * hashes into the same slice of the value space, so parent and child
+     * samples contain matching keys.
+     * <p>
+     * With {@code adaptive}, sample-size is only the first round. Columns whose
+     * overlap score lies in [ambiguousLow, ambiguousHigh) are re-sampled with
+     * {@code growth} times more rows until their scores move less than
+     * {@code tolerance}, the table has read {@code maxRowsPerTable} rows, or
+     * {@code maxRounds} rounds have run.
+     */
+    public static class Sampling {
+
+        private String mode = "native";
+        private int maxHashBuckets = 1024;
+
+        private boolean adaptive;
+        private double ambiguousLow = 0.3;
+        private double ambiguousHigh = 0.9;
+        private double tolerance = 0.05;
+        private int growth = 4;
+        private int maxRounds = 4;
+        private int maxRowsPerTable = 10000;
+
+        public String getMode() { return mode; }
+        public void setMode(String mode) { this.mode = mode; }
+
+        public boolean isCoordinated() { return "coordinated".equalsIgnoreCase(mode); }
+
+        public int getMaxHashBuckets() { return maxHashBuckets; }
+        public void setMaxHashBuckets(int maxHashBuckets) { this.maxHashBuckets = maxHashBuckets; }
+
+        public boolean isAdaptive() { return adaptive; }
+        public void setAdaptive(boolean adaptive) { this.adaptive = adaptive; }
+
+        public double getAmbiguousLow() { return ambiguousLow; }
+        public void setAmbiguousLow(double ambiguousLow) { this.ambiguousLow = ambiguousLow; }
+
+        public double getAmbiguousHigh() { return ambiguousHigh; }
+        public void setAmbiguousHigh(double ambiguousHigh) { this.ambiguousHigh = ambiguousHigh; }
+
+        public double getTolerance() { return tolerance; }
+        public void setTolerance(double tolerance) { this.tolerance = tolerance; }
+
+        public int getGrowth() { return growth; }
+        public void setGrowth(int growth) { this.growth = growth; }
+
+        public int getMaxRounds() { return maxRounds; }
+        public void setMaxRounds(int maxRounds) { this.maxRounds = maxRounds; }
+
+        public int getMaxRowsPerTable() { return maxRowsPerTable; }
+        public void setMaxRowsPerTable(int maxRowsPerTable) { this.maxRowsPerTable = maxRowsPerTable; }
+    }
+
+    /**
+     * Server-side containment checks for sample-based candidates. Only
+     * candidates whose confidence falls in [minConfidence, maxConfidence]
+     * are verified; the rest keep their sample score.
+     */
+    public static class Verification {
+
+        private boolean enabled;
+        private double minConfidence = 0.6;
+        private double maxConfidence = 1.0;
+        private int batchSize = 20;
+        private int queryTimeoutSeconds = 10;
+        private int maxDistinct = 10000;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public double getMinConfidence() { return minConfidence; }
+        public void setMinConfidence(double minConfidence) { this.minConfidence = minConfidence; }
+
+        public double getMaxConfidence() { return maxConfidence; }
+        public void setMaxConfidence(double maxConfidence) { this.maxConfidence = maxConfidence; }
+
+        public int getBatchSize() { return batchSize; }
+        public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+
+        public int getQueryTimeoutSeconds() { return queryTimeoutSeconds; }
+        public void setQueryTimeoutSeconds(int queryTimeoutSeconds) { this.queryTimeoutSeconds = queryTimeoutSeconds; }
+
+        public int getMaxDistinct() { return maxDistinct; }
+        public void setMaxDistinct(int maxDistinct) { this.maxDistinct = maxDistinct; }
+    }
+
+    /**
+     * Sampled column profiles persisted under the source's output directory,
+     * so a restart does not re-sample the whole database. A column profile is
+     * reused while the table's change token and the column's type are
+     * unchanged and it is younger than {@code ttlHours}. Least recently used
+     * tables are evicted once the directory exceeds {@code maxMb}.
+     */
+    public static class ProfileCache {
+
+        private boolean enabled = true;
+        private long ttlHours = 24;
+        private long maxMb = 256;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public long getTtlHours() { return ttlHours; }
+        public void setTtlHours(long ttlHours) { this.ttlHours = ttlHours; }
+
+        public long getMaxMb() { return maxMb; }
+        public void setMaxMb(long maxMb) { this.maxMb = maxMb; }
+    }
+
+    /**
+     * Drops sampled columns that are almost never join keys before pairs are
+     * compared: free text (values with blanks, or longer
+     * than {@code maxKeyLength} on average), fractional numbers and, with
+     * {@code dropDates}, dates. A pair is only compared when one side has a
+     * sample uniqueness of at least {@code minKeyUniqueness}, since a foreign
+     * key references a unique column.
+     *
+     * Flags are recognized by declared type (BIT, BOOLEAN, TINYINT(1),
+     * NUMBER(1)) and never sampled; a column that merely holds two values,
+     * such as a reference to a two-row lookup table, is kept.
+     */
+    public static class Pruning {
+
+        private boolean enabled = true;
+        private int maxKeyLength = 64;
+        private boolean dropDates = true;
+        private double minKeyUniqueness = 0.8;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public int getMaxKeyLength() { return maxKeyLength; }
+        public void setMaxKeyLength(int maxKeyLength) { this.maxKeyLength = maxKeyLength; }
+
+        public boolean isDropDates() { return dropDates; }
+        public void setDropDates(boolean dropDates) { this.dropDates = dropDates; }
+
+        public double getMinKeyUniqueness() { return minKeyUniqueness; }
+        public void setMinKeyUniqueness(double minKeyUniqueness) { this.minKeyUniqueness = minKeyUniqueness; }
+    }
+
+    /**
+     * Naming rules for relationships inferred from column names alone,
+     * applied in order. Kinds:
+     * <ul>
+     *   <li>{@code primary-key}: the column is named like another table's primary key</li>
+     *   <li>{@code table-name}: the column is the singular table name plus a suffix</li>
+     *   <li>{@code table-prefix}: the column is a prefix plus a suffix, and a table
+     *       name starts with that prefix or its primary key is named like the column</li>
+     * </ul>
+     */
+    public static class Semantic {
+
+        private boolean enabled = true;
+        private List<Rule> rules = new ArrayList<>(List.of(
+                new Rule("primary-key", List.of(), 0.95),
+                new Rule("table-name", List.of("_id"), 0.90),
+                new Rule("table-prefix", List.of("_code", "_ref"), 0.75)));
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public List<Rule> getRules() { return rules; }
+        public void setRules(List<Rule> rules) { this.rules = rules; }
+    }
+
+    public static class Rule {
+
+        private String kind;
+        private List<String> suffixes = new ArrayList<>();
+        private double confidence;
+
+        public Rule() {}
+
+        public Rule(String kind, List<String> suffixes, double confidence) {
+            this.kind = kind;
+            this.suffixes = new ArrayList<>(suffixes);
+            this.confidence = confidence;
+        }
+
+        public String getKind() { return kind; }
+        public void setKind(String kind) { this.kind = kind; }
+
+        public List<String> getSuffixes() { return suffixes; }
+        public void setSuffixes(List<String> suffixes) { this.suffixes = suffixes; }
+
+        public double getConfidence() { return confidence; }
+        public void setConfidence(double confidence) { this.confidence = confidence; }
+    }
+
+    /**
+     * Fuzzy column-name matching for legacy names such as {@code cust_no} or
+     * {@code custid}. Names are split into words, abbreviations expanded,
+     * and a column ending in one of the {@code keySuffixes} is matched by
+     * trigram similarity against table names and primary key names.
+     * Confidence is {@code maxConfidence} scaled by the similarity, for at
+     * most {@code maxMatches} tables per column.
+     */
+    public static class FuzzyNames {
+
+        private boolean enabled;
+        private double minSimilarity = 0.8;
+        private double maxConfidence = 0.85;
+        private int maxMatches = 3;
+        private List<String> keySuffixes = new ArrayList<>(List.of(
+                "id", "no", "nbr", "num", "number", "key", "code", "cd", "ref"));
+        private Map<String, String> abbreviations = new LinkedHashMap<>(Map.ofEntries(
+                Map.entry("acct", "account"), Map.entry("addr", "address"),
+                Map.entry("cat", "category"), Map.entry("cntry", "country"),
+                Map.entry("ctry", "country"), Map.entry("cur", "currency"),
+                Map.entry("curr", "currency"), Map.entry("cust", "customer"),
+                Map.entry("dept", "department"), Map.entry("emp", "employee"),
+                Map.entry("grp", "group"), Map.entry("inv", "invoice"),
+                Map.entry("loc", "location"), Map.entry("mgr", "manager"),
+                Map.entry("ord", "order"), Map.entry("org", "organization"),
+                Map.entry("pmt", "payment"), Map.entry("prod", "product"),
+                Map.entry("sup", "supplier"), Map.entry("supp", "supplier"),
+                Map.entry("trans", "transaction"), Map.entry("txn", "transaction"),
+                Map.entry("usr", "user"), Map.entry("vend", "vendor"),
+                Map.entry("whse", "warehouse")));
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public double getMinSimilarity() { return minSimilarity; }
+        public void setMinSimilarity(double minSimilarity) { this.minSimilarity = minSimilarity; }
+
+        public double getMaxConfidence() { return maxConfidence; }
+        public void setMaxConfidence(double maxConfidence) { this.maxConfidence = maxConfidence; }
+
+        public int getMaxMatches() { return maxMatches; }
+        public void setMaxMatches(int maxMatches) { this.maxMatches = maxMatches; }
+
+        public List<String> getKeySuffixes() { return keySuffixes; }
+        public void setKeySuffixes(List<String> keySuffixes) { this.keySuffixes = keySuffixes; }
+
+        public Map<String, String> getAbbreviations() { return abbreviations; }
+        public void setAbbreviations(Map<String, String> abbreviations) { this.abbreviations = abbreviations; }
+    }
+
+    /**
+     * Multi-column foreign keys into composite primary keys of up to
+     * {@code maxArity} columns. Each key column must first contain at least
+     * {@code minColumnOverlap} of the sampled values of a column of the other
+     * table; at most
+     * {@code maxCombinations} column tuples per table pair are then sampled
+     * as whole rows and compared as tuples.
+     */
+    public static class CompositeKeys {
+
+        private boolean enabled = true;
+        private int maxArity = 3;
+        private double minColumnOverlap = 0.6;
+        private int maxCombinations = 16;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public int getMaxArity() { return maxArity; }
+        public void setMaxArity(int maxArity) { this.maxArity = maxArity; }
+
+        public double getMinColumnOverlap() { return minColumnOverlap; }
+        public void setMinColumnOverlap(double minColumnOverlap) { this.minColumnOverlap = minColumnOverlap; }
+
+        public int getMaxCombinations() { return maxCombinations; }
+        public void setMaxCombinations(int maxCombinations) { this.maxCombinations = maxCombinations; }
+    }
+}
@@ -0,0 +1,61 @@
+package com.yogesh.er_scanner.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Additional named datasources scanned next to the primary spring.datasource,
+ * which is always registered as {@code default-id}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "sources")
+public class SourcesConfig {
+
+    private String defaultId = "default";
+    private long cacheMaxMb = 256;
+    private Map<String, Definition> definitions = new LinkedHashMap<>();
+
+    public String getDefaultId() { return defaultId; }
+    public void setDefaultId(String defaultId) { this.defaultId = defaultId; }
+
+    public long getCacheMaxMb() { return cacheMaxMb; }
+    public void setCacheMaxMb(long cacheMaxMb) { this.cacheMaxMb = cacheMaxMb; }
+
+    public Map<String, Definition> getDefinitions() { return definitions; }
+    public void setDefinitions(Map<String, Definition> definitions) { this.definitions = definitions; }
+
+    public static class Definition {
+
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximumPoolSize = 5;
+        private DatabaseConfig database = new DatabaseConfig();
+        private RelationshipConfig relationship = new RelationshipConfig();
+
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+
+        public String getPassword() { return password; }
+        public void setPassword(String password) { this.password = password; }
+
+        public String getDriverClassName() { return driverClassName; }
+        public void setDriverClassName(String driverClassName) { this.driverClassName = driverClassName; }
+
+        public int getMaximumPoolSize() { return maximumPoolSize; }
+        public void setMaximumPoolSize(int maximumPoolSize) { this.maximumPoolSize = maximumPoolSize; }
+
+        public DatabaseConfig getDatabase() { return database; }
+        public void setDatabase(DatabaseConfig database) { this.database = database; }
+
+        public RelationshipConfig getRelationship() { return relationship; }
+        public void setRelationship(RelationshipConfig relationship) { this.relationship = relationship; }
+    }
+}
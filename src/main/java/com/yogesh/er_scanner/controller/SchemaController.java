@@ -1,57 +1,154 @@
 package com.yogesh.er_scanner.controller;
 
 import com.yogesh.er_scanner.model.Schema;
+import com.yogesh.er_scanner.service.DataSourceRegistry;
 import com.yogesh.er_scanner.service.GraphExportService;
-import com.yogesh.er_scanner.service.SchemaScanner;
+import com.yogesh.er_scanner.service.RenderCache;
+import com.yogesh.er_scanner.service.ScanJob;
+import com.yogesh.er_scanner.service.ScanJobService;
+import com.yogesh.er_scanner.service.ScanSource;
+import com.yogesh.er_scanner.service.SchemaJsonExporter;
 import com.yogesh.er_scanner.service.SchemaService;
 
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/schema")
 public class SchemaController {
 
-    private final SchemaScanner schemaScanner;
+    private final ScanJobService scanJobService;
     private final SchemaService schemaService;
     private final GraphExportService graphExportService;
+    private final SchemaJsonExporter jsonExporter;
+    private final RenderCache renderCache;
+    private final DataSourceRegistry registry;
 
-    public SchemaController(SchemaScanner schemaScanner,
+    public SchemaController(ScanJobService scanJobService,
                             SchemaService schemaService,
-                            GraphExportService graphExportService) {
-        this.schemaScanner = schemaScanner;
+                            GraphExportService graphExportService,
+                            SchemaJsonExporter jsonExporter,
+                            RenderCache renderCache,
+                            DataSourceRegistry registry) {
+        this.scanJobService = scanJobService;
         this.schemaService = schemaService;
         this.graphExportService = graphExportService;
+        this.jsonExporter = jsonExporter;
+        this.renderCache = renderCache;
+        this.registry = registry;
     }
 
     // =====================================================
-    // 1️⃣ Scan Configured Tables Only
+    // 0️⃣ Registered Sources
+    // =====================================================
+
+    // Every endpoint below takes ?source=<id>; omitted means the default source
+
+    @GetMapping("/sources")
+    public ResponseEntity<Map<String, Object>> listSources() {
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("default", registry.getDefaultId());
+        body.put("sources", registry.all().stream()
+                .map(ScanSource::getId)
+                .toList());
+
+        return ResponseEntity.ok(body);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    // =====================================================
+    // 1️⃣ Scan Configured Tables Only (background job)
     // =====================================================
 
     @PostMapping("/scan")
-    public ResponseEntity<String> scanSchema() {
+    public ResponseEntity<Map<String, Object>> scanSchema(
+            @RequestParam(required = false) String source) {
+        return submitScan(source, Set.of());
+    }
+
+    @PostMapping("/scan/{table}")
+    public ResponseEntity<Map<String, Object>> scanTable(
+            @PathVariable String table,
+            @RequestParam(required = false) String source) {
+        return submitScan(source, Set.of(table));
+    }
+
+    @GetMapping("/scan/jobs/current")
+    public ResponseEntity<Map<String, Object>> getCurrentJob(
+            @RequestParam(required = false) String source) {
+        return scanJobService.current(source)
+                .map(job -> ResponseEntity.ok(job.snapshot()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/scan/jobs/{id}")
+    public ResponseEntity<Map<String, Object>> getJob(@PathVariable String id) {
+        return scanJobService.find(id)
+                .map(job -> ResponseEntity.ok(job.snapshot()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/scan/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamJob(@PathVariable String id) {
+        return scanJobService.find(id)
+                .map(job -> ResponseEntity.ok(scanJobService.subscribe(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/scan/jobs/{id}/cancel")
+    public ResponseEntity<Map<String, Object>> cancelJob(@PathVariable String id) {
+        return scanJobService.cancel(id)
+                .map(job -> ResponseEntity.ok(job.snapshot()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private ResponseEntity<Map<String, Object>> submitScan(String source,
+                                                           Set<String> tables) {
 
         try {
 
-            Schema scannedSchema = schemaScanner.scan();
+            ScanJob job = scanJobService.submit(source, tables);
+
+            return ResponseEntity.accepted()
+                    .location(URI.create("/schema/scan/jobs/" + job.getId()))
+                    .body(job.snapshot());
 
-            // This merges DATA_SAMPLE relationships
-            schemaService.buildSchema(scannedSchema);
+        } catch (IllegalArgumentException e) {
 
-            return ResponseEntity.ok(
-                    "Schema scanned successfully for configured tables.");
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", e.getMessage()));
+
+        } catch (IllegalStateException e) {
+
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", e.getMessage()));
 
         } catch (Exception e) {
 
             e.printStackTrace();
 
             return ResponseEntity.internalServerError()
-                    .body("Scan failed: " + e.getMessage());
+                    .body(Map.of("message", "Scan failed: " + e.getMessage()));
         }
     }
 
@@ -59,11 +156,83 @@ public class SchemaController {
     // 2️⃣ Get Full Schema JSON (AI Compatible)
     // =====================================================
 
+    // Streamed element by element, compressed when the client accepts it.
+    // ?format=ndjson writes one {"table": ...} or {"relationship": ...} per line;
+    // ?tables=a,b keeps those tables and relationships touching them,
+    // ?types=STRICT,INFERRED and ?minConfidence=0.8 filter relationships
+
     @GetMapping("/json")
-    public ResponseEntity<Schema> getSchemaJson() {
+    public ResponseEntity<StreamingResponseBody> getSchemaJson(
+            @RequestParam(required = false) String source,
+            @RequestParam(required = false) String tables,
+            @RequestParam(required = false) String types,
+            @RequestParam(required = false) Double minConfidence,
+            @RequestParam(defaultValue = "json") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        boolean ndjson;
+        if (format.equalsIgnoreCase("ndjson")) ndjson = true;
+        else if (format.equalsIgnoreCase("json")) ndjson = false;
+        else throw new IllegalArgumentException("Unknown format: " + format + " (expected json or ndjson)");
+
+        SchemaJsonExporter.Filter filter = SchemaJsonExporter.Filter.parse(tables, types, minConfidence);
+        Schema schema = schemaService.getSchema(source);
+        String encoding = negotiateEncoding(acceptEncoding);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON);
+        headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (encoding != null) headers.set(HttpHeaders.CONTENT_ENCODING, encoding);
+
+        StreamingResponseBody body = out -> {
+            try (OutputStream target = compress(out, encoding)) {
+                if (ndjson) jsonExporter.writeNdjson(schema, filter, target);
+                else jsonExporter.writeJson(schema, filter, target, false);
+            }
+        };
+
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
+    /**
+     * gzip or deflate, whichever the Accept-Encoding header weights higher
+     * (gzip on a tie), or null for identity.
+     */
+    static String negotiateEncoding(String acceptEncoding) {
+        double gzip = quality(acceptEncoding, "gzip");
+        double deflate = quality(acceptEncoding, "deflate");
+        if (gzip > 0 && gzip >= deflate) return "gzip";
+        return deflate > 0 ? "deflate" : null;
+    }
 
-        return ResponseEntity.ok(
-                schemaService.getSchema());
+    // q-value the Accept-Encoding header gives a content coding; 0 when absent
+    private static double quality(String acceptEncoding, String coding) {
+
+        if (acceptEncoding == null) return 0;
+
+        for (String part : acceptEncoding.split(",")) {
+            String[] fields = part.trim().split(";");
+            if (!fields[0].trim().equalsIgnoreCase(coding)) continue;
+
+            for (int i = 1; i < fields.length; i++) {
+                String param = fields[i].trim();
+                if (!param.startsWith("q=")) continue;
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+            return 1;
+        }
+
+        return 0;
+    }
+
+    private static OutputStream compress(OutputStream out, String encoding) throws IOException {
+        if ("gzip".equals(encoding)) return new GZIPOutputStream(out, 1 << 16);
+        if ("deflate".equals(encoding)) return new DeflaterOutputStream(out);
+        return out;
     }
 
     // =====================================================
@@ -71,10 +240,11 @@ public class SchemaController {
     // =====================================================
 
     @GetMapping("/er-mermaid")
-    public ResponseEntity<String> getMermaid() {
-        System.out.println("Generating Mermaid ER Diagram..."+schemaService.generateMermaid());
-        return ResponseEntity.ok(
-                schemaService.generateMermaid());
+    public ResponseEntity<byte[]> getMermaid(
+            @RequestParam(required = false) String source,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding)
+            throws Exception {
+        return rendered(schemaService.renderMermaid(registry.get(source)), acceptEncoding, new HttpHeaders());
     }
 
     // =====================================================
@@ -82,9 +252,10 @@ public class SchemaController {
     // =====================================================
 
     @GetMapping("/er-mermaid-domains")
-    public ResponseEntity<List<String>> listDomainFiles() {
+    public ResponseEntity<List<String>> listDomainFiles(
+            @RequestParam(required = false) String source) {
 
-        File dir = new File("output/mermaid-domains");
+        File dir = registry.get(source).outputFile("mermaid-domains");
 
         if (!dir.exists()) {
             return ResponseEntity.ok(Collections.emptyList());
@@ -104,9 +275,11 @@ public class SchemaController {
     // =====================================================
 
     @GetMapping("/graph")
-    public ResponseEntity<Map<String, Object>> getCytoscapeGraph() {
+    public ResponseEntity<byte[]> getCytoscapeGraph(
+            @RequestParam(required = false) String source,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            return ResponseEntity.ok(graphExportService.getCytoscapeGraph());
+            return rendered(graphExportService.renderCytoscapeGraph(source), acceptEncoding, new HttpHeaders());
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.internalServerError().build();
@@ -118,23 +291,67 @@ public class SchemaController {
     // =====================================================
 
     @GetMapping("/export/graphml")
-    public ResponseEntity<String> exportGraphMl() {
-        try {
-            String graphml = graphExportService.getGraphMl();
+    public ResponseEntity<StreamingResponseBody> exportGraphMl(
+            @RequestParam(required = false) String source,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request) {
+
+        // Streamed, not cached: the ETag comes from the schema and domain versions
+        GraphExportService.GraphMl graphml = graphExportService.getGraphMl(source);
+        String encoding = negotiateEncoding(acceptEncoding);
+        String etag = "\"" + graphml.getVersion() + (encoding == null ? "" : "-" + encoding) + "\"";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.setCacheControl("no-cache");
+        headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_XML);
-            headers.set(HttpHeaders.CONTENT_DISPOSITION,
-                    "attachment; filename=\"er-schema.graphml\"");
+        headers.setContentType(MediaType.APPLICATION_XML);
+        headers.set(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"er-schema.graphml\"");
+        if (encoding != null) headers.set(HttpHeaders.CONTENT_ENCODING, encoding);
 
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(graphml);
+        StreamingResponseBody body = out -> {
+            try (OutputStream target = compress(out, encoding)) {
+                graphml.writeTo(target);
+            }
+        };
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.internalServerError()
-                    .body("GraphML export failed: " + e.getMessage());
-        }
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
+    // =====================================================
+    // 7️⃣ Render Cache Statistics
+    // =====================================================
+
+    @GetMapping("/render-cache")
+    public ResponseEntity<Map<String, Object>> getRenderCacheStats() {
+        return ResponseEntity.ok(renderCache.stats());
+    }
+
+    /**
+     * A cached render with its strong ETag; gzip-encoded when the client
+     * accepts it. Spring answers 304 when If-None-Match carries the ETag.
+     * no-cache makes polling browsers revalidate instead of refetching.
+     */
+    private ResponseEntity<byte[]> rendered(RenderCache.Rendered r,
+                                            String acceptEncoding,
+                                            HttpHeaders headers) {
+
+        boolean gzip = quality(acceptEncoding, "gzip") > 0;
+
+        headers.setContentType(MediaType.parseMediaType(r.getContentType()));
+        headers.setETag(r.getEtag(gzip));
+        headers.setCacheControl("no-cache");
+        headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(gzip ? r.getGzip() : r.getBytes());
     }
 }
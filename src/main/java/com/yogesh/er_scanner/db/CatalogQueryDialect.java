@@ -0,0 +1,266 @@
+package com.yogesh.er_scanner.db;
+
+import com.yogesh.er_scanner.model.*;
+import com.yogesh.er_scanner.overlap.TypeFamily;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Base for dialects that read the whole catalog with set-based queries
+ * against the data dictionary instead of three DatabaseMetaData calls per table.
+ *
+ * Each query takes the schema as first bind parameter followed by a chunk of
+ * table names for the IN list, so the number of round trips is
+ * 3 × ceil(tables / IN_LIST_CHUNK) regardless of how many columns there are.
+ */
+public abstract class CatalogQueryDialect implements DatabaseDialect {
+
+    // Oracle rejects IN lists longer than 1000 entries
+    private static final int IN_LIST_CHUNK = 500;
+
+    /** Columns: TABLE_NAME, COLUMN_NAME, TYPE_NAME ordered by table and position. */
+    protected abstract String columnsQuery(String inList);
+
+    /** Primary key columns: TABLE_NAME, COLUMN_NAME. */
+    protected abstract String primaryKeysQuery(String inList);
+
+    /**
+     * Imported keys: TABLE_NAME, COLUMN_NAME, REFERENCED_TABLE_NAME,
+     * REFERENCED_COLUMN_NAME, CONSTRAINT_NAME, ordered by table, constraint
+     * and column position.
+     */
+    protected abstract String foreignKeysQuery(String inList);
+
+    /**
+     * One page of base table names: binds owner, after, after, limit.
+     * Must order by TABLE_NAME and treat a null {@code after} as "from the start".
+     */
+    protected abstract String tablesPageQuery();
+
+    /** Change token per table: TABLE_NAME, TOKEN. Null when the engine has none. */
+    protected String tableVersionsQuery(String inList) {
+        return null;
+    }
+
+    /** Row estimate per table: TABLE_NAME, ROWS. Null when the engine has none. */
+    protected String rowEstimatesQuery(String inList) {
+        return null;
+    }
+
+    /** Schema used when none is configured. */
+    protected abstract String currentSchema(Connection conn) throws Exception;
+
+    /** Converts a configured name to the form stored in the data dictionary. */
+    protected String toCatalogName(String name) {
+        return name;
+    }
+
+    @Override
+    public Schema loadCatalog(Connection conn,
+                              String schema,
+                              List<String> tables,
+                              Set<String> scope) throws Exception {
+
+        String owner = resolveOwner(conn, schema);
+
+        // lower-case catalog name → configured name, so output keeps configured spelling
+        Map<String, String> requested = new LinkedHashMap<>();
+        Map<String, List<Column>> columnsByTable = new HashMap<>();
+        for (String table : tables) {
+            requested.put(table.toLowerCase(), table);
+            columnsByTable.put(table.toLowerCase(), new ArrayList<>());
+        }
+
+        List<String> catalogNames = catalogNames(tables);
+
+        // ---------- LOAD COLUMNS ----------
+        forEachRow(conn, owner, catalogNames, this::columnsQuery, rs -> {
+            List<Column> columns = columnsByTable.get(rs.getString(1).toLowerCase());
+            if (columns != null) {
+                columns.add(new Column(rs.getString(2), rs.getString(3), false));
+            }
+        });
+
+        // ---------- LOAD PRIMARY KEYS ----------
+        forEachRow(conn, owner, catalogNames, this::primaryKeysQuery, rs ->
+                mark(columnsByTable.get(rs.getString(1).toLowerCase()),
+                        rs.getString(2), true));
+
+        // ---------- LOAD FOREIGN KEYS ----------
+        // One relationship per constraint; composite keys span several rows
+        Map<String, ForeignKey> constraints = new LinkedHashMap<>();
+
+        forEachRow(conn, owner, catalogNames, this::foreignKeysQuery, rs -> {
+
+            String sourceTable = requested.get(rs.getString(1).toLowerCase());
+            String referencedKey = rs.getString(3).toLowerCase();
+
+            // Only allow relationships inside configured tables
+            if (sourceTable == null
+                    || (scope != null && !scope.contains(referencedKey))) return;
+
+            String referencedTable = requested.getOrDefault(referencedKey, rs.getString(3));
+
+            String fkColumn = rs.getString(2);
+            mark(columnsByTable.get(sourceTable.toLowerCase()), fkColumn, false);
+
+            constraints.computeIfAbsent(
+                    sourceTable.toLowerCase() + "|" + rs.getString(5),
+                    k -> new ForeignKey(sourceTable, referencedTable))
+                    .add(fkColumn, rs.getString(4));
+        });
+
+        List<Relationship> relationships = new ArrayList<>();
+        for (ForeignKey fk : constraints.values()) {
+            relationships.add(fk.toRelationship());
+        }
+
+        // Keep configured table order; relationships follow their source table
+        List<Table> result = new ArrayList<>();
+        for (Map.Entry<String, String> entry : requested.entrySet()) {
+            result.add(new Table(entry.getValue(), columnsByTable.get(entry.getKey())));
+        }
+
+        Map<String, Integer> order = new HashMap<>();
+        for (String key : requested.keySet()) order.put(key, order.size());
+        relationships.sort(Comparator.comparingInt(
+                r -> order.get(r.getSourceTable().toLowerCase())));
+
+        return new Schema(result, relationships);
+    }
+
+    @Override
+    public List<String> listTables(Connection conn,
+                                   String schema,
+                                   String after,
+                                   int limit) throws Exception {
+
+        List<String> names = new ArrayList<>();
+
+        try (PreparedStatement ps = conn.prepareStatement(tablesPageQuery())) {
+
+            ps.setString(1, resolveOwner(conn, schema));
+            ps.setString(2, after);
+            ps.setString(3, after);
+            ps.setInt(4, limit);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    names.add(rs.getString(1));
+                }
+            }
+        }
+
+        return names;
+    }
+
+    @Override
+    public Map<String, String> loadTableVersions(Connection conn,
+                                                 String schema,
+                                                 List<String> tables) throws Exception {
+
+        if (tableVersionsQuery("?") == null) return Map.of();
+
+        List<String> catalogNames = catalogNames(tables);
+
+        Map<String, String> versions = new HashMap<>();
+
+        forEachRow(conn, resolveOwner(conn, schema), catalogNames, this::tableVersionsQuery, rs -> {
+            String token = rs.getString(2);
+            if (token != null) {
+                versions.put(rs.getString(1).toLowerCase(), token);
+            }
+        });
+
+        return versions;
+    }
+
+    @Override
+    public Map<String, Long> loadRowEstimates(Connection conn,
+                                              String schema,
+                                              List<String> tables) throws Exception {
+
+        if (rowEstimatesQuery("?") == null) return Map.of();
+
+        Map<String, Long> estimates = new HashMap<>();
+
+        forEachRow(conn, resolveOwner(conn, schema), catalogNames(tables), this::rowEstimatesQuery, rs -> {
+            long rows = rs.getLong(2);
+            if (!rs.wasNull()) {
+                estimates.put(rs.getString(1).toLowerCase(), rows);
+            }
+        });
+
+        return estimates;
+    }
+
+    /** Single-column numeric primary key, or null. */
+    protected Column numericPrimaryKey(Table table) {
+        List<Column> keys = table.getColumns().stream()
+                .filter(Column::isPrimaryKey)
+                .toList();
+        return keys.size() == 1 && TypeFamily.ofTypeName(keys.get(0).getType()) == TypeFamily.NUMERIC
+                ? keys.get(0)
+                : null;
+    }
+
+    protected List<String> catalogNames(List<String> tables) {
+        return tables.stream()
+                .map(this::toCatalogName)
+                .toList();
+    }
+
+    protected String resolveOwner(Connection conn, String schema) throws Exception {
+        return schema != null && !schema.isBlank()
+                ? toCatalogName(schema)
+                : currentSchema(conn);
+    }
+
+    private void mark(List<Column> columns, String columnName, boolean primaryKey) {
+        if (columns == null) return;
+        for (Column c : columns) {
+            if (c.getName().equalsIgnoreCase(columnName)) {
+                if (primaryKey) c.setPrimaryKey(true);
+                else c.setForeignKey(true);
+            }
+        }
+    }
+
+    protected void forEachRow(Connection conn,
+                            String owner,
+                            List<String> tables,
+                            Function<String, String> query,
+                            RowHandler handler) throws Exception {
+
+        for (int from = 0; from < tables.size(); from += IN_LIST_CHUNK) {
+
+            List<String> chunk = tables.subList(from,
+                    Math.min(from + IN_LIST_CHUNK, tables.size()));
+
+            String inList = String.join(",", Collections.nCopies(chunk.size(), "?"));
+
+            try (PreparedStatement ps = conn.prepareStatement(query.apply(inList))) {
+
+                ps.setString(1, owner);
+                for (int i = 0; i < chunk.size(); i++) {
+                    ps.setString(i + 2, chunk.get(i));
+                }
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        handler.accept(rs);
+                    }
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    protected interface RowHandler {
+        void accept(ResultSet rs) throws Exception;
+    }
+}
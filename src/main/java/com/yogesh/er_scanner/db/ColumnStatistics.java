@@ -0,0 +1,92 @@
+package com.yogesh.er_scanner.db;
+
+import com.yogesh.er_scanner.overlap.TypeFamily;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Optimizer statistics for one column, as kept in the data dictionary.
+ * Counts are -1 when the engine does not record them.
+ */
+public class ColumnStatistics {
+
+    // A column counts as a key when it has at least this many distinct values per row
+    private static final double KEY_RATIO = 0.9;
+
+    private final String column;
+    private final TypeFamily typeFamily;
+
+    private long numDistinct = -1;
+    private long numNulls = -1;
+    private long tableRows = -1;
+    private String low;
+    private String high;
+
+    // Actual column values named by histogram endpoints
+    private final Set<String> values = new LinkedHashSet<>();
+    // True when values lists every distinct value (frequency histograms)
+    private boolean complete;
+    // Value intervals from equi-height buckets; empty means [low, high]
+    private final List<String[]> buckets = new ArrayList<>();
+
+    public ColumnStatistics(String column, TypeFamily typeFamily) {
+        this.column = column;
+        this.typeFamily = typeFamily;
+    }
+
+    public String getColumn() { return column; }
+    public TypeFamily getTypeFamily() { return typeFamily; }
+
+    public long getNumDistinct() { return numDistinct; }
+    public void setNumDistinct(long numDistinct) { this.numDistinct = numDistinct; }
+
+    public long getNumNulls() { return numNulls; }
+    public void setNumNulls(long numNulls) { this.numNulls = numNulls; }
+
+    public long getTableRows() { return tableRows; }
+    public void setTableRows(long tableRows) { this.tableRows = tableRows; }
+
+    public String getLow() { return low; }
+    public void setLow(String low) { this.low = low; }
+
+    public String getHigh() { return high; }
+    public void setHigh(String high) { this.high = high; }
+
+    public Set<String> getValues() { return values; }
+
+    public boolean isComplete() { return complete; }
+    public void setComplete(boolean complete) { this.complete = complete; }
+
+    public List<String[]> getBuckets() { return buckets; }
+
+    public boolean hasRange() {
+        return low != null && high != null;
+    }
+
+    /** Intervals known to contain every non-null value. */
+    public List<String[]> getRanges() {
+        if (!buckets.isEmpty()) return buckets;
+        return hasRange() ? Collections.singletonList(new String[]{low, high}) : List.of();
+    }
+
+    /** Distinct count close to the row count: a primary or unique key candidate. */
+    public boolean isKeyLike() {
+        return numDistinct > 1
+                && tableRows > 0
+                && numDistinct >= KEY_RATIO * (tableRows - Math.max(numNulls, 0));
+    }
+
+    /**
+     * Whether the statistics say enough to stand in for sampled values:
+     * a distinct count plus a value range or more than one known value.
+     */
+    public boolean isUsable() {
+        return numDistinct > 1
+                && typeFamily != TypeFamily.OTHER
+                && (hasRange() || values.size() > 1);
+    }
+}
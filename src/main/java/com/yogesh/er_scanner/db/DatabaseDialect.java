@@ -1,6 +1,182 @@
 package com.yogesh.er_scanner.db;
 
+import com.yogesh.er_scanner.model.Column;
+import com.yogesh.er_scanner.model.Schema;
+import com.yogesh.er_scanner.model.Table;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 public interface DatabaseDialect {
 
-    String getSampleQuery(String tableName, int sampleSize);
-}
\ No newline at end of file
+    /**
+     * Builds the row-sampling query for one table, selecting only {@code columns}.
+     * Dialects pick an engine-native strategy that avoids always reading the
+     * leading rows of the clustered index.
+     *
+     * @param estimatedRows catalog row estimate, or -1 when unknown
+     */
+    String getSampleQuery(Table table,
+                          List<Column> columns,
+                          int sampleSize,
+                          long estimatedRows);
+
+    /**
+     * Builds a hash-coordinated sample: for each column, up to
+     * {@code sampleSize} rows whose value hashes to bucket 0 of
+     * {@code buckets}, as one UNION ALL branch per column. The select list is
+     * the columns followed by one 0/1 flag per column telling which branch the
+     * row came from, so each column's values come from its own capped slice.
+     * {@code buckets} is a power of two so slices nest. No index serves the
+     * hash predicate, so each branch may read the whole table.
+     *
+     * @return the query, or null when the engine has no usable hash function
+     */
+    default String getCoordinatedSampleQuery(Table table,
+                                             List<Column> columns,
+                                             int sampleSize,
+                                             int buckets) {
+        return null;
+    }
+
+    /**
+     * One row {@code (key, checked, orphans)} for a bounded anti-join: how many
+     * of the first {@code limit} distinct non-null key tuples of
+     * {@code table.columns} were checked, and how many of them are missing
+     * from {@code refTable.refColumns}, matched column by column. Rows of
+     * several calls are combined with UNION ALL into one statement.
+     */
+    default String getContainmentQuery(int key,
+                                       String table,
+                                       List<String> columns,
+                                       String refTable,
+                                       List<String> refColumns,
+                                       int limit) {
+        return "SELECT " + key + ", COUNT(*), " +
+                "COUNT(CASE WHEN NOT EXISTS (SELECT 1 FROM " + refTable + " r " +
+                "WHERE " + keyMatch(refColumns) + ") THEN 1 END) " +
+                "FROM (SELECT DISTINCT " + keyList(columns) + " FROM " + table +
+                " WHERE " + keyNotNull(columns) + " FETCH FIRST " + limit + " ROWS ONLY) s";
+    }
+
+    /**
+     * Tunes a forward-only, read-only sampling statement so the driver
+     * streams rows instead of buffering the whole result.
+     *
+     * @param expectedRows upper bound of rows the query returns
+     */
+    default void configureSampleStatement(Statement statement, long expectedRows) throws SQLException {
+        statement.setFetchSize((int) Math.min(Math.max(expectedRows, 1), 1000));
+    }
+
+    /**
+     * Returns the catalog's row estimate per table (lower-case name → rows).
+     * Tables the engine keeps no estimate for are absent from the map.
+     */
+    default Map<String, Long> loadRowEstimates(Connection conn,
+                                               String schema,
+                                               List<String> tables) throws Exception {
+        return Map.of();
+    }
+
+    /** Comma-separated column names, each prefixed with {@code qualifier}. */
+    static String selectList(List<Column> columns, String qualifier) {
+        StringBuilder sb = new StringBuilder();
+        for (Column c : columns) {
+            if (sb.length() > 0) sb.append(", ");
+            sb.append(qualifier).append(c.getName());
+        }
+        return sb.toString();
+    }
+
+    /** Constant 0/1 flags for {@code count} columns, 1 only at {@code flagged}. */
+    static String sliceFlags(int count, int flagged) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(i == flagged ? "1" : "0");
+        }
+        return sb.toString();
+    }
+
+    /** Key columns aliased {@code v0, v1, ...} for a containment check. */
+    static String keyList(List<String> columns) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(columns.get(i)).append(" AS v").append(i);
+        }
+        return sb.toString();
+    }
+
+    static String keyNotNull(List<String> columns) {
+        return String.join(" AND ", columns.stream().map(c -> c + " IS NOT NULL").toList());
+    }
+
+    /** Reference columns {@code r.*} equal to the aliased key tuple {@code s.v*}. */
+    static String keyMatch(List<String> refColumns) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < refColumns.size(); i++) {
+            if (i > 0) sb.append(" AND ");
+            sb.append("r.").append(refColumns.get(i)).append(" = s.v").append(i);
+        }
+        return sb.toString();
+    }
+
+    /** Per-table sampling seed, so repeated scans read the same rows. */
+    static int sampleSeed(Table table) {
+        return Math.floorMod(table.getName().toLowerCase().hashCode(), 1_000_000_000);
+    }
+
+    /**
+     * Loads columns, primary keys and foreign keys for the given tables.
+     * Foreign keys pointing outside {@code scope} are dropped, and tables
+     * come back in the order they were requested.
+     *
+     * @param schema owning schema, or null for the connection's current schema
+     * @param scope  lower-case names of every table a foreign key may reference;
+     *               wider than {@code tables} when the scan is split into batches,
+     *               or null to keep every foreign key
+     */
+    Schema loadCatalog(Connection conn,
+                       String schema,
+                       List<String> tables,
+                       Set<String> scope) throws Exception;
+
+    /**
+     * Lists base tables of {@code schema} in catalog name order, one page at
+     * a time. Pass the last name of the previous page as {@code after}, or
+     * null for the first page.
+     */
+    List<String> listTables(Connection conn,
+                            String schema,
+                            String after,
+                            int limit) throws Exception;
+
+    /**
+     * Returns a change token per table (lower-case name → token), taken from
+     * catalog timestamps such as UPDATE_TIME or LAST_DDL_TIME. Tables the
+     * engine keeps no timestamp for are simply absent from the map.
+     */
+    default Map<String, String> loadTableVersions(Connection conn,
+                                                  String schema,
+                                                  List<String> tables) throws Exception {
+        return Map.of();
+    }
+
+    /**
+     * Returns optimizer statistics per table (lower-case name → column → stats),
+     * read in bulk from the data dictionary. Columns without statistics are
+     * absent; engines that expose none return an empty map.
+     */
+    default Map<String, Map<String, ColumnStatistics>> loadColumnStatistics(
+            Connection conn,
+            String schema,
+            List<String> tables) throws Exception {
+        return Map.of();
+    }
+}
@@ -21,6 +21,7 @@ public class DatabaseDialectFactory {
             return new MySqlDialect();
         }
 
-        throw new RuntimeException("Unsupported DB: " + product);
+        // Unknown engine: fall back to plain DatabaseMetaData
+        return new GenericDialect();
     }
 }
\ No newline at end of file
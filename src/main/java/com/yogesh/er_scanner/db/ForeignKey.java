@@ -0,0 +1,34 @@
+package com.yogesh.er_scanner.db;
+
+import com.yogesh.er_scanner.model.Relationship;
+import com.yogesh.er_scanner.model.RelationshipType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Columns of one declared foreign key constraint, collected row by row from
+ * the catalog in key order.
+ */
+class ForeignKey {
+
+    private final String sourceTable;
+    private final String targetTable;
+    private final List<String> sourceColumns = new ArrayList<>();
+    private final List<String> targetColumns = new ArrayList<>();
+
+    ForeignKey(String sourceTable, String targetTable) {
+        this.sourceTable = sourceTable;
+        this.targetTable = targetTable;
+    }
+
+    void add(String sourceColumn, String targetColumn) {
+        sourceColumns.add(sourceColumn);
+        targetColumns.add(targetColumn);
+    }
+
+    Relationship toRelationship() {
+        return new Relationship(sourceTable, sourceColumns, targetTable, targetColumns,
+                RelationshipType.STRICT, 1.0);
+    }
+}
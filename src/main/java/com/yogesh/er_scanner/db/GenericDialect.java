@@ -0,0 +1,135 @@
+package com.yogesh.er_scanner.db;
+
+import com.yogesh.er_scanner.model.*;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.*;
+
+/**
+ * Fallback for databases without a dedicated dialect.
+ * Reads the catalog through DatabaseMetaData, three calls per table.
+ */
+public class GenericDialect implements DatabaseDialect {
+
+    @Override
+    public String getSampleQuery(Table table,
+                                 List<Column> columns,
+                                 int sampleSize,
+                                 long estimatedRows) {
+        // No portable sampling clause; the projection still skips LOBs
+        return "SELECT " + DatabaseDialect.selectList(columns, "") +
+                " FROM " + table.getName() +
+                " FETCH FIRST " + sampleSize + " ROWS ONLY";
+    }
+
+    @Override
+    public Schema loadCatalog(Connection conn,
+                              String schema,
+                              List<String> tables,
+                              Set<String> scope) throws Exception {
+
+        List<Table> result = new ArrayList<>();
+        List<Relationship> relationships = new ArrayList<>();
+
+        DatabaseMetaData meta = conn.getMetaData();
+
+        for (String tableName : tables) {
+
+            List<Column> columns = new ArrayList<>();
+
+            // ---------- LOAD COLUMNS ----------
+            try (ResultSet rsColumns =
+                         meta.getColumns(null, schema, tableName, null)) {
+
+                while (rsColumns.next()) {
+                    columns.add(
+                            new Column(
+                                    rsColumns.getString("COLUMN_NAME"),
+                                    rsColumns.getString("TYPE_NAME"),
+                                    false
+                            )
+                    );
+                }
+            }
+
+            // ---------- LOAD PRIMARY KEYS ----------
+            try (ResultSet rsPK =
+                         meta.getPrimaryKeys(null, schema, tableName)) {
+
+                while (rsPK.next()) {
+                    String pk = rsPK.getString("COLUMN_NAME");
+                    columns.stream()
+                            .filter(c -> c.getName().equalsIgnoreCase(pk))
+                            .forEach(c -> c.setPrimaryKey(true));
+                }
+            }
+
+            // ---------- LOAD FOREIGN KEYS ----------
+            // Rows come ordered by key sequence; grouped by constraint name,
+            // or one per column for drivers that report none
+            Map<String, ForeignKey> constraints = new LinkedHashMap<>();
+
+            try (ResultSet rsFK =
+                         meta.getImportedKeys(null, schema, tableName)) {
+
+                while (rsFK.next()) {
+
+                    String referencedTable = rsFK.getString("PKTABLE_NAME");
+
+                    // Only allow relationships
+                    // inside configured tables
+                    if (scope != null
+                            && !scope.contains(referencedTable.toLowerCase())) {
+                        continue;
+                    }
+
+                    String fkColumn = rsFK.getString("FKCOLUMN_NAME");
+
+                    columns.stream()
+                            .filter(c -> c.getName().equalsIgnoreCase(fkColumn))
+                            .forEach(c -> c.setForeignKey(true));
+
+                    String fkName = rsFK.getString("FK_NAME");
+                    constraints.computeIfAbsent(
+                            fkName != null ? fkName : "#" + constraints.size(),
+                            k -> new ForeignKey(tableName, referencedTable))
+                            .add(fkColumn, rsFK.getString("PKCOLUMN_NAME"));
+                }
+            }
+
+            for (ForeignKey fk : constraints.values()) {
+                relationships.add(fk.toRelationship());
+            }
+
+            result.add(new Table(tableName, columns));
+        }
+
+        return new Schema(result, relationships);
+    }
+
+    @Override
+    public List<String> listTables(Connection conn,
+                                   String schema,
+                                   String after,
+                                   int limit) throws Exception {
+
+        // DatabaseMetaData cannot page, so read the names and skip ahead
+        List<String> names = new ArrayList<>();
+
+        try (ResultSet rs = conn.getMetaData()
+                .getTables(null, schema, "%", new String[]{"TABLE"})) {
+            while (rs.next()) {
+                names.add(rs.getString("TABLE_NAME"));
+            }
+        }
+
+        Collections.sort(names);
+
+        return names.stream()
+                .filter(n -> after == null || n.compareTo(after) > 0)
+                .limit(limit)
+                .toList();
+    }
+}
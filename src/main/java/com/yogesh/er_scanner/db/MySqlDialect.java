@@ -1,10 +1,269 @@
 package com.yogesh.er_scanner.db;
 
-public class MySqlDialect implements DatabaseDialect {
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yogesh.er_scanner.model.Column;
+import com.yogesh.er_scanner.model.Table;
+import com.yogesh.er_scanner.overlap.TypeFamily;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+
+public class MySqlDialect extends CatalogQueryDialect {
+
+    // OFFSET still reads the skipped rows, so keep the jump bounded
+    private static final long MAX_SAMPLE_OFFSET = 100_000;
+
+    // Above this many rows Connector/J streams instead of buffering the result
+    private static final long STREAM_THRESHOLD = 1000;
+
+    @Override
+    public String getSampleQuery(Table table,
+                                 List<Column> columns,
+                                 int sampleSize,
+                                 long estimatedRows) {
+
+        String name = table.getName();
+
+        // Small or unknown tables: the leading rows are as good as any
+        if (estimatedRows <= (long) sampleSize * 10) {
+            return "SELECT " + DatabaseDialect.selectList(columns, "") +
+                    " FROM " + name + " LIMIT " + sampleSize;
+        }
+
+        int seed = DatabaseDialect.sampleSeed(table);
+        Column pk = numericPrimaryKey(table);
+
+        if (pk != null) {
+            // Start a key range at a seeded random point; MIN/MAX only touch the index ends.
+            // The derived table is aggregated, so MySQL materializes it once.
+            double span = 1.0 - (double) sampleSize / estimatedRows;
+            String key = pk.getName();
+            return "SELECT " + DatabaseDialect.selectList(columns, "t.") +
+                    " FROM " + name + " t " +
+                    "JOIN (SELECT MIN(" + key + ") + FLOOR(RAND(" + seed + ") * " + span +
+                    " * (MAX(" + key + ") - MIN(" + key + ") + 1)) AS sample_start " +
+                    "FROM " + name + ") r ON t." + key + " >= r.sample_start " +
+                    "ORDER BY t." + key + " LIMIT " + sampleSize;
+        }
+
+        // TABLE_ROWS can be off by half either way; an offset past the real end
+        // reads nothing, so draw it from the lower half of the estimate
+        long maxOffset = Math.min(estimatedRows / 2 - sampleSize, MAX_SAMPLE_OFFSET);
+        long offset = new Random(seed).nextLong(maxOffset + 1);
+        return "SELECT " + DatabaseDialect.selectList(columns, "") +
+                " FROM " + name + " LIMIT " + sampleSize + " OFFSET " + offset;
+    }
+
+    @Override
+    public void configureSampleStatement(Statement statement, long expectedRows) throws SQLException {
+        // Connector/J streams row by row only for forward-only, read-only
+        // statements with this fetch size; otherwise it reads the whole result
+        if (expectedRows > STREAM_THRESHOLD) {
+            statement.setFetchSize(Integer.MIN_VALUE);
+        }
+    }
+
+    @Override
+    public String getCoordinatedSampleQuery(Table table,
+                                            List<Column> columns,
+                                            int sampleSize,
+                                            int buckets) {
+
+        // One capped branch per column; a shared LIMIT lets the column whose
+        // slice matches first crowd the others out
+        List<String> branches = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            branches.add("(SELECT " + DatabaseDialect.selectList(columns, "") + ", " +
+                    DatabaseDialect.sliceFlags(columns.size(), i) +
+                    " FROM " + table.getName() +
+                    " WHERE MOD(CRC32(" + columns.get(i).getName() + "), " + buckets + ") = 0" +
+                    " LIMIT " + sampleSize + ")");
+        }
+        return String.join(" UNION ALL ", branches);
+    }
+
+    @Override
+    public String getContainmentQuery(int key,
+                                      String table,
+                                      List<String> columns,
+                                      String refTable,
+                                      List<String> refColumns,
+                                      int limit) {
+        return "SELECT " + key + ", COUNT(*), " +
+                "COUNT(CASE WHEN NOT EXISTS (SELECT 1 FROM " + refTable + " r " +
+                "WHERE " + DatabaseDialect.keyMatch(refColumns) + ") THEN 1 END) " +
+                "FROM (SELECT DISTINCT " + DatabaseDialect.keyList(columns) + " FROM " + table +
+                " WHERE " + DatabaseDialect.keyNotNull(columns) + " LIMIT " + limit + ") s";
+    }
+
+    @Override
+    protected String columnsQuery(String inList) {
+        // COLUMN_TYPE carries the UNSIGNED flag that DatabaseMetaData reports in TYPE_NAME,
+        // and the display width that marks TINYINT(1) as a boolean
+        return "SELECT TABLE_NAME, COLUMN_NAME, " +
+                "UPPER(CASE WHEN COLUMN_TYPE LIKE 'tinyint(1)%' THEN 'TINYINT(1)' " +
+                "WHEN COLUMN_TYPE LIKE '%unsigned%' " +
+                "THEN CONCAT(DATA_TYPE, ' UNSIGNED') ELSE DATA_TYPE END) " +
+                "FROM INFORMATION_SCHEMA.COLUMNS " +
+                "WHERE TABLE_SCHEMA = ? AND TABLE_NAME IN (" + inList + ") " +
+                "ORDER BY TABLE_NAME, ORDINAL_POSITION";
+    }
+
+    @Override
+    protected String primaryKeysQuery(String inList) {
+        return "SELECT TABLE_NAME, COLUMN_NAME " +
+                "FROM INFORMATION_SCHEMA.KEY_COLUMN_USAGE " +
+                "WHERE TABLE_SCHEMA = ? AND CONSTRAINT_NAME = 'PRIMARY' " +
+                "AND TABLE_NAME IN (" + inList + ")";
+    }
+
+    @Override
+    protected String foreignKeysQuery(String inList) {
+        return "SELECT TABLE_NAME, COLUMN_NAME, " +
+                "REFERENCED_TABLE_NAME, REFERENCED_COLUMN_NAME, CONSTRAINT_NAME " +
+                "FROM INFORMATION_SCHEMA.KEY_COLUMN_USAGE " +
+                "WHERE TABLE_SCHEMA = ? AND REFERENCED_TABLE_NAME IS NOT NULL " +
+                "AND TABLE_NAME IN (" + inList + ") " +
+                "ORDER BY TABLE_NAME, CONSTRAINT_NAME, ORDINAL_POSITION";
+    }
+
+    @Override
+    protected String tablesPageQuery() {
+        return "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES " +
+                "WHERE TABLE_SCHEMA = ? AND TABLE_TYPE = 'BASE TABLE' " +
+                "AND (? IS NULL OR TABLE_NAME > ?) " +
+                "ORDER BY TABLE_NAME LIMIT ?";
+    }
+
+    @Override
+    public Map<String, String> loadTableVersions(Connection conn,
+                                                 String schema,
+                                                 List<String> tables) throws Exception {
+        expireTableStatistics(conn);
+        return super.loadTableVersions(conn, schema, tables);
+    }
+
+    /**
+     * MySQL 8 serves UPDATE_TIME and TABLE_ROWS from a statistics cache kept
+     * for {@code information_schema_stats_expiry} seconds, a day by default.
+     * Turns it off for the session so the values are read from the engine.
+     */
+    private void expireTableStatistics(Connection conn) {
+        try (Statement st = conn.createStatement()) {
+            st.execute("SET SESSION information_schema_stats_expiry = 0");
+        } catch (SQLException e) {
+            // MySQL 5.7 and MariaDB have no such cache
+        }
+    }
+
+    @Override
+    protected String tableVersionsQuery(String inList) {
+        // CREATE_TIME moves on table-rebuilding DDL, UPDATE_TIME on data changes.
+        // INSTANT and INPLACE DDL move neither, so the token never stands in
+        // for reading the metadata itself.
+        return "SELECT TABLE_NAME, " +
+                "CONCAT(COALESCE(CREATE_TIME, ''), '|', COALESCE(UPDATE_TIME, '')) " +
+                "FROM INFORMATION_SCHEMA.TABLES " +
+                "WHERE TABLE_SCHEMA = ? AND TABLE_NAME IN (" + inList + ")";
+    }
 
     @Override
-    public String getSampleQuery(String tableName, int sampleSize) {
-        return "SELECT * FROM " + tableName +
-                " LIMIT " + sampleSize;
+    protected String rowEstimatesQuery(String inList) {
+        return "SELECT TABLE_NAME, TABLE_ROWS " +
+                "FROM INFORMATION_SCHEMA.TABLES " +
+                "WHERE TABLE_SCHEMA = ? AND TABLE_NAME IN (" + inList + ")";
+    }
+
+    @Override
+    protected String currentSchema(Connection conn) throws Exception {
+        return conn.getCatalog();
+    }
+
+    /**
+     * MySQL 8 keeps no per-column distinct counts outside histograms, so only
+     * columns analyzed with {@code ANALYZE TABLE ... UPDATE HISTOGRAM} are covered.
+     */
+    @Override
+    public Map<String, Map<String, ColumnStatistics>> loadColumnStatistics(
+            Connection conn,
+            String schema,
+            List<String> tables) throws Exception {
+
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, Map<String, ColumnStatistics>> result = new HashMap<>();
+
+        forEachRow(conn, resolveOwner(conn, schema), catalogNames(tables), inList ->
+                "SELECT cs.TABLE_NAME, cs.COLUMN_NAME, c.DATA_TYPE, cs.HISTOGRAM, t.TABLE_ROWS " +
+                        "FROM INFORMATION_SCHEMA.COLUMN_STATISTICS cs " +
+                        "JOIN INFORMATION_SCHEMA.COLUMNS c " +
+                        "  ON c.TABLE_SCHEMA = cs.SCHEMA_NAME AND c.TABLE_NAME = cs.TABLE_NAME " +
+                        "  AND c.COLUMN_NAME = cs.COLUMN_NAME " +
+                        "JOIN INFORMATION_SCHEMA.TABLES t " +
+                        "  ON t.TABLE_SCHEMA = cs.SCHEMA_NAME AND t.TABLE_NAME = cs.TABLE_NAME " +
+                        "WHERE cs.SCHEMA_NAME = ? AND cs.TABLE_NAME IN (" + inList + ") " +
+                        "ORDER BY cs.TABLE_NAME, c.ORDINAL_POSITION",
+                rs -> {
+                    ColumnStatistics stats = new ColumnStatistics(
+                            rs.getString(2), TypeFamily.ofTypeName(rs.getString(3)));
+
+                    long rows = rs.getLong(5);
+                    stats.setTableRows(rs.wasNull() ? -1 : rows);
+
+                    readHistogram(mapper.readTree(rs.getString(4)), stats);
+
+                    result.computeIfAbsent(rs.getString(1).toLowerCase(), k -> new LinkedHashMap<>())
+                            .put(stats.getColumn(), stats);
+                });
+
+        return result;
+    }
+
+    private void readHistogram(JsonNode histogram, ColumnStatistics stats) {
+
+        JsonNode buckets = histogram.path("buckets");
+        if (buckets.isEmpty()) return;
+
+        boolean singleton = "singleton".equals(histogram.path("histogram-type").asText());
+        double samplingRate = histogram.path("sampling-rate").asDouble(1.0);
+
+        long distinct = 0;
+
+        // singleton:   [value, cumulative-frequency]
+        // equi-height: [lower, upper, cumulative-frequency, distinct-values]
+        for (JsonNode bucket : buckets) {
+            String lower = histogramValue(bucket.get(0));
+            String upper = singleton ? lower : histogramValue(bucket.get(1));
+
+            stats.getValues().add(lower);
+            stats.getValues().add(upper);
+            if (!singleton) stats.getBuckets().add(new String[]{lower, upper});
+
+            distinct += singleton ? 1 : bucket.get(3).asLong();
+        }
+
+        stats.setNumDistinct(distinct);
+        stats.setLow(histogramValue(buckets.get(0).get(0)));
+        stats.setHigh(histogramValue(buckets.get(buckets.size() - 1).get(singleton ? 0 : 1)));
+        // A sampled singleton histogram may have missed rare values
+        stats.setComplete(singleton && samplingRate >= 1.0);
+
+        if (stats.getTableRows() > 0) {
+            stats.setNumNulls(Math.round(
+                    histogram.path("null-values").asDouble(0) * stats.getTableRows()));
+        }
+    }
+
+    private String histogramValue(JsonNode node) {
+        String text = node.asText();
+        // Character values are stored as "base64:type<N>:<payload>"
+        if (node.isTextual() && text.startsWith("base64:")) {
+            String payload = text.substring(text.indexOf(':', "base64:".length()) + 1);
+            return new String(Base64.getDecoder().decode(payload), StandardCharsets.UTF_8);
+        }
+        return text;
     }
-}
\ No newline at end of file
+}
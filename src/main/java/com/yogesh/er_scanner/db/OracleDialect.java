@@ -1,10 +1,229 @@
 package com.yogesh.er_scanner.db;
 
-public class OracleDialect implements DatabaseDialect {
+import com.yogesh.er_scanner.model.Column;
+import com.yogesh.er_scanner.model.Table;
+import com.yogesh.er_scanner.overlap.TypeFamily;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+
+public class OracleDialect extends CatalogQueryDialect {
+
+    // Blocks hold clustered rows, so read a few times more than needed
+    private static final int BLOCK_OVERSAMPLE = 4;
 
     @Override
-    public String getSampleQuery(String tableName, int sampleSize) {
-        return "SELECT * FROM " + tableName +
+    public String getSampleQuery(Table table,
+                                 List<Column> columns,
+                                 int sampleSize,
+                                 long estimatedRows) {
+
+        String select = "SELECT " + DatabaseDialect.selectList(columns, "") +
+                " FROM " + table.getName();
+
+        // Small or unknown tables: a block sample could come back empty
+        if (estimatedRows <= (long) sampleSize * 10) {
+            return select + " WHERE ROWNUM <= " + sampleSize;
+        }
+
+        // SAMPLE BLOCK takes a percentage in [0.000001, 100)
+        double percent = Math.min(99.0, Math.max(0.000001,
+                100.0 * sampleSize * BLOCK_OVERSAMPLE / estimatedRows));
+
+        return select +
+                " SAMPLE BLOCK (" + new BigDecimal(percent).setScale(6, RoundingMode.UP).toPlainString() + ")" +
+                " SEED (" + DatabaseDialect.sampleSeed(table) + ")" +
                 " WHERE ROWNUM <= " + sampleSize;
     }
-}
\ No newline at end of file
+
+    @Override
+    public void configureSampleStatement(Statement statement, long expectedRows) throws SQLException {
+        // The driver default of 10 rows per round trip dominates larger samples
+        statement.setFetchSize((int) Math.min(Math.max(expectedRows, 10), 5000));
+    }
+
+    @Override
+    public String getCoordinatedSampleQuery(Table table,
+                                            List<Column> columns,
+                                            int sampleSize,
+                                            int buckets) {
+
+        // ORA_HASH spans 0..2^32-1 by default, so MOD by a power of two nests
+        List<String> branches = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            branches.add("SELECT " + DatabaseDialect.selectList(columns, "") + ", " +
+                    DatabaseDialect.sliceFlags(columns.size(), i) +
+                    " FROM " + table.getName() +
+                    " WHERE MOD(ORA_HASH(" + columns.get(i).getName() + "), " + buckets + ") = 0" +
+                    " AND ROWNUM <= " + sampleSize);
+        }
+        return String.join(" UNION ALL ", branches);
+    }
+
+    @Override
+    protected String columnsQuery(String inList) {
+        // NUMBER(1) is the usual boolean; other precisions stay plain NUMBER
+        return "SELECT TABLE_NAME, COLUMN_NAME, " +
+                "CASE WHEN DATA_TYPE = 'NUMBER' AND DATA_PRECISION = 1 AND NVL(DATA_SCALE, 0) = 0 " +
+                "THEN 'NUMBER(1)' ELSE DATA_TYPE END " +
+                "FROM ALL_TAB_COLUMNS " +
+                "WHERE OWNER = ? AND TABLE_NAME IN (" + inList + ") " +
+                "ORDER BY TABLE_NAME, COLUMN_ID";
+    }
+
+    @Override
+    protected String primaryKeysQuery(String inList) {
+        return "SELECT cc.TABLE_NAME, cc.COLUMN_NAME " +
+                "FROM ALL_CONSTRAINTS c " +
+                "JOIN ALL_CONS_COLUMNS cc " +
+                "  ON cc.OWNER = c.OWNER AND cc.CONSTRAINT_NAME = c.CONSTRAINT_NAME " +
+                "WHERE c.OWNER = ? AND c.CONSTRAINT_TYPE = 'P' " +
+                "AND c.TABLE_NAME IN (" + inList + ")";
+    }
+
+    @Override
+    protected String foreignKeysQuery(String inList) {
+        // Pair FK and referenced PK/UK columns by position for composite keys
+        return "SELECT fk.TABLE_NAME, fk.COLUMN_NAME, pk.TABLE_NAME, pk.COLUMN_NAME, c.CONSTRAINT_NAME " +
+                "FROM ALL_CONSTRAINTS c " +
+                "JOIN ALL_CONS_COLUMNS fk " +
+                "  ON fk.OWNER = c.OWNER AND fk.CONSTRAINT_NAME = c.CONSTRAINT_NAME " +
+                "JOIN ALL_CONS_COLUMNS pk " +
+                "  ON pk.OWNER = c.R_OWNER AND pk.CONSTRAINT_NAME = c.R_CONSTRAINT_NAME " +
+                "  AND pk.POSITION = fk.POSITION " +
+                "WHERE c.OWNER = ? AND c.CONSTRAINT_TYPE = 'R' " +
+                "AND c.TABLE_NAME IN (" + inList + ") " +
+                "ORDER BY fk.TABLE_NAME, c.CONSTRAINT_NAME, fk.POSITION";
+    }
+
+    @Override
+    protected String tablesPageQuery() {
+        // Skip recycle-bin, nested and IOT overflow segments
+        return "SELECT TABLE_NAME FROM ALL_TABLES " +
+                "WHERE OWNER = ? AND DROPPED = 'NO' AND NESTED = 'NO' " +
+                "AND SECONDARY = 'N' AND (IOT_TYPE IS NULL OR IOT_TYPE = 'IOT') " +
+                "AND (? IS NULL OR TABLE_NAME > ?) " +
+                "ORDER BY TABLE_NAME FETCH FIRST ? ROWS ONLY";
+    }
+
+    @Override
+    protected String tableVersionsQuery(String inList) {
+        return "SELECT OBJECT_NAME, TO_CHAR(LAST_DDL_TIME, 'YYYYMMDDHH24MISS') " +
+                "FROM ALL_OBJECTS " +
+                "WHERE OWNER = ? AND OBJECT_TYPE = 'TABLE' " +
+                "AND OBJECT_NAME IN (" + inList + ")";
+    }
+
+    @Override
+    protected String rowEstimatesQuery(String inList) {
+        return "SELECT TABLE_NAME, NUM_ROWS FROM ALL_TABLES " +
+                "WHERE OWNER = ? AND TABLE_NAME IN (" + inList + ")";
+    }
+
+    @Override
+    protected String currentSchema(Connection conn) throws Exception {
+        String schema = conn.getSchema();
+        return schema != null ? schema : conn.getMetaData().getUserName();
+    }
+
+    @Override
+    protected String toCatalogName(String name) {
+        // Unquoted Oracle identifiers are stored upper-case
+        return name.toUpperCase();
+    }
+
+    @Override
+    public Map<String, Map<String, ColumnStatistics>> loadColumnStatistics(
+            Connection conn,
+            String schema,
+            List<String> tables) throws Exception {
+
+        String owner = resolveOwner(conn, schema);
+        List<String> catalogNames = catalogNames(tables);
+
+        Map<String, Map<String, ColumnStatistics>> result = new HashMap<>();
+
+        // ---------- DISTINCT COUNTS AND RANGES ----------
+        forEachRow(conn, owner, catalogNames, inList ->
+                "SELECT s.TABLE_NAME, s.COLUMN_NAME, c.DATA_TYPE, " +
+                        "s.NUM_DISTINCT, s.NUM_NULLS, t.NUM_ROWS, s.HISTOGRAM, " +
+                        decodeRaw("s.LOW_VALUE") + ", " + decodeRaw("s.HIGH_VALUE") + " " +
+                        "FROM ALL_TAB_COL_STATISTICS s " +
+                        "JOIN ALL_TAB_COLUMNS c " +
+                        "  ON c.OWNER = s.OWNER AND c.TABLE_NAME = s.TABLE_NAME " +
+                        "  AND c.COLUMN_NAME = s.COLUMN_NAME " +
+                        "JOIN ALL_TABLES t " +
+                        "  ON t.OWNER = s.OWNER AND t.TABLE_NAME = s.TABLE_NAME " +
+                        "WHERE s.OWNER = ? AND s.TABLE_NAME IN (" + inList + ") " +
+                        "AND s.NUM_DISTINCT IS NOT NULL " +
+                        "ORDER BY s.TABLE_NAME, c.COLUMN_ID",
+                rs -> {
+                    ColumnStatistics stats = new ColumnStatistics(
+                            rs.getString(2), TypeFamily.ofTypeName(rs.getString(3)));
+
+                    stats.setNumDistinct(rs.getLong(4));
+                    stats.setNumNulls(rs.getLong(5));
+                    long rows = rs.getLong(6);
+                    stats.setTableRows(rs.wasNull() ? -1 : rows);
+                    stats.setComplete("FREQUENCY".equals(rs.getString(7)));
+                    stats.setLow(rs.getString(8));
+                    stats.setHigh(rs.getString(9));
+
+                    result.computeIfAbsent(rs.getString(1).toLowerCase(), k -> new LinkedHashMap<>())
+                            .put(stats.getColumn(), stats);
+                });
+
+        // ---------- HISTOGRAM ENDPOINTS ----------
+        // Frequency, top-frequency and hybrid endpoints are actual column values;
+        // height-balanced endpoints are not and are left out
+        forEachRow(conn, owner, catalogNames, inList ->
+                "SELECT h.TABLE_NAME, h.COLUMN_NAME, " +
+                        "CASE WHEN c.DATA_TYPE IN ('NUMBER', 'FLOAT') " +
+                        "THEN TO_CHAR(h.ENDPOINT_VALUE) ELSE h.ENDPOINT_ACTUAL_VALUE END " +
+                        "FROM ALL_TAB_HISTOGRAMS h " +
+                        "JOIN ALL_TAB_COL_STATISTICS s " +
+                        "  ON s.OWNER = h.OWNER AND s.TABLE_NAME = h.TABLE_NAME " +
+                        "  AND s.COLUMN_NAME = h.COLUMN_NAME " +
+                        "JOIN ALL_TAB_COLUMNS c " +
+                        "  ON c.OWNER = h.OWNER AND c.TABLE_NAME = h.TABLE_NAME " +
+                        "  AND c.COLUMN_NAME = h.COLUMN_NAME " +
+                        "WHERE h.OWNER = ? AND h.TABLE_NAME IN (" + inList + ") " +
+                        "AND s.HISTOGRAM IN ('FREQUENCY', 'TOP-FREQUENCY', 'HYBRID') " +
+                        "ORDER BY h.TABLE_NAME, h.COLUMN_NAME, h.ENDPOINT_NUMBER",
+                rs -> {
+                    Map<String, ColumnStatistics> columns = result.get(rs.getString(1).toLowerCase());
+                    ColumnStatistics stats = columns == null ? null : columns.get(rs.getString(2));
+                    String value = rs.getString(3);
+                    if (stats != null && value != null) {
+                        stats.getValues().add(value);
+                    }
+                });
+
+        // Endpoint values of older releases may be missing for character columns
+        for (Map<String, ColumnStatistics> columns : result.values()) {
+            for (ColumnStatistics stats : columns.values()) {
+                if (stats.getValues().size() != stats.getNumDistinct()) {
+                    stats.setComplete(false);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private String decodeRaw(String column) {
+        // LOW_VALUE / HIGH_VALUE are stored in internal RAW format
+        return "CASE " +
+                "WHEN c.DATA_TYPE IN ('NUMBER', 'FLOAT') " +
+                "THEN TO_CHAR(UTL_RAW.CAST_TO_NUMBER(" + column + ")) " +
+                "WHEN c.DATA_TYPE IN ('VARCHAR2', 'CHAR') " +
+                "THEN UTL_RAW.CAST_TO_VARCHAR2(" + column + ") " +
+                "WHEN c.DATA_TYPE IN ('NVARCHAR2', 'NCHAR') " +
+                "THEN UTL_RAW.CAST_TO_NVARCHAR2(" + column + ") " +
+                "END";
+    }
+}
@@ -0,0 +1,267 @@
+package com.yogesh.er_scanner.model;
+
+import com.yogesh.er_scanner.util.SymbolTable;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A published schema held as interned int ids in flat arrays instead of one
+ * object per table, column and relationship.
+ *
+ * Every table, column and type name is stored once in a {@link SymbolTable}.
+ * Columns are kept column-wise, each table owning a contiguous range, and
+ * each relationship is four symbol ids plus its type and scores. The
+ * {@link #view()} presents the usual {@link Schema}, creating the objects
+ * on access, for JSON and the exporters.
+ *
+ * Instances are immutable snapshots, each numbered with a process-wide
+ * increasing version, so anything derived from one can be keyed on it.
+ */
+public class CompactSchema {
+
+    private static final byte PRIMARY_KEY = 1;
+    private static final byte FOREIGN_KEY = 2;
+    private static final RelationshipType[] TYPES = RelationshipType.values();
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private final long version = VERSIONS.incrementAndGet();
+
+    private final SymbolTable symbols;
+
+    // Per table: name id and first column; firstColumn has one extra end entry
+    private final int[] tableNames;
+    private final int[] firstColumn;
+    private final int[] tableBySymbol;
+
+    private final int[] columnNames;
+    private final int[] columnTypes;
+    private final byte[] columnFlags;
+
+    // Per relationship: source table, source column, target table, target column ids
+    private final int[] links;
+    private final byte[] types;
+    private final double[] confidences;
+    private final double[] containments;
+    private final double[] orphanRatios;
+    // Key column ids of composite relationships; null when there are none
+    private final int[][] sourceKeys;
+    private final int[][] targetKeys;
+
+    private final Schema view;
+
+    // Relationships by table, built on first use: offsets per table into positions
+    private volatile int[][] adjacency;
+
+    private CompactSchema(Schema schema, SymbolTable symbols) {
+
+        this.symbols = symbols;
+
+        List<Table> tables = schema.getTables();
+        tableNames = new int[tables.size()];
+        firstColumn = new int[tables.size() + 1];
+
+        int columnCount = 0;
+        for (Table t : tables) columnCount += t.getColumns().size();
+        columnNames = new int[columnCount];
+        columnTypes = new int[columnCount];
+        columnFlags = new byte[columnCount];
+
+        int c = 0;
+        for (int t = 0; t < tables.size(); t++) {
+            tableNames[t] = id(tables.get(t).getName());
+            firstColumn[t] = c;
+            for (Column column : tables.get(t).getColumns()) {
+                columnNames[c] = id(column.getName());
+                columnTypes[c] = id(column.getType());
+                columnFlags[c] = (byte) ((column.isPrimaryKey() ? PRIMARY_KEY : 0)
+                        | (column.isForeignKey() ? FOREIGN_KEY : 0));
+                c++;
+            }
+        }
+        firstColumn[tables.size()] = c;
+
+        List<Relationship> relationships = schema.getRelationships();
+        int n = relationships.size();
+        links = new int[n * 4];
+        types = new byte[n];
+        confidences = new double[n];
+        containments = new double[n];
+        orphanRatios = new double[n];
+
+        boolean composite = relationships.stream().anyMatch(Relationship::isComposite);
+        sourceKeys = composite ? new int[n][] : null;
+        targetKeys = composite ? new int[n][] : null;
+
+        for (int r = 0; r < n; r++) {
+            Relationship rel = relationships.get(r);
+            links[r * 4] = id(rel.getSourceTable());
+            links[r * 4 + 1] = id(rel.getSourceColumn());
+            links[r * 4 + 2] = id(rel.getTargetTable());
+            links[r * 4 + 3] = id(rel.getTargetColumn());
+            types[r] = (byte) (rel.getRelationshipType() == null ? -1 : rel.getRelationshipType().ordinal());
+            confidences[r] = rel.getConfidence();
+            containments[r] = rel.getContainment() == null ? Double.NaN : rel.getContainment();
+            orphanRatios[r] = rel.getOrphanRatio() == null ? Double.NaN : rel.getOrphanRatio();
+            if (rel.isComposite()) {
+                sourceKeys[r] = ids(rel.getSourceColumns());
+                targetKeys[r] = ids(rel.getTargetColumns());
+            }
+        }
+
+        // Tables by case-folded name symbol; of names equal ignoring case, the first wins
+        tableBySymbol = new int[symbols.size()];
+        Arrays.fill(tableBySymbol, -1);
+        for (int t = tables.size() - 1; t >= 0; t--) {
+            if (tableNames[t] >= 0) tableBySymbol[symbols.folded(tableNames[t])] = t;
+        }
+
+        view = new Schema(new TableList(), new RelationshipList());
+    }
+
+    public static CompactSchema of(Schema schema) {
+        return of(schema, new SymbolTable(schema.getTables().size() * 8));
+    }
+
+    /** Compacts {@code schema}, adding its names to {@code symbols}. */
+    public static CompactSchema of(Schema schema, SymbolTable symbols) {
+        return new CompactSchema(schema, symbols);
+    }
+
+    /** The schema as model objects, created on each access. */
+    public Schema view() { return view; }
+
+    public long getVersion() { return version; }
+
+    public int tableCount() { return tableNames.length; }
+    public int relationshipCount() { return types.length; }
+
+    /** Position of the table named {@code name} ignoring case, or -1. */
+    public int indexOfTable(String name) {
+        int symbol = symbols.findIgnoreCase(name);
+        return symbol < 0 || symbol >= tableBySymbol.length ? -1 : tableBySymbol[symbol];
+    }
+
+    /**
+     * Positions of the relationships with table {@code table} at either end,
+     * ascending. Ends naming no table of this schema are not indexed.
+     */
+    public int[] relationshipsOf(int table) {
+        int[][] index = adjacency;
+        if (index == null) adjacency = index = buildAdjacency();
+        return Arrays.copyOfRange(index[1], index[0][table], index[0][table + 1]);
+    }
+
+    private int[][] buildAdjacency() {
+
+        int n = types.length;
+        int[] offsets = new int[tableNames.length + 1];
+        for (int r = 0; r < n; r++) {
+            int source = tableOf(links[r * 4]);
+            int target = tableOf(links[r * 4 + 2]);
+            if (source >= 0) offsets[source + 1]++;
+            if (target >= 0 && target != source) offsets[target + 1]++;
+        }
+        for (int t = 0; t < tableNames.length; t++) offsets[t + 1] += offsets[t];
+
+        int[] positions = new int[offsets[tableNames.length]];
+        int[] next = Arrays.copyOf(offsets, tableNames.length);
+        for (int r = 0; r < n; r++) {
+            int source = tableOf(links[r * 4]);
+            int target = tableOf(links[r * 4 + 2]);
+            if (source >= 0) positions[next[source]++] = r;
+            if (target >= 0 && target != source) positions[next[target]++] = r;
+        }
+        return new int[][] {offsets, positions};
+    }
+
+    private int tableOf(int symbol) {
+        if (symbol < 0) return -1;
+        int folded = symbols.folded(symbol);
+        return folded < tableBySymbol.length ? tableBySymbol[folded] : -1;
+    }
+
+    /** Rough retained size: array payloads plus the interned strings. */
+    public long estimateBytes() {
+        long bytes = 128 + symbols.estimateBytes()
+                + 4L * (tableNames.length + firstColumn.length + tableBySymbol.length)
+                + 9L * columnNames.length
+                + 16L * links.length / 4 + 25L * types.length;
+        if (sourceKeys != null) {
+            bytes += 8L * sourceKeys.length * 2;
+            for (int r = 0; r < sourceKeys.length; r++) {
+                if (sourceKeys[r] != null) bytes += 2 * (16 + 4L * sourceKeys[r].length);
+            }
+        }
+        return bytes;
+    }
+
+    private int id(String s) {
+        return s == null ? -1 : symbols.intern(s);
+    }
+
+    private int[] ids(List<String> names) {
+        return names.stream().mapToInt(this::id).toArray();
+    }
+
+    private String name(int id) {
+        return id < 0 ? null : symbols.get(id);
+    }
+
+    private List<String> names(int[] ids) {
+        return Arrays.stream(ids).mapToObj(this::name).toList();
+    }
+
+    private Table table(int t) {
+        return new Table(name(tableNames[t]), new ColumnList(firstColumn[t], firstColumn[t + 1]));
+    }
+
+    private Column column(int c) {
+        Column column = new Column(name(columnNames[c]), name(columnTypes[c]),
+                (columnFlags[c] & PRIMARY_KEY) != 0);
+        column.setForeignKey((columnFlags[c] & FOREIGN_KEY) != 0);
+        return column;
+    }
+
+    private Relationship relationship(int r) {
+        RelationshipType type = types[r] < 0 ? null : TYPES[types[r]];
+
+        Relationship rel = sourceKeys != null && sourceKeys[r] != null
+                ? new Relationship(name(links[r * 4]), names(sourceKeys[r]),
+                        name(links[r * 4 + 2]), names(targetKeys[r]), type, confidences[r])
+                : new Relationship(name(links[r * 4]), name(links[r * 4 + 1]),
+                        name(links[r * 4 + 2]), name(links[r * 4 + 3]), type, confidences[r]);
+
+        if (!Double.isNaN(containments[r])) rel.setContainment(containments[r]);
+        if (!Double.isNaN(orphanRatios[r])) rel.setOrphanRatio(orphanRatios[r]);
+        return rel;
+    }
+
+    private class TableList extends AbstractList<Table> implements RandomAccess {
+        @Override public Table get(int index) { return table(Objects.checkIndex(index, size())); }
+        @Override public int size() { return tableNames.length; }
+    }
+
+    private class ColumnList extends AbstractList<Column> implements RandomAccess {
+
+        private final int from;
+        private final int to;
+
+        ColumnList(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override public Column get(int index) { return column(from + Objects.checkIndex(index, size())); }
+        @Override public int size() { return to - from; }
+    }
+
+    private class RelationshipList extends AbstractList<Relationship> implements RandomAccess {
+        @Override public Relationship get(int index) { return relationship(Objects.checkIndex(index, size())); }
+        @Override public int size() { return types.length; }
+    }
+}
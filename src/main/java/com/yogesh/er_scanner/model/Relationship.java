@@ -1,5 +1,10 @@
 package com.yogesh.er_scanner.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
 public class Relationship {
 
     private String sourceTable;
@@ -9,6 +14,20 @@ public class Relationship {
     private RelationshipType relationshipType;
     private double confidence;
 
+    // Composite keys only: the key columns in matching order. The single
+    // column fields then hold them comma-joined
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<String> sourceColumns;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<String> targetColumns;
+
+    // Set by server-side verification: share of distinct source values found
+    // in the target, and the share that are missing
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double containment;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double orphanRatio;
+
     public Relationship() {}
 
     public Relationship(String sourceTable,
@@ -26,10 +45,54 @@ public class Relationship {
         this.confidence = confidence;
     }
 
+    /**
+     * Relationship over one or more key columns, matched by position.
+     * A single column pair is stored like the single-column constructor does.
+     */
+    public Relationship(String sourceTable,
+                        List<String> sourceColumns,
+                        String targetTable,
+                        List<String> targetColumns,
+                        RelationshipType relationshipType,
+                        double confidence) {
+
+        this(sourceTable, String.join(",", sourceColumns),
+                targetTable, String.join(",", targetColumns),
+                relationshipType, confidence);
+
+        if (sourceColumns.size() != targetColumns.size()) {
+            throw new IllegalArgumentException("Key column counts differ: "
+                    + sourceColumns + " -> " + targetColumns);
+        }
+        if (sourceColumns.size() > 1) {
+            this.sourceColumns = List.copyOf(sourceColumns);
+            this.targetColumns = List.copyOf(targetColumns);
+        }
+    }
+
     public String getSourceTable() { return sourceTable; }
     public String getSourceColumn() { return sourceColumn; }
     public String getTargetTable() { return targetTable; }
     public String getTargetColumn() { return targetColumn; }
     public RelationshipType getRelationshipType() { return relationshipType; }
     public double getConfidence() { return confidence; }
+
+    public List<String> getSourceColumns() { return sourceColumns; }
+    public List<String> getTargetColumns() { return targetColumns; }
+
+    @JsonIgnore
+    public boolean isComposite() { return sourceColumns != null; }
+
+    /** Source key columns, one for a single-column relationship. */
+    @JsonIgnore
+    public List<String> getSourceKey() { return isComposite() ? sourceColumns : List.of(sourceColumn); }
+
+    @JsonIgnore
+    public List<String> getTargetKey() { return isComposite() ? targetColumns : List.of(targetColumn); }
+
+    public Double getContainment() { return containment; }
+    public void setContainment(Double containment) { this.containment = containment; }
+
+    public Double getOrphanRatio() { return orphanRatio; }
+    public void setOrphanRatio(Double orphanRatio) { this.orphanRatio = orphanRatio; }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.yogesh.er_scanner.overlap;
+
+/**
+ * Exact intersection size of two sampled columns, referenced by their
+ * index in the engine's input list (left &lt; right).
+ */
+public class ColumnOverlap {
+
+    private final int left;
+    private final int right;
+    private final int intersection;
+
+    public ColumnOverlap(int left, int right, int intersection) {
+        this.left = left;
+        this.right = right;
+        this.intersection = intersection;
+    }
+
+    public int getLeft() { return left; }
+    public int getRight() { return right; }
+    public int getIntersection() { return intersection; }
+}
@@ -0,0 +1,84 @@
+package com.yogesh.er_scanner.overlap;
+
+import com.yogesh.er_scanner.util.LongIntHashMap;
+
+import java.util.*;
+
+/**
+ * Exact intersections from an inverted value index.
+ * <p>
+ * The sorted fingerprint sets of all columns are merged into one stream of
+ * postings (value → columns holding it). Every posting list of two or more
+ * columns adds one to the count of each comparable pair in it, so column
+ * pairs that share no value are never visited and the work follows the
+ * actual co-occurrence instead of the square of the column count.
+ */
+public class ExactOverlapEngine implements OverlapEngine {
+
+    @Override
+    public List<ColumnOverlap> compare(List<SampledColumn> columns) {
+
+        // One cursor per column, ordered by its current fingerprint
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(
+                Math.max(1, columns.size()),
+                Comparator.comparingLong(Cursor::current));
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).getValues().size() > 0) {
+                queue.add(new Cursor(i, columns.get(i)));
+            }
+        }
+
+        LongIntHashMap pairCounts = new LongIntHashMap(columns.size() * 4);
+        int[] posting = new int[Math.max(1, columns.size())];
+
+        while (!queue.isEmpty()) {
+
+            long value = queue.peek().current();
+            int n = 0;
+
+            while (!queue.isEmpty() && queue.peek().current() == value) {
+                Cursor cursor = queue.poll();
+                posting[n++] = cursor.column;
+                if (cursor.advance()) queue.add(cursor);
+            }
+
+            if (n < 2) continue;
+            Arrays.sort(posting, 0, n);
+
+            for (int x = 0; x < n; x++) {
+                SampledColumn a = columns.get(posting[x]);
+                for (int y = x + 1; y < n; y++) {
+                    if (a.comparableWith(columns.get(posting[y]))) {
+                        // left < right, so the key is never 0
+                        pairCounts.increment(((long) posting[x] << 32) | posting[y]);
+                    }
+                }
+            }
+        }
+
+        List<ColumnOverlap> result = new ArrayList<>(pairCounts.size());
+        pairCounts.forEach((pair, count) ->
+                result.add(new ColumnOverlap((int) (pair >>> 32), (int) pair, count)));
+        return result;
+    }
+
+    private static final class Cursor {
+
+        private final int column;
+        private final SampledColumn sampled;
+        private int position;
+
+        Cursor(int column, SampledColumn sampled) {
+            this.column = column;
+            this.sampled = sampled;
+        }
+
+        long current() {
+            return sampled.getValues().get(position);
+        }
+
+        boolean advance() {
+            return ++position < sampled.getValues().size();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.yogesh.er_scanner.overlap;
+
+import com.yogesh.er_scanner.util.Hashing;
+import com.yogesh.er_scanner.util.SortedLongSet;
+
+import java.util.*;
+
+/**
+ * MinHash signatures with LSH banding, tuned for containment.
+ * <p>
+ * Each column gets {@code numHashes} minimum hash values. Columns sharing a
+ * band bucket become candidates, and only candidates get an exact
+ * intersection count, so the engine never reports an overlap it has not
+ * verified.
+ * <p>
+ * Banding detects Jaccard similarity, but a foreign key is a small set
+ * contained in a larger one: 5 values inside 20 are Jaccard 0.25. Columns
+ * are therefore partitioned by set size (powers of two), and each pair of
+ * partitions gets its own rows per band: the most rows, at most
+ * numHashes / bands, that still find a pair at the worst-case Jaccard of
+ * {@code minContainment} between those sizes with {@link #TARGET_RECALL}.
+ * Candidates whose signatures agree far less than a pair at
+ * {@code minContainment} would are dropped before the exact count.
+ */
+public class MinHashOverlapEngine implements OverlapEngine {
+
+    // Lowest containment the sample scoring turns into a relationship
+    private static final double DEFAULT_MIN_CONTAINMENT = 0.6;
+
+    // Detection probability aimed for at the worst-case Jaccard of a partition pair
+    private static final double TARGET_RECALL = 0.95;
+
+    // Buckets this large are value-less noise (e.g. tiny enum columns); pairing
+    // them all would bring back the quadratic cost the engine exists to avoid
+    private static final int MAX_BUCKET_SIZE = 1000;
+
+    // Set sizes are ints, so floor(log2(size)) < 31
+    private static final int PARTITIONS = 31;
+
+    private final int numHashes;
+    private final int maxRows;
+    private final double minContainment;
+    private final long[] seeds;
+    private final int[][] rowsFor = new int[PARTITIONS][PARTITIONS];
+
+    public MinHashOverlapEngine(int numHashes, int bands) {
+        this(numHashes, bands, DEFAULT_MIN_CONTAINMENT);
+    }
+
+    public MinHashOverlapEngine(int numHashes, int bands, double minContainment) {
+        if (numHashes <= 0 || bands <= 0 || bands > numHashes) {
+            throw new IllegalArgumentException(
+                    "Invalid MinHash settings: num-hashes=" + numHashes + ", bands=" + bands);
+        }
+        this.numHashes = numHashes;
+        this.maxRows = numHashes / bands;
+        this.minContainment = minContainment;
+        this.seeds = new long[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            seeds[i] = Hashing.mix(0x9e3779b97f4a7c15L * (i + 1));
+        }
+        for (int p = 0; p < PARTITIONS; p++) {
+            for (int q = p; q < PARTITIONS; q++) {
+                rowsFor[p][q] = rowsFor[q][p] = rows(p, q);
+            }
+        }
+    }
+
+    @Override
+    public List<ColumnOverlap> compare(List<SampledColumn> columns) {
+
+        long[][] signatures = new long[columns.size()][];
+        int[] partition = new int[columns.size()];
+        boolean[] present = new boolean[PARTITIONS];
+
+        for (int i = 0; i < columns.size(); i++) {
+            int size = columns.get(i).getValues().size();
+            partition[i] = size == 0 ? -1 : 31 - Integer.numberOfLeadingZeros(size);
+            if (size == 0) continue;
+            signatures[i] = signature(columns.get(i).getValues());
+            present[partition[i]] = true;
+        }
+
+        // Band widths some pair of present partitions uses
+        boolean[] usedRows = new boolean[maxRows + 1];
+        for (int p = 0; p < PARTITIONS; p++) {
+            for (int q = p; q < PARTITIONS; q++) {
+                if (present[p] && present[q]) usedRows[rowsFor[p][q]] = true;
+            }
+        }
+
+        // Sorted so the exact pass visits pairs in input order
+        TreeSet<Long> candidates = new TreeSet<>();
+
+        for (int rows = 1; rows <= maxRows; rows++) {
+            if (!usedRows[rows]) continue;
+
+            for (int band = 0; band < numHashes / rows; band++) {
+
+                Map<Long, List<Integer>> buckets = new HashMap<>();
+                for (int i = 0; i < signatures.length; i++) {
+                    if (signatures[i] == null) continue;
+                    buckets.computeIfAbsent(bandKey(signatures[i], band, rows), k -> new ArrayList<>())
+                            .add(i);
+                }
+
+                for (List<Integer> bucket : buckets.values()) {
+                    if (bucket.size() < 2 || bucket.size() > MAX_BUCKET_SIZE) continue;
+                    for (int x = 0; x < bucket.size(); x++) {
+                        for (int y = x + 1; y < bucket.size(); y++) {
+                            int i = bucket.get(x);
+                            int j = bucket.get(y);
+                            // Each pair is banded only at its partitions' width
+                            if (rowsFor[partition[i]][partition[j]] == rows
+                                    && columns.get(i).comparableWith(columns.get(j))) {
+                                candidates.add(((long) i << 32) | j);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        List<ColumnOverlap> result = new ArrayList<>();
+        for (long pair : candidates) {
+            int i = (int) (pair >>> 32);
+            int j = (int) pair;
+            SortedLongSet a = columns.get(i).getValues();
+            SortedLongSet b = columns.get(j).getValues();
+
+            if (belowThreshold(signatures[i], a.size(), signatures[j], b.size())) continue;
+
+            int intersection = a.intersectionSize(b);
+            if (intersection > 0) {
+                result.add(new ColumnOverlap(i, j, intersection));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Rows per band for pairs from size partitions {@code p} and {@code q}:
+     * the most that find the worst case, the smallest set of one partition
+     * contained at {@code minContainment} in the largest set of the other,
+     * with {@link #TARGET_RECALL}; one row when none does.
+     */
+    private int rows(int p, int q) {
+        double small = Math.pow(2, Math.min(p, q));
+        double large = Math.pow(2, Math.max(p, q) + 1) - 1;
+        double shared = minContainment * small;
+        double jaccard = shared / (small + large - shared);
+
+        for (int rows = maxRows; rows > 1; rows--) {
+            if (detection(jaccard, rows) >= TARGET_RECALL) return rows;
+        }
+        return 1;
+    }
+
+    /** Probability that a pair at {@code jaccard} shares a bucket in some band. */
+    private double detection(double jaccard, int rows) {
+        return 1 - Math.pow(1 - Math.pow(jaccard, rows), numHashes / rows);
+    }
+
+    /**
+     * Whether the signatures agree in clearly fewer positions than a pair of
+     * these sizes at {@code minContainment} would: more than three standard
+     * deviations below the expected count. Small sets inside large ones agree
+     * in few positions even when contained, so they are rarely dropped.
+     */
+    private boolean belowThreshold(long[] a, int sizeA, long[] b, int sizeB) {
+        int equal = 0;
+        for (int k = 0; k < numHashes; k++) {
+            if (a[k] == b[k]) equal++;
+        }
+        double small = Math.min(sizeA, sizeB);
+        double shared = minContainment * small;
+        double jaccard = shared / (sizeA + sizeB - shared);
+        double expected = numHashes * jaccard;
+        return equal < expected - 3 * Math.sqrt(expected * (1 - jaccard));
+    }
+
+    private long[] signature(SortedLongSet values) {
+        long[] sig = new long[numHashes];
+        Arrays.fill(sig, Long.MAX_VALUE);
+        for (int v = 0; v < values.size(); v++) {
+            long h = values.get(v);
+            for (int k = 0; k < numHashes; k++) {
+                long hk = Hashing.mix(h ^ seeds[k]);
+                if (hk < sig[k]) sig[k] = hk;
+            }
+        }
+        return sig;
+    }
+
+    private long bandKey(long[] signature, int band, int rows) {
+        long key = band;
+        int from = band * rows;
+        for (int k = from; k < from + rows; k++) {
+            key = Hashing.mix(key * 31 + signature[k]);
+        }
+        return key;
+    }
+}
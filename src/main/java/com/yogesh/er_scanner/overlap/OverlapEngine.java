@@ -0,0 +1,15 @@
+package com.yogesh.er_scanner.overlap;
+
+import java.util.List;
+
+public interface OverlapEngine {
+
+    /**
+     * Returns exact intersection sizes for comparable column pairs that
+     * share at least one value. Sketching engines may skip pairs whose
+     * estimated similarity is too low to be worth verifying.
+     *
+     * @param columns sampled columns ordered by table, then column
+     */
+    List<ColumnOverlap> compare(List<SampledColumn> columns);
+}
@@ -0,0 +1,35 @@
+package com.yogesh.er_scanner.overlap;
+
+import com.yogesh.er_scanner.config.RelationshipConfig;
+
+public final class OverlapEngines {
+
+    private OverlapEngines() {}
+
+    /**
+     * Picks the engine for one overlap pass. {@code auto} stays exact until
+     * the number of sampled columns reaches the configured threshold.
+     */
+    public static OverlapEngine forColumns(RelationshipConfig.Overlap config, int columnCount) {
+
+        String engine = config.getEngine() == null ? "auto" : config.getEngine().toLowerCase();
+
+        switch (engine) {
+            case "exact":
+                return new ExactOverlapEngine();
+            case "minhash":
+                return minHash(config);
+            case "auto":
+                return columnCount >= config.getAutoMinColumns()
+                        ? minHash(config)
+                        : new ExactOverlapEngine();
+            default:
+                throw new IllegalArgumentException(
+                        "Unknown overlap engine: " + config.getEngine());
+        }
+    }
+
+    private static OverlapEngine minHash(RelationshipConfig.Overlap config) {
+        return new MinHashOverlapEngine(config.getNumHashes(), config.getBands());
+    }
+}
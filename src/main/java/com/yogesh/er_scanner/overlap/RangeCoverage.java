@@ -0,0 +1,130 @@
+package com.yogesh.er_scanner.overlap;
+
+import java.util.List;
+
+/**
+ * How much of one column's value ranges lies inside another's, judged from
+ * statistics alone: by length for numbers, by endpoints for strings.
+ */
+public final class RangeCoverage {
+
+    // Estimates per interval are rough; allow this much excess before rejecting
+    private static final double DISTINCT_SLACK = 1.5;
+
+    private RangeCoverage() {}
+
+    /**
+     * @param child  intervals holding the child's values
+     * @param parent intervals holding the parent's values
+     * @return fraction of the child inside the parent, 0..1
+     */
+    public static double of(List<String[]> child, List<String[]> parent, TypeFamily family) {
+        if (child.isEmpty() || parent.isEmpty()) return 0;
+        try {
+            return family == TypeFamily.NUMERIC
+                    ? numeric(child, parent)
+                    : endpoints(child, parent);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Whether the child's distinct count fits inside the parent's: overall,
+     * and for numbers within each parent interval, taking distinct values as
+     * spread evenly over each side's intervals. A referencing column cannot
+     * hold more distinct values in a stretch of the key's range than the key.
+     *
+     * @param childDistinct  the child's distinct count, -1 when unknown
+     * @param parentDistinct the parent's distinct count, -1 when unknown
+     */
+    public static boolean distinctFits(List<String[]> child, long childDistinct,
+                                       List<String[]> parent, long parentDistinct,
+                                       TypeFamily family) {
+        if (childDistinct <= 0 || parentDistinct <= 0 || childDistinct > parentDistinct) return false;
+        if (family != TypeFamily.NUMERIC || child.isEmpty() || parent.isEmpty()) return true;
+
+        try {
+            double childPerInterval = (double) childDistinct / child.size();
+            double parentPerInterval = (double) parentDistinct / parent.size();
+
+            for (String[] p : parent) {
+                double lo = Double.parseDouble(p[0]);
+                double hi = Double.parseDouble(p[1]);
+
+                double inside = 0;
+                for (String[] c : child) {
+                    double clo = Double.parseDouble(c[0]);
+                    double chi = Double.parseDouble(c[1]);
+                    if (chi <= clo) {
+                        if (clo >= lo && clo <= hi) inside += childPerInterval;
+                    } else {
+                        double overlap = Math.min(hi, chi) - Math.max(lo, clo);
+                        if (overlap > 0) inside += childPerInterval * overlap / (chi - clo);
+                    }
+                }
+                if (inside > parentPerInterval * DISTINCT_SLACK) return false;
+            }
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static double numeric(List<String[]> child, List<String[]> parent) {
+
+        double total = 0;
+        double covered = 0;
+        int points = 0;
+        int pointsInside = 0;
+
+        for (String[] c : child) {
+            double lo = Double.parseDouble(c[0]);
+            double hi = Double.parseDouble(c[1]);
+
+            if (hi <= lo) {
+                points++;
+                if (contains(parent, lo)) pointsInside++;
+                continue;
+            }
+
+            total += hi - lo;
+            for (String[] p : parent) {
+                double overlap = Math.min(hi, Double.parseDouble(p[1]))
+                        - Math.max(lo, Double.parseDouble(p[0]));
+                if (overlap > 0) covered += overlap;
+            }
+        }
+
+        if (total == 0) return (double) pointsInside / points;
+        return Math.min(1.0, covered / total);
+    }
+
+    private static boolean contains(List<String[]> ranges, double value) {
+        for (String[] r : ranges) {
+            if (value >= Double.parseDouble(r[0]) && value <= Double.parseDouble(r[1])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double endpoints(List<String[]> child, List<String[]> parent) {
+
+        int inside = 0;
+        for (String[] c : child) {
+            if (contains(parent, c[0])) inside++;
+            if (contains(parent, c[1])) inside++;
+        }
+        return (double) inside / (2 * child.size());
+    }
+
+    private static boolean contains(List<String[]> ranges, String value) {
+        for (String[] r : ranges) {
+            if (value.compareTo(r[0]) >= 0 && value.compareTo(r[1]) <= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,71 @@
+package com.yogesh.er_scanner.overlap;
+
+import com.yogesh.er_scanner.util.SortedLongSet;
+
+/**
+ * One sampled column as seen by an overlap engine.
+ */
+public class SampledColumn {
+
+    private final int tableIndex;
+    private final String table;
+    private final String column;
+    private final TypeFamily typeFamily;
+    private final boolean changed;
+    private final SortedLongSet values;
+    private final ValueShape shape;
+    private final boolean keyLike;
+
+    public SampledColumn(int tableIndex,
+                         String table,
+                         String column,
+                         TypeFamily typeFamily,
+                         boolean changed,
+                         SortedLongSet values) {
+        this(tableIndex, table, column, typeFamily, changed, values, null, true);
+    }
+
+    /**
+     * @param shape   sampled value shape, or null when unknown
+     * @param keyLike whether the column may be the referenced side of a key
+     */
+    public SampledColumn(int tableIndex,
+                         String table,
+                         String column,
+                         TypeFamily typeFamily,
+                         boolean changed,
+                         SortedLongSet values,
+                         ValueShape shape,
+                         boolean keyLike) {
+        this.tableIndex = tableIndex;
+        this.table = table;
+        this.column = column;
+        this.typeFamily = typeFamily;
+        this.changed = changed;
+        this.values = values;
+        this.shape = shape;
+        this.keyLike = keyLike;
+    }
+
+    public int getTableIndex() { return tableIndex; }
+    public String getTable() { return table; }
+    public String getColumn() { return column; }
+    public TypeFamily getTypeFamily() { return typeFamily; }
+    public boolean isChanged() { return changed; }
+    public SortedLongSet getValues() { return values; }
+    public ValueShape getShape() { return shape; }
+    public boolean isKeyLike() { return keyLike; }
+
+    /**
+     * Whether the pair may be compared at all: different tables, compatible
+     * types, at least one side changed since the last scan, one side unique
+     * enough to be referenced, and value shapes that can overlap.
+     */
+    public boolean comparableWith(SampledColumn other) {
+        return tableIndex != other.tableIndex
+                && typeFamily.compatibleWith(other.typeFamily)
+                && (changed || other.changed)
+                && (keyLike || other.keyLike)
+                && (shape == null || other.shape == null || shape.mayOverlap(other.shape));
+    }
+}
@@ -0,0 +1,95 @@
+package com.yogesh.er_scanner.overlap;
+
+import java.sql.Types;
+import java.util.Set;
+
+/**
+ * JDBC type groups used for compatibility checks between sampled columns.
+ */
+public enum TypeFamily {
+
+    NUMERIC,
+    STRING,
+    DATE,
+    OTHER;
+
+    private static final Set<Integer> NUMERIC_TYPES = Set.of(
+            Types.INTEGER, Types.BIGINT, Types.SMALLINT, Types.TINYINT,
+            Types.FLOAT, Types.DOUBLE, Types.REAL, Types.DECIMAL, Types.NUMERIC
+    );
+    private static final Set<Integer> STRING_TYPES = Set.of(
+            Types.VARCHAR, Types.CHAR, Types.LONGVARCHAR, Types.NVARCHAR,
+            Types.NCHAR, Types.LONGNVARCHAR, Types.CLOB, Types.NCLOB
+    );
+    private static final Set<Integer> DATE_TYPES = Set.of(
+            Types.DATE, Types.TIMESTAMP, Types.TIME, Types.TIMESTAMP_WITH_TIMEZONE
+    );
+
+    private static final Set<String> NUMERIC_NAMES = Set.of(
+            "INT", "INTEGER", "BIGINT", "SMALLINT", "TINYINT", "MEDIUMINT",
+            "NUMBER", "NUMERIC", "DECIMAL", "FLOAT", "DOUBLE", "REAL",
+            "BINARY_FLOAT", "BINARY_DOUBLE"
+    );
+    private static final Set<String> STRING_NAMES = Set.of(
+            "CHAR", "VARCHAR", "VARCHAR2", "NCHAR", "NVARCHAR", "NVARCHAR2",
+            "TEXT", "TINYTEXT", "MEDIUMTEXT", "LONGTEXT", "CLOB", "NCLOB"
+    );
+    private static final Set<String> DATE_NAMES = Set.of(
+            "DATE", "DATETIME", "TIMESTAMP", "TIME"
+    );
+
+    // Declared flags: never keys, whatever values they happen to hold
+    private static final Set<String> FLAG_NAMES = Set.of(
+            "BIT", "BOOL", "BOOLEAN", "TINYINT(1)", "NUMBER(1)"
+    );
+
+    // Comparable in principle, but LOB payloads or approximate values
+    private static final Set<String> NON_KEY_NAMES = Set.of(
+            "TEXT", "TINYTEXT", "MEDIUMTEXT", "LONGTEXT", "CLOB", "NCLOB",
+            "FLOAT", "DOUBLE", "REAL", "BINARY_FLOAT", "BINARY_DOUBLE"
+    );
+
+    public static TypeFamily of(int sqlType) {
+        if (NUMERIC_TYPES.contains(sqlType)) return NUMERIC;
+        if (STRING_TYPES.contains(sqlType)) return STRING;
+        if (DATE_TYPES.contains(sqlType)) return DATE;
+        return OTHER;
+    }
+
+    /**
+     * Maps a catalog type name such as {@code VARCHAR2}, {@code INT UNSIGNED}
+     * or {@code TIMESTAMP(6)} to its family.
+     */
+    public static TypeFamily ofTypeName(String typeName) {
+        if (typeName == null) return OTHER;
+        String base = baseName(typeName);
+        if (NUMERIC_NAMES.contains(base)) return NUMERIC;
+        if (STRING_NAMES.contains(base)) return STRING;
+        if (DATE_NAMES.contains(base)) return DATE;
+        return OTHER;
+    }
+
+    /** Whether a column of this catalog type can hold key values worth sampling. */
+    public static boolean isKeyCandidate(String typeName) {
+        return ofTypeName(typeName) != OTHER
+                && !NON_KEY_NAMES.contains(baseName(typeName))
+                && !isFlag(typeName);
+    }
+
+    /**
+     * Boolean-like declared types. Dialects report single-digit integers as
+     * {@code TINYINT(1)} or {@code NUMBER(1)} to tell them from other integers.
+     */
+    public static boolean isFlag(String typeName) {
+        return typeName != null && FLAG_NAMES.contains(typeName.trim().toUpperCase());
+    }
+
+    private static String baseName(String typeName) {
+        return typeName.trim().toUpperCase().split("[ (]", 2)[0];
+    }
+
+    /** Columns outside the known groups are never compared. */
+    public boolean compatibleWith(TypeFamily other) {
+        return this == other && this != OTHER;
+    }
+}
@@ -0,0 +1,128 @@
+package com.yogesh.er_scanner.overlap;
+
+import com.yogesh.er_scanner.util.Hashing;
+import com.yogesh.er_scanner.util.LongHashSet;
+import com.yogesh.er_scanner.util.SortedLongSet;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Normalizes a value by type family and hashes it to 64 bits, so the same
+ * logical value fingerprints alike across drivers, scales and engines:
+ * {@code 10}, {@code 10.00} and {@code 1E+1} are one number, CHAR padding
+ * is ignored, and midnight timestamps equal their date.
+ * <p>
+ * Typed values read straight from a ResultSet and their string forms (such
+ * as histogram endpoints) produce the same fingerprint. Integral numbers are
+ * hashed arithmetically, without building a string.
+ */
+public final class ValueFingerprint {
+
+    private static final long NUMERIC_SEED = 0x2545f4914f6cdd1dL;
+    private static final long TUPLE_SEED = 0x9e3779b97f4a7c15L;
+
+    private ValueFingerprint() {}
+
+    public static long of(String value, TypeFamily family) {
+        switch (family) {
+            case NUMERIC:
+                try {
+                    return ofDecimal(new BigDecimal(value.trim()));
+                } catch (NumberFormatException e) {
+                    return Hashing.hash(value);
+                }
+            case STRING:
+                return ofString(value);
+            case DATE:
+                return Hashing.hash(normalizeDate(value.trim()));
+            default:
+                return Hashing.hash(value);
+        }
+    }
+
+    public static SortedLongSet ofAll(Collection<String> values, TypeFamily family) {
+        LongHashSet set = new LongHashSet(values.size());
+        for (String value : values) {
+            set.add(of(value, family));
+        }
+        return SortedLongSet.of(set);
+    }
+
+    public static long ofLong(long value) {
+        return Hashing.mix(value ^ NUMERIC_SEED);
+    }
+
+    public static long ofDecimal(BigDecimal value) {
+        if (value.signum() == 0) return ofLong(0);
+        BigDecimal n = value.stripTrailingZeros();
+        // Integral and within long range, as getLong would have read it
+        if (n.scale() <= 0 && n.precision() - n.scale() <= 19 && n.toBigInteger().bitLength() < 64) {
+            return ofLong(n.longValue());
+        }
+        return Hashing.hash(n.toPlainString());
+    }
+
+    public static long ofDouble(double value) {
+        return ofDecimal(BigDecimal.valueOf(value));
+    }
+
+    /** Order-sensitive fingerprint of a row tuple from its values' fingerprints. */
+    public static long ofTuple(long[] fingerprints) {
+        long h = TUPLE_SEED;
+        for (long f : fingerprints) {
+            h = Hashing.mix(h ^ f) + TUPLE_SEED;
+        }
+        return h;
+    }
+
+    /** Trailing blanks (CHAR padding) are not part of the value. */
+    public static long ofString(String value) {
+        int end = value.length();
+        while (end > 0 && value.charAt(end - 1) == ' ') end--;
+        return Hashing.hash(value, end);
+    }
+
+    public static long ofDateTime(LocalDateTime value) {
+        StringBuilder sb = new StringBuilder(29).append(value.toLocalDate());
+        int seconds = value.toLocalTime().toSecondOfDay();
+        int nanos = value.getNano();
+
+        if (seconds != 0 || nanos != 0) {
+            sb.append(' ')
+                    .append(two(value.getHour())).append(':')
+                    .append(two(value.getMinute())).append(':')
+                    .append(two(value.getSecond()));
+            if (nanos != 0) {
+                String fraction = String.valueOf(1_000_000_000 + nanos).substring(1);
+                int end = fraction.length();
+                while (fraction.charAt(end - 1) == '0') end--;
+                sb.append('.').append(fraction, 0, end);
+            }
+        }
+        return Hashing.hash(sb);
+    }
+
+    private static String two(int n) {
+        return n < 10 ? "0" + n : String.valueOf(n);
+    }
+
+    private static String normalizeDate(String value) {
+        // "2024-01-05 00:00:00.000000" → "2024-01-05"; "10:30:00.500" → "10:30:00.5";
+        // "2024-01-05T10:30" (LocalDateTime.toString) → "2024-01-05 10:30:00"
+        String s = value.replace('T', ' ');
+        int colon = s.indexOf(':');
+        if (colon > 0 && s.indexOf(':', colon + 1) < 0) s = s + ":00";
+        int dot = s.lastIndexOf('.');
+        if (dot > s.lastIndexOf(':') && dot > 0) {
+            int end = s.length();
+            while (end > dot + 1 && s.charAt(end - 1) == '0') end--;
+            s = end == dot + 1 ? s.substring(0, dot) : s.substring(0, end);
+        }
+        if (s.endsWith(" 00:00:00")) {
+            s = s.substring(0, s.length() - " 00:00:00".length());
+        }
+        return s;
+    }
+}
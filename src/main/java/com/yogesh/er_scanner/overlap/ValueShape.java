@@ -0,0 +1,117 @@
+package com.yogesh.er_scanner.overlap;
+
+/**
+ * Cheap per-column statistics gathered while sampling: how unique the
+ * values are, their numeric range, and for strings their length range and
+ * shape (digit codes or free text with blanks). Used to prune columns and
+ * pairs that cannot be join keys before values are compared.
+ *
+ * Lengths and digit counts are only kept for the STRING family; numeric
+ * bounds are NaN when unknown.
+ */
+public class ValueShape {
+
+    private final long values;
+    private final double uniqueness;
+    private final double low;
+    private final double high;
+    private final int minLength;
+    private final int maxLength;
+    private final double avgLength;
+    private final long digitValues;
+    private final long spacedValues;
+    private final long fractionalValues;
+
+    public ValueShape(long values,
+                      double uniqueness,
+                      double low,
+                      double high,
+                      int minLength,
+                      int maxLength,
+                      double avgLength,
+                      long digitValues,
+                      long spacedValues,
+                      long fractionalValues) {
+        this.values = values;
+        this.uniqueness = uniqueness;
+        this.low = low;
+        this.high = high;
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.avgLength = avgLength;
+        this.digitValues = digitValues;
+        this.spacedValues = spacedValues;
+        this.fractionalValues = fractionalValues;
+    }
+
+    /**
+     * Combines two samples of the same column. Rows of follow-up samples may
+     * repeat earlier ones, so uniqueness keeps the lower of the two samples.
+     */
+    public ValueShape merge(ValueShape more) {
+        long n = values + more.values;
+        return new ValueShape(
+                n,
+                Math.min(uniqueness, more.uniqueness),
+                bound(low, more.low, true),
+                bound(high, more.high, false),
+                Math.min(minLength, more.minLength),
+                Math.max(maxLength, more.maxLength),
+                n == 0 ? 0 : (avgLength * values + more.avgLength * more.values) / n,
+                digitValues + more.digitValues,
+                spacedValues + more.spacedValues,
+                fractionalValues + more.fractionalValues);
+    }
+
+    private static double bound(double a, double b, boolean lower) {
+        if (Double.isNaN(a)) return b;
+        if (Double.isNaN(b)) return a;
+        return lower ? Math.min(a, b) : Math.max(a, b);
+    }
+
+    /**
+     * False when the two samples cannot share a value: disjoint numeric
+     * ranges, disjoint string lengths, or digit-only codes against values
+     * that are never digit-only.
+     */
+    public boolean mayOverlap(ValueShape other) {
+
+        if (values == 0 || other.values == 0) return true;
+
+        if (hasRange() && other.hasRange()
+                && (high < other.low || other.high < low)) {
+            return false;
+        }
+
+        if (hasLengths() && other.hasLengths()
+                && (maxLength < other.minLength || other.maxLength < minLength)) {
+            return false;
+        }
+
+        return !(isDigitCode() && other.hasLengths() && other.digitValues == 0)
+                && !(other.isDigitCode() && hasLengths() && digitValues == 0);
+    }
+
+    private boolean hasRange() {
+        return !Double.isNaN(low) && !Double.isNaN(high);
+    }
+
+    private boolean hasLengths() {
+        return maxLength > 0;
+    }
+
+    private boolean isDigitCode() {
+        return hasLengths() && digitValues == values;
+    }
+
+    public long getValues() { return values; }
+    public double getUniqueness() { return uniqueness; }
+    public double getLow() { return low; }
+    public double getHigh() { return high; }
+    public int getMinLength() { return minLength; }
+    public int getMaxLength() { return maxLength; }
+    public double getAvgLength() { return avgLength; }
+    public long getDigitValues() { return digitValues; }
+    public long getSpacedValues() { return spacedValues; }
+    public long getFractionalValues() { return fractionalValues; }
+}
@@ -0,0 +1,283 @@
+package com.yogesh.er_scanner.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yogesh.er_scanner.config.RelationshipConfig;
+import com.yogesh.er_scanner.model.Column;
+import com.yogesh.er_scanner.model.Table;
+import com.yogesh.er_scanner.overlap.ValueShape;
+import com.yogesh.er_scanner.util.Hashing;
+import com.yogesh.er_scanner.util.SortedLongSet;
+
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Sampled column profiles on disk, one JSON file per table under the
+ * source's column-profiles directory.
+ *
+ * A file records the table fingerprint it was sampled at and, per column,
+ * the type, value fingerprints, distinct and null counts, value range,
+ * value shape and sampling time. Reads touch the file, so its modification
+ * time orders files for least recently used eviction. Files written in
+ * another {@link #FORMAT} are ignored and overwritten by the next save.
+ */
+@Service
+public class ColumnProfileStore {
+
+    /** On-disk layout version; bump when fingerprints or fields change meaning. */
+    static final int FORMAT = 1;
+
+    private static final String DIRECTORY = "column-profiles";
+
+    // Unknown fields of another format must not fail before the format check
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    /**
+     * Loads the reusable column profiles of a table: same change token, same
+     * column type, and not older than the TTL. Tables without a change token
+     * are always profiled afresh, since nothing tells when their data moved.
+     *
+     * @return the reusable columns with zero rows read, or null if there are none
+     */
+    public TableSample load(ScanSource source, Table table, TableFingerprint fingerprint) {
+
+        RelationshipConfig.ProfileCache config = source.getRelationshipConfig().getProfileCache();
+        if (fingerprint.getVersion() == null) return null;
+
+        File file = file(source, table.getName());
+        if (!file.exists()) return null;
+
+        TableProfiles stored;
+        try {
+            stored = objectMapper.readValue(file, TableProfiles.class);
+        } catch (Exception e) {
+            System.err.println("[ColumnProfileStore] Could not read " + file + ": " + e.getMessage());
+            return null;
+        }
+
+        // A moved change token means the data may have changed under every column
+        if (stored.format != FORMAT
+                || !table.getName().equals(stored.table)
+                || !fingerprint.getVersion().equals(stored.version)) {
+            return null;
+        }
+
+        long expiresBefore = System.currentTimeMillis() - config.getTtlHours() * 3_600_000L;
+
+        Map<String, ColumnProfile> byName = new HashMap<>();
+        for (ColumnProfile p : stored.columns) byName.put(p.column, p);
+
+        Map<String, SortedLongSet> values = new LinkedHashMap<>();
+        Map<String, Integer> types = new LinkedHashMap<>();
+        Map<String, ColumnSummary> summaries = new LinkedHashMap<>();
+
+        for (Column c : table.getColumns()) {
+
+            ColumnProfile p = byName.get(c.getName());
+            if (p == null
+                    || !Objects.equals(p.type, c.getType())
+                    || p.profiledAt < expiresBefore) {
+                continue;
+            }
+
+            if (p.distinct > 1) values.put(p.column, SortedLongSet.of(decode(p.fingerprints)));
+            types.put(p.column, p.jdbcType);
+            summaries.put(p.column, new ColumnSummary(
+                    p.distinct, p.nulls, p.rows, p.min, p.max, p.profiledAt,
+                    p.shape == null ? null : p.shape.toShape()));
+        }
+
+        if (summaries.isEmpty()) return null;
+
+        file.setLastModified(System.currentTimeMillis());
+        return new TableSample(values, types, Map.of(), summaries, 0);
+    }
+
+    /**
+     * Writes the sampled columns of a table. Samples that read no rows came
+     * entirely from this store or from statistics and are not rewritten, and
+     * tables without a change token are never reused, so not written.
+     */
+    public void save(ScanSource source,
+                     Table table,
+                     TableFingerprint fingerprint,
+                     TableSample sample) throws Exception {
+
+        if (fingerprint.getVersion() == null
+                || sample.getRowsRead() == 0
+                || sample.getColumnSummaries().isEmpty()) {
+            return;
+        }
+
+        TableProfiles stored = new TableProfiles();
+        stored.format = FORMAT;
+        stored.table = table.getName();
+        stored.structureHash = fingerprint.getStructureHash();
+        stored.version = fingerprint.getVersion();
+
+        for (Column c : table.getColumns()) {
+
+            ColumnSummary summary = sample.getColumnSummaries().get(c.getName());
+            Integer jdbcType = sample.getColumnTypes().get(c.getName());
+            if (summary == null || jdbcType == null) continue;
+
+            SortedLongSet set = sample.getColumnValues().getOrDefault(c.getName(), SortedLongSet.EMPTY);
+
+            ColumnProfile p = new ColumnProfile();
+            p.column = c.getName();
+            p.type = c.getType();
+            p.jdbcType = jdbcType;
+            p.distinct = summary.getDistinct();
+            p.nulls = summary.getNulls();
+            p.rows = summary.getRows();
+            p.nullRatio = summary.getNullRatio();
+            p.min = summary.getMin();
+            p.max = summary.getMax();
+            p.profiledAt = summary.getProfiledAt();
+            p.shape = summary.getShape() == null ? null : new ShapeProfile(summary.getShape());
+            p.fingerprints = encode(set);
+            stored.columns.add(p);
+        }
+
+        File dir = source.outputFile(DIRECTORY);
+        if (!dir.exists()) dir.mkdirs();
+
+        // Write then rename, so a crash never leaves a truncated profile behind
+        File file = file(source, table.getName());
+        File tmp = new File(dir, file.getName() + ".tmp");
+        objectMapper.writeValue(tmp, stored);
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public void remove(ScanSource source, String table) {
+        file(source, table).delete();
+    }
+
+    /**
+     * Deletes profile files nobody used within the TTL, then the least
+     * recently used ones until the directory fits in the size cap.
+     */
+    public void evict(ScanSource source) {
+
+        RelationshipConfig.ProfileCache config = source.getRelationshipConfig().getProfileCache();
+        File[] files = source.outputFile(DIRECTORY).listFiles((d, name) -> name.endsWith(".json"));
+        if (files == null) return;
+
+        long expiresBefore = System.currentTimeMillis() - config.getTtlHours() * 3_600_000L;
+        long maxBytes = config.getMaxMb() * 1024 * 1024;
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+
+        long total = 0;
+        for (File f : files) total += f.length();
+
+        int evicted = 0;
+        for (File f : files) {
+            // A file is rewritten after every sample it holds, so an untouched one is all stale
+            if (total <= maxBytes && f.lastModified() >= expiresBefore) continue;
+            long length = f.length();
+            if (f.delete()) {
+                total -= length;
+                evicted++;
+            }
+        }
+
+        if (evicted > 0) {
+            System.out.println("[ColumnProfileStore] " + source.getId() + ": evicted "
+                    + evicted + " table profile(s), " + total / 1024 + " KB left");
+        }
+    }
+
+    private File file(ScanSource source, String table) {
+        // Table names are case-sensitive on some engines; the hash keeps them apart
+        String name = table.replaceAll("[^a-zA-Z0-9_-]", "_")
+                + "-" + Long.toHexString(Hashing.hash(table)) + ".json";
+        return new File(source.outputFile(DIRECTORY), name);
+    }
+
+    private static byte[] encode(SortedLongSet set) {
+        ByteBuffer buffer = ByteBuffer.allocate(set.size() * Long.BYTES);
+        for (int i = 0; i < set.size(); i++) buffer.putLong(set.get(i));
+        return buffer.array();
+    }
+
+    private static long[] decode(byte[] bytes) {
+        if (bytes == null) return new long[0];
+        LongBuffer buffer = ByteBuffer.wrap(bytes).asLongBuffer();
+        long[] values = new long[buffer.remaining()];
+        buffer.get(values);
+        return values;
+    }
+
+    /**
+     * On-disk form of one table; fingerprints are base64-encoded big-endian
+     * longs. Files from before the format field read as format 0.
+     */
+    static class TableProfiles {
+        public int format;
+        public String table;
+        public String structureHash;
+        public String version;
+        public List<ColumnProfile> columns = new ArrayList<>();
+    }
+
+    static class ColumnProfile {
+        public String column;
+        public String type;
+        public int jdbcType;
+        public long distinct;
+        public long nulls;
+        public long rows;
+        public double nullRatio;
+        public String min;
+        public String max;
+        public long profiledAt;
+        public ShapeProfile shape;
+        public byte[] fingerprints;
+    }
+
+    /** Numeric bounds are null when unknown. */
+    static class ShapeProfile {
+        public long values;
+        public double uniqueness;
+        public Double low;
+        public Double high;
+        public int minLength;
+        public int maxLength;
+        public double avgLength;
+        public long digitValues;
+        public long spacedValues;
+        public long fractionalValues;
+
+        public ShapeProfile() {}
+
+        ShapeProfile(ValueShape shape) {
+            values = shape.getValues();
+            uniqueness = shape.getUniqueness();
+            low = Double.isNaN(shape.getLow()) ? null : shape.getLow();
+            high = Double.isNaN(shape.getHigh()) ? null : shape.getHigh();
+            minLength = shape.getMinLength();
+            maxLength = shape.getMaxLength();
+            avgLength = shape.getAvgLength();
+            digitValues = shape.getDigitValues();
+            spacedValues = shape.getSpacedValues();
+            fractionalValues = shape.getFractionalValues();
+        }
+
+        ValueShape toShape() {
+            return new ValueShape(values, uniqueness,
+                    low == null ? Double.NaN : low,
+                    high == null ? Double.NaN : high,
+                    minLength, maxLength, avgLength,
+                    digitValues, spacedValues, fractionalValues);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.yogesh.er_scanner.service;
+
+import com.yogesh.er_scanner.overlap.TypeFamily;
+import com.yogesh.er_scanner.overlap.ValueShape;
+
+import java.math.BigDecimal;
+
+/**
+ * What one sample learned about a column besides its values: distinct and
+ * null counts over the rows read, value range, and when it was profiled.
+ * Min and max are kept as strings; numeric ones compare by value.
+ * The value shape is null for profiles written before shapes were kept.
+ */
+public class ColumnSummary {
+
+    private final long distinct;
+    private final long nulls;
+    private final long rows;
+    private final String min;
+    private final String max;
+    private final long profiledAt;
+    private final ValueShape shape;
+
+    public ColumnSummary(long distinct, long nulls, long rows,
+                         String min, String max, long profiledAt,
+                         ValueShape shape) {
+        this.distinct = distinct;
+        this.nulls = nulls;
+        this.rows = rows;
+        this.min = min;
+        this.max = max;
+        this.profiledAt = profiledAt;
+        this.shape = shape;
+    }
+
+    /** Combines two samples of the same column; {@code distinct} is the merged value count. */
+    public ColumnSummary merge(ColumnSummary more, long distinct, TypeFamily family) {
+        return new ColumnSummary(
+                distinct,
+                nulls + more.nulls,
+                rows + more.rows,
+                bound(min, more.min, family, -1),
+                bound(max, more.max, family, 1),
+                Math.max(profiledAt, more.profiledAt),
+                shape == null || more.shape == null
+                        ? (shape == null ? more.shape : shape)
+                        : shape.merge(more.shape));
+    }
+
+    // Lower (sign -1) or upper (sign 1) of two bounds; a known bound beats a missing one
+    private static String bound(String a, String b, TypeFamily family, int sign) {
+        if (a == null || b == null) return a == null ? b : a;
+        return Integer.signum(compare(a, b, family)) == sign ? a : b;
+    }
+
+    private static int compare(String a, String b, TypeFamily family) {
+        if (family == TypeFamily.NUMERIC) {
+            try {
+                return new BigDecimal(a).compareTo(new BigDecimal(b));
+            } catch (NumberFormatException ignored) {
+                // fall through to text order
+            }
+        }
+        return a.compareTo(b);
+    }
+
+    public long getDistinct() { return distinct; }
+    public long getNulls() { return nulls; }
+    public long getRows() { return rows; }
+    public String getMin() { return min; }
+    public String getMax() { return max; }
+    public long getProfiledAt() { return profiledAt; }
+    public ValueShape getShape() { return shape; }
+
+    public double getNullRatio() {
+        return rows == 0 ? 0 : (double) nulls / rows;
+    }
+}
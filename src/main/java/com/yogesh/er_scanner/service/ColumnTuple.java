@@ -0,0 +1,38 @@
+package com.yogesh.er_scanner.service;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Columns sampled together as one tuple, and the column whose hash slice
+ * decides whether a row's tuple counts under coordinated sampling. The same
+ * columns sliced on different columns are different tuples.
+ */
+public class ColumnTuple {
+
+    private final List<String> columns;
+    private final String slice;
+
+    public ColumnTuple(List<String> columns, String slice) {
+        this.columns = List.copyOf(columns);
+        this.slice = slice;
+    }
+
+    public List<String> getColumns() { return columns; }
+    public String getSlice() { return slice; }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ColumnTuple t && columns.equals(t.columns) && slice.equals(t.slice);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(columns, slice);
+    }
+
+    @Override
+    public String toString() {
+        return columns + " sliced on " + slice;
+    }
+}
@@ -0,0 +1,338 @@
+package com.yogesh.er_scanner.service;
+
+import com.yogesh.er_scanner.config.RelationshipConfig;
+import com.yogesh.er_scanner.model.*;
+import com.yogesh.er_scanner.overlap.*;
+import com.yogesh.er_scanner.util.SortedLongSet;
+
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Infers multi-column foreign keys into composite primary keys, such as
+ * {@code (tenant_id, account_id)} referencing {@code accounts}.
+ *
+ * Candidates are pruned by single-column evidence first: every column of a
+ * target key must contain most sampled values of some column of the other
+ * table, or the single value of a column constant in that table's sample,
+ * as a tenant column is when the sample holds one tenant. Only the column tuples built from those matches, at most
+ * maxCombinations per table pair, are sampled again as whole rows, each row
+ * hashed to one fingerprint per tuple. A child tuple set contained in the
+ * key's tuple set becomes a composite relationship.
+ */
+@Service
+public class CompositeKeyDetector {
+
+    private final DataSampleService dataSampleService;
+
+    public CompositeKeyDetector(DataSampleService dataSampleService) {
+        this.dataSampleService = dataSampleService;
+    }
+
+    /**
+     * @param sampled samples of every table in scope, in scan order
+     * @param tables  table metadata by name
+     * @param changed when non-null, only table pairs with a changed side are checked
+     */
+    public List<Relationship> detect(ScanSource source,
+                                     Map<String, TableSample> sampled,
+                                     Map<String, Table> tables,
+                                     Set<String> changed,
+                                     ScanProgress progress) throws Exception {
+
+        RelationshipConfig config = source.getRelationshipConfig();
+        RelationshipConfig.CompositeKeys composite = config.getCompositeKeys();
+
+        List<Relationship> results = new ArrayList<>();
+        if (!composite.isEnabled()) return results;
+
+        // ---------- COMPOSITE KEYS ----------
+        Map<String, List<String>> keys = new LinkedHashMap<>();
+        for (String name : sampled.keySet()) {
+            Table table = tables.get(name);
+            if (table == null) continue;
+            List<String> key = table.getColumns().stream()
+                    .filter(Column::isPrimaryKey)
+                    .map(Column::getName)
+                    .toList();
+            if (key.size() >= 2 && key.size() <= composite.getMaxArity()) keys.put(name, key);
+        }
+        if (keys.isEmpty()) return results;
+
+        // ---------- SINGLE-COLUMN EVIDENCE ----------
+        // Only key columns count as key-like, so only pairs with one are compared
+        List<SampledColumn> columns = new ArrayList<>();
+        List<Integer> components = new ArrayList<>();
+        int tableIndex = 0;
+
+        for (Map.Entry<String, TableSample> entry : sampled.entrySet()) {
+            String table = entry.getKey();
+            List<String> key = keys.getOrDefault(table, List.of());
+            TableSample sample = entry.getValue();
+
+            for (Map.Entry<String, SortedLongSet> column : sample.getColumnValues().entrySet()) {
+                int component = indexOf(key, column.getKey());
+                ColumnSummary summary = sample.getColumnSummaries().get(column.getKey());
+                columns.add(new SampledColumn(
+                        tableIndex, table, column.getKey(),
+                        TypeFamily.of(sample.getColumnTypes().get(column.getKey())),
+                        changed == null || changed.contains(table), column.getValue(),
+                        summary == null ? null : summary.getShape(),
+                        component >= 0));
+                components.add(component);
+            }
+            tableIndex++;
+        }
+
+        List<ColumnOverlap> overlaps = new ArrayList<>(
+                OverlapEngines.forColumns(config.getOverlap(), columns.size()).compare(columns));
+        overlaps.sort(Comparator.comparingInt(ColumnOverlap::getLeft)
+                .thenComparingInt(ColumnOverlap::getRight));
+
+        // target table + source table → per key column, matching source columns
+        Map<String, Candidate> candidates = new LinkedHashMap<>();
+
+        for (ColumnOverlap o : overlaps) {
+            SampledColumn a = columns.get(o.getLeft());
+            SampledColumn b = columns.get(o.getRight());
+            match(candidates, keys, composite, a, components.get(o.getLeft()), b, o.getIntersection());
+            match(candidates, keys, composite, b, components.get(o.getRight()), a, o.getIntersection());
+        }
+
+        // ---------- CANDIDATE TUPLES ----------
+        Map<String, Set<ColumnTuple>> tuples = new LinkedHashMap<>();
+        int tupleCount = 0;
+
+        for (Candidate c : candidates.values()) {
+            matchConstants(c, sampled.get(c.target), sampled.get(c.source));
+            if (c.matches.stream().anyMatch(Map::isEmpty)) continue;
+
+            c.slice = sliceComponent(c.key, sampled.get(c.target));
+            c.combinations = combinations(c.matches, composite.getMaxCombinations());
+
+            tuples.computeIfAbsent(c.target, k -> new LinkedHashSet<>())
+                    .add(new ColumnTuple(c.key, c.key.get(c.slice)));
+            for (List<String> combination : c.combinations) {
+                if (tuples.computeIfAbsent(c.source, k -> new LinkedHashSet<>())
+                        .add(new ColumnTuple(combination, combination.get(c.slice)))) {
+                    tupleCount++;
+                }
+            }
+        }
+
+        if (tuples.isEmpty()) {
+            System.out.println("[CompositeKeyDetector] " + source.getId() + ": "
+                    + keys.size() + " composite keys, no candidate tuples");
+            return results;
+        }
+
+        // ---------- SAMPLE AND COMPARE TUPLES ----------
+        List<Table> toSample = new ArrayList<>();
+        for (String name : sampled.keySet()) {
+            if (tuples.containsKey(name)) toSample.add(tables.get(name));
+        }
+
+        Map<String, Map<ColumnTuple, SortedLongSet>> tupleSets =
+                dataSampleService.sampleTuples(source, toSample, tuples, progress);
+
+        for (Candidate c : candidates.values()) {
+            if (c.combinations == null) continue;
+
+            SortedLongSet parent = tupleSets.get(c.target).get(new ColumnTuple(c.key, c.key.get(c.slice)));
+            List<String> best = null;
+            double bestOverlap = 0;
+
+            for (List<String> combination : c.combinations) {
+                SortedLongSet child = tupleSets.get(c.source)
+                        .get(new ColumnTuple(combination, combination.get(c.slice)));
+                // A single sampled tuple proves nothing, as with single-value columns
+                if (child.size() < 2 || parent.size() < 2) continue;
+
+                // Share of child tuples found among the key's tuples
+                double overlap = (double) child.intersectionSize(parent) / child.size();
+                if (overlap > bestOverlap) {
+                    best = combination;
+                    bestOverlap = overlap;
+                }
+            }
+
+            if (bestOverlap >= 0.9) {
+                results.add(new Relationship(c.source, best, c.target, c.key,
+                        RelationshipType.DATA_INFERRED, bestOverlap));
+            } else if (bestOverlap >= 0.6) {
+                results.add(new Relationship(c.source, best, c.target, c.key,
+                        RelationshipType.DATA_SAMPLE, bestOverlap));
+            }
+        }
+
+        System.out.println("[CompositeKeyDetector] " + source.getId() + ": "
+                + keys.size() + " composite keys, " + tupleCount + " candidate tuples over "
+                + toSample.size() + " tables, found " + results.size());
+
+        return results;
+    }
+
+    /**
+     * Records {@code other} as a match for key column {@code component} of
+     * {@code keyColumn}'s table when enough of its values are key values.
+     * Containment is one-way: child values fall inside the key, not the reverse.
+     */
+    private void match(Map<String, Candidate> candidates,
+                       Map<String, List<String>> keys,
+                       RelationshipConfig.CompositeKeys composite,
+                       SampledColumn keyColumn,
+                       int component,
+                       SampledColumn other,
+                       int intersection) {
+        if (component < 0) return;
+
+        double containment = (double) intersection / other.getValues().size();
+        if (containment < composite.getMinColumnOverlap()) return;
+
+        Candidate c = candidates.computeIfAbsent(
+                keyColumn.getTable() + "|" + other.getTable(),
+                k -> new Candidate(keyColumn.getTable(), other.getTable(), keys.get(keyColumn.getTable())));
+        c.matches.get(component).merge(other.getColumn(), containment, Math::max);
+    }
+
+    /**
+     * Matches key columns still without evidence to columns of the other
+     * table that held one value throughout its sample, when that value is
+     * also a value of the key column. Samples drop such columns' values,
+     * keeping only their summary, so the value overlap never sees them.
+     */
+    static void matchConstants(Candidate c,
+                               TableSample keySample,
+                               TableSample otherSample) {
+
+        for (int i = 0; i < c.key.size(); i++) {
+            if (!c.matches.get(i).isEmpty()) continue;
+
+            String keyColumn = c.key.get(i);
+            TypeFamily family = family(keySample, keyColumn);
+            if (family == TypeFamily.OTHER) continue;
+
+            SortedLongSet keyValues = lookup(keySample.getColumnValues(), keyColumn);
+            Long keyConstant = constant(keySample, keyColumn, family);
+            if (keyValues == null && keyConstant == null) continue;
+
+            for (String column : otherSample.getColumnSummaries().keySet()) {
+                if (family(otherSample, column) != family) continue;
+                Long value = constant(otherSample, column, family);
+                if (value == null) continue;
+
+                if (keyValues != null ? keyValues.contains(value) : value.equals(keyConstant)) {
+                    c.matches.get(i).put(column, 1.0);
+                }
+            }
+        }
+    }
+
+    // Fingerprint of the one value a column held in the sample, or null
+    private static Long constant(TableSample sample, String column, TypeFamily family) {
+        if (lookup(sample.getColumnValues(), column) != null) return null;
+        ColumnSummary summary = lookup(sample.getColumnSummaries(), column);
+        if (summary == null || summary.getDistinct() != 1 || summary.getMin() == null) return null;
+        return ValueFingerprint.of(summary.getMin(), family);
+    }
+
+    private static TypeFamily family(TableSample sample, String column) {
+        Integer type = lookup(sample.getColumnTypes(), column);
+        return type == null ? TypeFamily.OTHER : TypeFamily.of(type);
+    }
+
+    private static <V> V lookup(Map<String, V> byColumn, String column) {
+        V value = byColumn.get(column);
+        if (value != null) return value;
+        for (Map.Entry<String, V> e : byColumn.entrySet()) {
+            if (e.getKey().equalsIgnoreCase(column)) return e.getValue();
+        }
+        return null;
+    }
+
+    /**
+     * The key column with the most sampled distinct values. Coordinated
+     * samples slice tuples on it, so its values must spread well.
+     */
+    private int sliceComponent(List<String> key, TableSample sample) {
+        int slice = 0;
+        int most = -1;
+        for (int i = 0; i < key.size(); i++) {
+            int distinct = 0;
+            for (Map.Entry<String, SortedLongSet> e : sample.getColumnValues().entrySet()) {
+                if (e.getKey().equalsIgnoreCase(key.get(i))) distinct = e.getValue().size();
+            }
+            if (distinct > most) {
+                slice = i;
+                most = distinct;
+            }
+        }
+        return slice;
+    }
+
+    /**
+     * Source column tuples, one column per key column and no column twice,
+     * best single-column overlaps first, at most {@code max} of them.
+     */
+    static List<List<String>> combinations(List<Map<String, Double>> matches, int max) {
+
+        List<List<String>> options = new ArrayList<>();
+        for (Map<String, Double> m : matches) {
+            options.add(m.entrySet().stream()
+                    .sorted(Map.Entry.<String, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .map(Map.Entry::getKey)
+                    .toList());
+        }
+
+        List<List<String>> out = new ArrayList<>();
+        combine(options, new ArrayList<>(), out, max);
+        return out;
+    }
+
+    private static void combine(List<List<String>> options,
+                                List<String> current,
+                                List<List<String>> out,
+                                int max) {
+
+        if (current.size() == options.size()) {
+            out.add(List.copyOf(current));
+            return;
+        }
+
+        for (String column : options.get(current.size())) {
+            if (out.size() >= max) return;
+            if (current.contains(column)) continue;
+            current.add(column);
+            combine(options, current, out, max);
+            current.remove(current.size() - 1);
+        }
+    }
+
+    private static int indexOf(List<String> key, String column) {
+        for (int i = 0; i < key.size(); i++) {
+            if (key.get(i).equalsIgnoreCase(column)) return i;
+        }
+        return -1;
+    }
+
+    /** One (composite key, other table) pair and its evidence so far. */
+    static class Candidate {
+
+        final String target;
+        final String source;
+        final List<String> key;
+        final List<Map<String, Double>> matches = new ArrayList<>();
+
+        int slice;
+        List<List<String>> combinations;
+
+        Candidate(String target, String source, List<String> key) {
+            this.target = target;
+            this.source = source;
+            this.key = key;
+            for (int i = 0; i < key.size(); i++) matches.add(new LinkedHashMap<>());
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package com.yogesh.er_scanner.service;
 
+import com.yogesh.er_scanner.config.RelationshipConfig;
 import com.yogesh.er_scanner.db.*;
 import com.yogesh.er_scanner.model.*;
+import com.yogesh.er_scanner.overlap.*;
+import com.yogesh.er_scanner.util.SortedLongSet;
 
 import org.springframework.stereotype.Service;
 
-import javax.sql.DataSource;
 import java.sql.*;
 import java.util.*;
 
@@ -17,145 +19,803 @@ public class DataSampleService {
             "MAX_SESSION_CONTROLLED_MEMORY", "MAX_SESSION_TOTAL_MEMORY"
     );
 
-    // JDBC type groups for compatibility checks
-    private static final Set<Integer> NUMERIC_TYPES = Set.of(
-            Types.INTEGER, Types.BIGINT, Types.SMALLINT, Types.TINYINT,
-            Types.FLOAT, Types.DOUBLE, Types.REAL, Types.DECIMAL, Types.NUMERIC
-    );
-    private static final Set<Integer> STRING_TYPES = Set.of(
-            Types.VARCHAR, Types.CHAR, Types.LONGVARCHAR, Types.NVARCHAR,
-            Types.NCHAR, Types.LONGNVARCHAR, Types.CLOB, Types.NCLOB
-    );
-    private static final Set<Integer> DATE_TYPES = Set.of(
-            Types.DATE, Types.TIMESTAMP, Types.TIME, Types.TIMESTAMP_WITH_TIMEZONE
-    );
+    // Ceilings for relationships scored from statistics, well below sampled containment
+    private static final double RANGE_CONFIDENCE_NAMED = 0.5;
+    private static final double RANGE_CONFIDENCE_UNNAMED = 0.4;
+    // Share of the child's value range that must lie inside the key's
+    private static final double MIN_RANGE_COVERAGE = 0.9;
+
+    /**
+     * Profiles the given tables for overlap detection. In {@code statistics}
+     * mode optimizer statistics are read in bulk first, and only tables with
+     * a comparable column the statistics do not cover are row-sampled.
+     * Columns found in {@code cached} are not sampled again.
+     * The returned map follows the order of {@code tables}.
+     *
+     * @param cached previously profiled columns per table, still valid
+     */
+    public Map<String, TableSample> profileTables(
+            ScanSource source,
+            List<Table> tables,
+            Map<String, TableSample> cached,
+            ScanProgress progress) throws Exception {
+
+        RelationshipConfig config = source.getRelationshipConfig();
+        List<String> names = tables.stream().map(Table::getName).toList();
+
+        if (!"statistics".equalsIgnoreCase(config.getProfiling())) {
+            Map<String, List<Column>> projections = new HashMap<>();
+            for (Table table : tables) {
+                projections.put(table.getName(), uncached(keyCandidates(table), cached.get(table.getName())));
+            }
+            return withCached(sampleTables(source, tables, projections, Map.of(), progress), cached);
+        }
 
-    private final DataSource dataSource;
-    private final DatabaseDialectFactory dialectFactory;
+        Map<String, Map<String, ColumnStatistics>> statistics;
+        try (Connection conn = source.getConnection(progress)) {
+            statistics = source.getDialect().loadColumnStatistics(
+                    conn, source.getDatabaseConfig().getSchema(), names);
+        }
 
-    public DataSampleService(DataSource dataSource,
-                             DatabaseDialectFactory dialectFactory) {
-        this.dataSource = dataSource;
-        this.dialectFactory = dialectFactory;
-    }
+        // Keep usable statistics only; anything else is left to sampling
+        Map<String, Map<String, ColumnStatistics>> usable = new HashMap<>();
+        Map<String, List<Column>> projections = new HashMap<>();
+        List<Table> toSample = new ArrayList<>();
 
-    public List<Relationship> detectSampleRelationships(
-            List<String> tables,
-            int sampleSize) throws Exception {
+        for (Table table : tables) {
 
-        // value sets per table/column
-        Map<String, Map<String, Set<String>>> sampled = new HashMap<>();
-        // SQL type per table/column
-        Map<String, Map<String, Integer>> sqlTypes = new HashMap<>();
+            Map<String, ColumnStatistics> columns = new LinkedHashMap<>();
+            statistics.getOrDefault(table.getName().toLowerCase(), Map.of())
+                    .forEach((column, stats) -> {
+                        if (stats.isUsable()) columns.put(column, stats);
+                    });
+            usable.put(table.getName(), columns);
 
-        try (Connection conn = dataSource.getConnection()) {
+            List<Column> uncovered = uncached(keyCandidates(table), cached.get(table.getName())).stream()
+                    .filter(c -> !columns.containsKey(c.getName()))
+                    .toList();
 
-            DatabaseDialect dialect = dialectFactory.getDialect(conn);
+            if (!uncovered.isEmpty()) {
+                toSample.add(table);
+                projections.put(table.getName(), uncovered);
+            }
+        }
 
-            for (String table : tables) {
+        System.out.println("[DataSampleService] " + source.getId() + ": statistics cover "
+                + (tables.size() - toSample.size()) + " of " + tables.size()
+                + " tables, sampling " + toSample.size());
 
-                Map<String, Set<String>> columnValues = new HashMap<>();
-                Map<String, Integer> columnTypes = new HashMap<>();
+        Map<String, TableSample> sampled = withCached(toSample.isEmpty()
+                ? Map.of()
+                : sampleTables(source, toSample, projections, Map.of(), progress), cached);
 
-                String sql = dialect.getSampleQuery(table, sampleSize);
+        Map<String, TableSample> profiled = new LinkedHashMap<>();
 
-                try (Statement st = conn.createStatement();
-                     ResultSet rs = st.executeQuery(sql)) {
+        for (String name : names) {
 
-                    ResultSetMetaData meta = rs.getMetaData();
-                    int colCount = meta.getColumnCount();
+            Map<String, ColumnStatistics> columns = usable.get(name);
+            TableSample sample = sampled.get(name);
 
-                    // Collect type info and filter system columns before reading rows
-                    List<Integer> usedIndexes = new ArrayList<>();
-                    for (int i = 1; i <= colCount; i++) {
-                        String col = meta.getColumnName(i);
-                        if (SYSTEM_COLUMNS.contains(col.toUpperCase())) continue;
-                        usedIndexes.add(i);
-                        columnTypes.put(col, meta.getColumnType(i));
-                    }
+            if (sample == null) {
+                profiled.put(name, new TableSample(new LinkedHashMap<>(), new LinkedHashMap<>(), columns, 0));
+                continue;
+            }
+
+            // Statistics win over cached samples of a column analyzed since
+            Map<String, SortedLongSet> values = new LinkedHashMap<>(sample.getColumnValues());
+            values.keySet().removeAll(columns.keySet());
+
+            profiled.put(name, new TableSample(values, sample.getColumnTypes(), columns,
+                    sample.getColumnSummaries(), sample.getRowsRead()));
+        }
+
+        return profiled;
+    }
+
+    /**
+     * Adaptive sampling. Starting from the first samples, re-samples with
+     * growing row counts only the columns whose overlap score sits in the
+     * ambiguous band, until no such score moves by more than the tolerance,
+     * every table's row budget is spent, or the round limit is reached.
+     *
+     * @param tables table metadata by name, for projections and sample queries
+     * @return the refined tables with their merged samples
+     */
+    public Map<String, TableSample> refineSamples(
+            ScanSource source,
+            Map<String, TableSample> sampled,
+            Set<String> changed,
+            Map<String, Table> tables,
+            ScanProgress progress) throws Exception {
+
+        RelationshipConfig config = source.getRelationshipConfig();
+        RelationshipConfig.Sampling sampling = config.getSampling();
+
+        Map<String, TableSample> current = new LinkedHashMap<>(sampled);
+        Map<String, TableSample> refined = new LinkedHashMap<>();
+        Map<String, Integer> sizes = new HashMap<>();
+        Map<String, Double> previous = new HashMap<>();
+        // Rows read from each table by this scan; cached and earlier samples cost nothing
+        Map<String, Long> spent = new HashMap<>();
+
+        int round = 1;
+
+        while (round < sampling.getMaxRounds()) {
+
+            progress.checkCancelled();
+
+            // ---------- FIND AMBIGUOUS COLUMNS ----------
+            List<SampledColumn> columns = new ArrayList<>();
+            collectColumns(current, changed, config.getPruning(), columns, new ArrayList<>(), new ArrayList<>());
+            columns = pruneColumns(columns, config.getPruning(), false);
+
+            Map<String, Double> scores = new HashMap<>();
+            Map<String, Set<String>> unsettled = new LinkedHashMap<>();
+
+            for (ColumnOverlap o : compareColumns(columns, config.getOverlap())) {
+
+                SampledColumn c1 = columns.get(o.getLeft());
+                SampledColumn c2 = columns.get(o.getRight());
+
+                double overlap = (double) o.getIntersection()
+                        / Math.min(c1.getValues().size(), c2.getValues().size());
+                if (overlap < sampling.getAmbiguousLow() || overlap >= sampling.getAmbiguousHigh()) {
+                    continue;
+                }
+
+                String key = pairKey(c1, c2);
+                scores.put(key, overlap);
 
-                    while (rs.next()) {
-                        for (int i : usedIndexes) {
-                            String col = meta.getColumnName(i);
-                            String val = rs.getString(i);
-                            if (val == null) continue;
-                            columnValues
-                                    .computeIfAbsent(col, k -> new HashSet<>())
-                                    .add(val);
-                        }
+                Double before = previous.get(key);
+                if (before != null && Math.abs(overlap - before) < sampling.getTolerance()) continue;
+
+                for (SampledColumn c : List.of(c1, c2)) {
+                    // Statistics-profiled columns have nothing to re-sample
+                    if (current.get(c.getTable()).getColumnValues().containsKey(c.getColumn())) {
+                        unsettled.computeIfAbsent(c.getTable(), k -> new LinkedHashSet<>()).add(c.getColumn());
                     }
                 }
+            }
+
+            // ---------- PLAN NEXT ROUND WITHIN BUDGET ----------
+            List<Table> toSample = new ArrayList<>();
+            Map<String, List<Column>> projections = new HashMap<>();
+            Map<String, Integer> nextSizes = new HashMap<>();
+
+            for (Map.Entry<String, Set<String>> entry : unsettled.entrySet()) {
+
+                String name = entry.getKey();
+                Table table = tables.get(name);
+                long read = spent.computeIfAbsent(name,
+                        k -> changed.contains(k) ? sampled.get(k).getRowsRead() : 0L);
+                int size = sizes.getOrDefault(name, config.getSampleSize());
+                long next = Math.min((long) size * sampling.getGrowth(),
+                        sampling.getMaxRowsPerTable() - read);
+
+                if (table == null || next <= size) continue;
+
+                toSample.add(table);
+                nextSizes.put(name, (int) next);
+                projections.put(name, table.getColumns().stream()
+                        .filter(c -> entry.getValue().contains(c.getName()))
+                        .toList());
+            }
+
+            if (toSample.isEmpty()) break;
+
+            round++;
+            progress.samplingRound(round);
 
-                // Drop cardinality-1 columns — single unique value means no discriminating power
-                columnValues.entrySet().removeIf(e -> e.getValue().size() <= 1);
-                // Keep only types for columns that survived the cardinality filter
-                columnTypes.keySet().retainAll(columnValues.keySet());
+            // ---------- RE-SAMPLE ----------
+            Map<String, TableSample> more = sampleTables(
+                    source, toSample, projections, nextSizes, progress);
 
-                sampled.put(table, columnValues);
-                sqlTypes.put(table, columnTypes);
+            for (Map.Entry<String, TableSample> entry : more.entrySet()) {
+                TableSample merged = current.get(entry.getKey()).merge(entry.getValue());
+                current.put(entry.getKey(), merged);
+                refined.put(entry.getKey(), merged);
+                spent.merge(entry.getKey(), entry.getValue().getRowsRead(), Long::sum);
             }
+
+            sizes.putAll(nextSizes);
+            previous = scores;
         }
 
-        return computeOverlap(sampled, sqlTypes);
+        System.out.println("[DataSampleService] " + source.getId() + ": adaptive sampling took "
+                + round + " round(s), refined " + refined.size() + " table(s)");
+
+        return refined;
     }
 
-    private List<Relationship> computeOverlap(
-            Map<String, Map<String, Set<String>>> sampled,
-            Map<String, Map<String, Integer>> sqlTypes) {
+    /**
+     * Columns worth sampling: comparable types only. LOBs are skipped so
+     * their payloads never cross the wire, and approximate numerics and
+     * declared flags are never keys.
+     */
+    private List<Column> keyCandidates(Table table) {
+        return table.getColumns().stream()
+                .filter(c -> TypeFamily.isKeyCandidate(c.getType()))
+                .filter(c -> !SYSTEM_COLUMNS.contains(c.getName().toUpperCase()))
+                .toList();
+    }
 
-        List<Relationship> relationships = new ArrayList<>();
-        List<String> tables = new ArrayList<>(sampled.keySet());
+    private List<Column> uncached(List<Column> columns, TableSample cached) {
+        if (cached == null) return columns;
+        return columns.stream()
+                .filter(c -> !cached.getColumnSummaries().containsKey(c.getName()))
+                .toList();
+    }
+
+    /** Adds cached columns to fresh samples, keeping the order of {@code sampled}. */
+    private Map<String, TableSample> withCached(Map<String, TableSample> sampled,
+                                                Map<String, TableSample> cached) {
+        if (cached.isEmpty()) return sampled;
+
+        Map<String, TableSample> combined = new LinkedHashMap<>(sampled);
+        cached.forEach((table, sample) -> combined.merge(table, sample, (fresh, old) -> old.merge(fresh)));
+        return combined;
+    }
+
+    /**
+     * Samples every table, each on its own pooled connection, selecting only
+     * the projected columns. The returned map follows the order of {@code tables}.
+     */
+    private Map<String, TableSample> sampleTables(
+            ScanSource source,
+            List<Table> tables,
+            Map<String, List<Column>> projections,
+            Map<String, Integer> sampleSizes,
+            ScanProgress progress) throws Exception {
+
+        DatabaseDialect dialect = source.getDialect();
+        int defaultSize = source.getRelationshipConfig().getSampleSize();
+        RelationshipConfig.Sampling sampling = source.getRelationshipConfig().getSampling();
+
+        // Row estimates let dialects pick a sampling strategy per table
+        Map<String, Long> rowEstimates;
+        try (Connection conn = source.getConnection(progress)) {
+            rowEstimates = dialect.loadRowEstimates(conn,
+                    source.getDatabaseConfig().getSchema(),
+                    tables.stream().map(Table::getName).toList());
+        }
+
+        List<TableSample> samples = source.getScanExecutor().map(tables, table -> {
+            progress.checkCancelled();
+
+            List<Column> columns = projections.getOrDefault(table.getName(), List.of());
+            if (columns.isEmpty()) {
+                return new TableSample(new LinkedHashMap<>(), new LinkedHashMap<>());
+            }
+
+            int sampleSize = sampleSizes.getOrDefault(table.getName(), defaultSize);
+
+            long estimatedRows = rowEstimates.getOrDefault(table.getName().toLowerCase(), -1L);
+
+            String sql = sampling.isCoordinated()
+                    ? dialect.getCoordinatedSampleQuery(table, columns, sampleSize,
+                            hashBuckets(estimatedRows, sampleSize, sampling.getMaxHashBuckets()))
+                    : null;
+            boolean flagged = sql != null;
+            if (sql == null) {
+                sql = dialect.getSampleQuery(table, columns, sampleSize, estimatedRows);
+            } else {
+                // One hash-filtered branch per column, each a potential full read
+                for (int i = 0; i < columns.size(); i++) {
+                    progress.fullScan(table.getName(), estimatedRows);
+                }
+            }
+
+            try (Connection conn = source.getConnection(progress)) {
+                TableSample sample = sampleTable(conn, dialect, table.getName(), sql,
+                        columns.size(), flagged, sampleSize, progress);
 
+                String leading = flagged ? null
+                        : leadingRowsQuery(dialect, table, columns, sampleSize, estimatedRows,
+                                sql, sample.getRowsRead());
+                if (leading != null) {
+                    sample = sampleTable(conn, dialect, table.getName(), leading,
+                            columns.size(), false, sampleSize, progress);
+                }
+                return sample;
+            }
+        });
+
+        // Merge in configured order so overlap output is stable between runs
+        Map<String, TableSample> sampled = new LinkedHashMap<>();
         for (int i = 0; i < tables.size(); i++) {
-            for (int j = i + 1; j < tables.size(); j++) {
-
-                String t1 = tables.get(i);
-                String t2 = tables.get(j);
-
-                Map<String, Set<String>> c1 = sampled.get(t1);
-                Map<String, Set<String>> c2 = sampled.get(t2);
-                Map<String, Integer> types1 = sqlTypes.get(t1);
-                Map<String, Integer> types2 = sqlTypes.get(t2);
-
-                for (String col1 : c1.keySet()) {
-                    for (String col2 : c2.keySet()) {
-
-                        // Type compatibility check
-                        Integer type1 = types1.get(col1);
-                        Integer type2 = types2.get(col2);
-                        if (type1 != null && type2 != null && !typesCompatible(type1, type2)) {
-                            continue;
-                        }
-
-                        Set<String> s1 = c1.get(col1);
-                        Set<String> s2 = c2.get(col2);
-
-                        Set<String> intersection = new HashSet<>(s1);
-                        intersection.retainAll(s2);
-
-                        double overlap = (double) intersection.size()
-                                / Math.min(s1.size(), s2.size());
-
-                        if (overlap >= 0.9) {
-                            relationships.add(new Relationship(
-                                    t1, col1, t2, col2,
-                                    RelationshipType.DATA_INFERRED, overlap));
-                        } else if (overlap >= 0.6) {
-                            relationships.add(new Relationship(
-                                    t1, col1, t2, col2,
-                                    RelationshipType.DATA_SAMPLE, overlap));
-                        }
-                    }
+            sampled.put(tables.get(i).getName(), samples.get(i));
+        }
+        return sampled;
+    }
+
+    /**
+     * Samples column tuples for composite key detection, one query per table
+     * over the union of its tuples' columns. With coordinated sampling the
+     * query is hash-sliced per column and a tuple only counts when its slice
+     * column is in the slice, so tables slicing on the same key component
+     * keep the same tuples.
+     *
+     * @param tuples per table, the tuples to sample
+     * @return per table, tuple → tuple fingerprints
+     */
+    public Map<String, Map<ColumnTuple, SortedLongSet>> sampleTuples(
+            ScanSource source,
+            List<Table> tables,
+            Map<String, Set<ColumnTuple>> tuples,
+            ScanProgress progress) throws Exception {
+
+        DatabaseDialect dialect = source.getDialect();
+        int sampleSize = source.getRelationshipConfig().getSampleSize();
+        RelationshipConfig.Sampling sampling = source.getRelationshipConfig().getSampling();
+
+        Map<String, Long> rowEstimates;
+        try (Connection conn = source.getConnection(progress)) {
+            rowEstimates = dialect.loadRowEstimates(conn,
+                    source.getDatabaseConfig().getSchema(),
+                    tables.stream().map(Table::getName).toList());
+        }
+
+        List<Map<ColumnTuple, SortedLongSet>> results = source.getScanExecutor().map(tables, table -> {
+            progress.checkCancelled();
+
+            Set<ColumnTuple> tableTuples = tuples.get(table.getName());
+            Set<String> needed = new HashSet<>();
+            tableTuples.forEach(t -> t.getColumns().forEach(c -> needed.add(c.toLowerCase())));
+            List<Column> columns = table.getColumns().stream()
+                    .filter(c -> needed.contains(c.getName().toLowerCase()))
+                    .toList();
+
+            long estimatedRows = rowEstimates.getOrDefault(table.getName().toLowerCase(), -1L);
+
+            String sql = sampling.isCoordinated()
+                    ? dialect.getCoordinatedSampleQuery(table, columns, sampleSize,
+                            hashBuckets(estimatedRows, sampleSize, sampling.getMaxHashBuckets()))
+                    : null;
+            boolean flagged = sql != null;
+            if (sql == null) {
+                sql = dialect.getSampleQuery(table, columns, sampleSize, estimatedRows);
+            } else {
+                // One hash-filtered branch per column, each a potential full read
+                for (int i = 0; i < columns.size(); i++) {
+                    progress.fullScan(table.getName(), estimatedRows);
+                }
+            }
+
+            TupleReader reader = new TupleReader(tableTuples, sampleSize);
+            int valueColumns = flagged ? columns.size() : 0;
+
+            try (Connection conn = source.getConnection(progress)) {
+                long read = readTuples(conn, dialect, table.getName(), sql,
+                        reader, valueColumns, sampleSize, progress);
+
+                String leading = flagged ? null
+                        : leadingRowsQuery(dialect, table, columns, sampleSize, estimatedRows, sql, read);
+                if (leading != null) {
+                    reader = new TupleReader(tableTuples, sampleSize);
+                    readTuples(conn, dialect, table.getName(), leading, reader, 0, sampleSize, progress);
+                }
+            }
+            return reader.toTuples();
+        });
+
+        Map<String, Map<ColumnTuple, SortedLongSet>> sampled = new LinkedHashMap<>();
+        for (int i = 0; i < tables.size(); i++) {
+            sampled.put(tables.get(i).getName(), results.get(i));
+        }
+        return sampled;
+    }
+
+    /**
+     * Power-of-two bucket count that leaves roughly {@code sampleSize} rows per
+     * column slice. Slices nest across powers of two: a value kept with N
+     * buckets is also kept with any smaller N, so a large child table's slice
+     * still falls inside a smaller parent's slice.
+     */
+    private int hashBuckets(long estimatedRows, int sampleSize, int maxBuckets) {
+        if (estimatedRows <= sampleSize) return 1;
+        long target = (estimatedRows + sampleSize - 1) / sampleSize;
+        long buckets = Long.highestOneBit(target);
+        if (buckets < target) buckets <<= 1;
+        return (int) Math.min(buckets, Integer.highestOneBit(Math.max(1, maxBuckets)));
+    }
+
+    /**
+     * Runs one sample query. With {@code flagged} the query returns
+     * {@code valueColumns} values followed by one membership flag per value
+     * column, and a value only counts when its flag is non-zero.
+     */
+    private long readTuples(Connection conn,
+                            DatabaseDialect dialect,
+                            String table,
+                            String sql,
+                            TupleReader reader,
+                            int valueColumns,
+                            int sampleSize,
+                            ScanProgress progress) throws Exception {
+
+        long expectedRows = valueColumns > 0 ? (long) sampleSize * valueColumns : sampleSize;
+
+        try (Statement st = conn.createStatement(
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            dialect.configureSampleStatement(st, expectedRows);
+
+            try (ResultSet rs = st.executeQuery(sql)) {
+                reader.bind(rs.getMetaData(), valueColumns);
+                long read = reader.readAll(rs);
+                progress.rowsRead(table, read);
+                return read;
+            }
+        }
+    }
+
+    /**
+     * Plain leading-rows query to re-read a table whose native sample came
+     * back short, or null when the sample is complete. Offsets, key ranges
+     * and block percentages follow the catalog row estimate, which can be
+     * far above the real count, so the sample may start past the last row.
+     */
+    private String leadingRowsQuery(DatabaseDialect dialect,
+                                    Table table,
+                                    List<Column> columns,
+                                    int sampleSize,
+                                    long estimatedRows,
+                                    String sql,
+                                    long rowsRead) {
+
+        if (rowsRead >= sampleSize || estimatedRows <= sampleSize) return null;
+
+        String leading = dialect.getSampleQuery(table, columns, sampleSize, -1);
+        if (leading.equals(sql)) return null;
+
+        System.out.println("[DataSampleService] " + table.getName() + ": sample returned "
+                + rowsRead + " of " + sampleSize + " rows, re-reading leading rows");
+        return leading;
+    }
+
+    private TableSample sampleTable(Connection conn,
+                                    DatabaseDialect dialect,
+                                    String table,
+                                    String sql,
+                                    int valueColumns,
+                                    boolean flagged,
+                                    int sampleSize,
+                                    ScanProgress progress) throws Exception {
+
+        SampleReader reader = new SampleReader();
+        long expectedRows = flagged ? (long) sampleSize * valueColumns : sampleSize;
+
+        try (Statement st = conn.createStatement(
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            dialect.configureSampleStatement(st, expectedRows);
+
+            try (ResultSet rs = st.executeQuery(sql)) {
+                reader.bind(rs.getMetaData(), flagged ? valueColumns : 0, SYSTEM_COLUMNS, sampleSize);
+                progress.rowsRead(table, reader.readAll(rs));
+            }
+        }
+
+        return reader.toSample();
+    }
+
+    /**
+     * Compares sampled columns across table pairs, after pruning columns and
+     * pairs that cannot be join keys.
+     *
+     * @param changed when non-null, only pairs involving at least one of these
+     *                tables are compared; the rest are assumed unchanged
+     */
+    public List<Relationship> computeOverlap(
+            Map<String, TableSample> sampled,
+            Set<String> changed,
+            RelationshipConfig config) {
+
+        List<SampledColumn> columns = new ArrayList<>();
+        // Statistics-profiled columns, index-aligned with their statistics
+        List<SampledColumn> profiled = new ArrayList<>();
+        List<ColumnStatistics> statistics = new ArrayList<>();
+        collectColumns(sampled, changed, config.getPruning(), columns, profiled, statistics);
+        columns = pruneColumns(columns, config.getPruning(), true);
+
+        List<ColumnOverlap> overlaps = compareColumns(columns, config.getOverlap());
+
+        List<Relationship> relationships = new ArrayList<>();
+        Set<String> found = new HashSet<>();
+        // Shared sampled or histogram values per column and partner, from the engine's index
+        Map<String, Map<String, Integer>> shared = new HashMap<>();
+
+        for (ColumnOverlap o : overlaps) {
+
+            SampledColumn c1 = columns.get(o.getLeft());
+            SampledColumn c2 = columns.get(o.getRight());
+            shared.computeIfAbsent(columnKey(c1), k -> new HashMap<>())
+                    .merge(columnKey(c2), o.getIntersection(), Integer::sum);
+            shared.computeIfAbsent(columnKey(c2), k -> new HashMap<>())
+                    .merge(columnKey(c1), o.getIntersection(), Integer::sum);
+
+            double overlap = (double) o.getIntersection()
+                    / Math.min(c1.getValues().size(), c2.getValues().size());
+
+            // Pairs already matched on values are not re-scored from ranges
+            if (overlap >= 0.6) found.add(pairKey(c1, c2));
+
+            if (overlap >= 0.9) {
+                relationships.add(new Relationship(
+                        c1.getTable(), c1.getColumn(), c2.getTable(), c2.getColumn(),
+                        RelationshipType.DATA_INFERRED, overlap));
+            } else if (overlap >= 0.6) {
+                relationships.add(new Relationship(
+                        c1.getTable(), c1.getColumn(), c2.getTable(), c2.getColumn(),
+                        RelationshipType.DATA_SAMPLE, overlap));
+            }
+        }
+
+        relationships.addAll(rangeOverlap(profiled, statistics, shared, found));
+
+        return relationships;
+    }
+
+    /**
+     * Flattens samples into engine input. Histogram endpoints of
+     * statistics-profiled columns join {@code columns}; every profiled column
+     * also goes to {@code profiled}, index-aligned with {@code statistics}.
+     */
+    private void collectColumns(Map<String, TableSample> sampled,
+                                Set<String> changed,
+                                RelationshipConfig.Pruning pruning,
+                                List<SampledColumn> columns,
+                                List<SampledColumn> profiled,
+                                List<ColumnStatistics> statistics) {
+
+        int tableIndex = 0;
+
+        for (Map.Entry<String, TableSample> entry : sampled.entrySet()) {
+            String table = entry.getKey();
+            boolean tableChanged = changed == null || changed.contains(table);
+            Map<String, Integer> types = entry.getValue().getColumnTypes();
+            Map<String, ColumnSummary> summaries = entry.getValue().getColumnSummaries();
+
+            for (Map.Entry<String, SortedLongSet> column
+                    : entry.getValue().getColumnValues().entrySet()) {
+                ColumnSummary summary = summaries.get(column.getKey());
+                ValueShape shape = summary == null ? null : summary.getShape();
+                boolean keyLike = !pruning.isEnabled()
+                        || shape == null
+                        || shape.getUniqueness() >= pruning.getMinKeyUniqueness();
+                columns.add(new SampledColumn(
+                        tableIndex, table, column.getKey(),
+                        TypeFamily.of(types.get(column.getKey())),
+                        tableChanged, column.getValue(), shape, keyLike));
+            }
+
+            // Histogram endpoints are real column values and compare like a sample
+            for (ColumnStatistics stats : entry.getValue().getColumnStatistics().values()) {
+                if (stats.getValues().size() > 1) {
+                    columns.add(new SampledColumn(
+                            tableIndex, table, stats.getColumn(),
+                            stats.getTypeFamily(), tableChanged,
+                            ValueFingerprint.ofAll(stats.getValues(), stats.getTypeFamily())));
+                }
+                profiled.add(new SampledColumn(
+                        tableIndex, table, stats.getColumn(),
+                        stats.getTypeFamily(), tableChanged, SortedLongSet.EMPTY));
+                statistics.add(stats);
+            }
+            tableIndex++;
+        }
+    }
+
+    /**
+     * Drops sampled columns that are almost never join keys, see
+     * {@link RelationshipConfig.Pruning}. Columns without a sampled shape,
+     * such as histogram endpoints, are kept.
+     *
+     * @param report whether to log what was pruned and the comparisons avoided
+     */
+    private List<SampledColumn> pruneColumns(List<SampledColumn> columns,
+                                             RelationshipConfig.Pruning pruning,
+                                             boolean report) {
+
+        if (!pruning.isEnabled()) return columns;
+
+        List<SampledColumn> kept = new ArrayList<>(columns.size());
+        Map<String, Integer> reasons = new TreeMap<>();
+
+        for (SampledColumn c : columns) {
+            String reason = pruneReason(c, pruning);
+            if (reason == null) {
+                kept.add(c);
+            } else {
+                reasons.merge(reason, 1, Integer::sum);
+            }
+        }
+
+        if (report) {
+            long before = comparablePairs(columns, false);
+            long after = comparablePairs(kept, true);
+            System.out.println("[DataSampleService] Pruned " + (columns.size() - kept.size())
+                    + " of " + columns.size() + " columns " + reasons
+                    + ", avoided " + (before - after) + " of " + before + " pair comparisons");
+        }
+
+        return kept;
+    }
+
+    private String pruneReason(SampledColumn column, RelationshipConfig.Pruning pruning) {
+
+        ValueShape shape = column.getShape();
+        if (shape == null) return null;
+
+        if (column.getTypeFamily() == TypeFamily.DATE && pruning.isDropDates()) return "date";
+        if (shape.getFractionalValues() > 0) return "fractional";
+        if (shape.getSpacedValues() * 2 > shape.getValues()
+                || shape.getAvgLength() > pruning.getMaxKeyLength()) {
+            return "text";
+        }
+        return null;
+    }
+
+    /**
+     * Pairs passing the table, type and change checks of
+     * {@link SampledColumn#comparableWith}, and with {@code keyRule} its
+     * key-likeness check, counted per type family without enumerating pairs.
+     * Shape checks are left out: pairs they reject share no sampled value.
+     */
+    private static long comparablePairs(List<SampledColumn> columns, boolean keyRule) {
+
+        long total = 0;
+
+        for (TypeFamily family : TypeFamily.values()) {
+            if (!family.compatibleWith(family)) continue;
+
+            List<SampledColumn> group = columns.stream()
+                    .filter(c -> c.getTypeFamily() == family)
+                    .toList();
+            total += changedPairs(group);
+
+            if (keyRule) {
+                total -= changedPairs(group.stream().filter(c -> !c.isKeyLike()).toList());
+            }
+        }
+
+        return total;
+    }
+
+    // Cross-table pairs with at least one changed side
+    private static long changedPairs(List<SampledColumn> columns) {
+        return crossTablePairs(columns)
+                - crossTablePairs(columns.stream().filter(c -> !c.isChanged()).toList());
+    }
+
+    private static long crossTablePairs(List<SampledColumn> columns) {
+        Map<Integer, Long> perTable = new HashMap<>();
+        for (SampledColumn c : columns) perTable.merge(c.getTableIndex(), 1L, Long::sum);
+
+        long n = columns.size();
+        long pairs = n * (n - 1) / 2;
+        for (long k : perTable.values()) pairs -= k * (k - 1) / 2;
+        return pairs;
+    }
+
+    /** Runs the configured engine; results come back in nested pair-loop order. */
+    private List<ColumnOverlap> compareColumns(List<SampledColumn> columns,
+                                               RelationshipConfig.Overlap config) {
+
+        OverlapEngine engine = OverlapEngines.forColumns(config, columns.size());
+        List<ColumnOverlap> overlaps = new ArrayList<>(engine.compare(columns));
+
+        // Table pair first, then column order — the order of the nested pair loop
+        overlaps.sort(Comparator
+                .comparingInt((ColumnOverlap o) -> columns.get(o.getLeft()).getTableIndex())
+                .thenComparingInt(o -> columns.get(o.getRight()).getTableIndex())
+                .thenComparingInt(ColumnOverlap::getLeft)
+                .thenComparingInt(ColumnOverlap::getRight));
+
+        return overlaps;
+    }
+
+    /**
+     * Scores statistics-profiled columns against key-like columns of other
+     * tables. Only pairs the overlap engine saw sharing a histogram value, or
+     * whose names pair up as a reference to the key, are considered; key-like
+     * columns are never the referencing side.
+     *
+     * Range containment alone proves little, so a pair also needs the
+     * histograms to agree: a shared endpoint value, or no more distinct values
+     * than the key in any stretch of its range; pairs found by value alone
+     * need both. Confidence stays below every sample-based score. Relationships point from the child column to the key.
+     */
+    private List<Relationship> rangeOverlap(List<SampledColumn> profiled,
+                                            List<ColumnStatistics> statistics,
+                                            Map<String, Map<String, Integer>> shared,
+                                            Set<String> found) {
+
+        List<Relationship> relationships = new ArrayList<>();
+
+        // Key columns by the names a referencing column would carry
+        Map<String, List<Integer>> byName = new HashMap<>();
+        Map<String, Integer> position = new HashMap<>();
+        for (int p = 0; p < profiled.size(); p++) {
+            SampledColumn column = profiled.get(p);
+            position.put(columnKey(column), p);
+
+            ColumnStatistics parent = statistics.get(p);
+            if (!parent.isKeyLike() || !parent.hasRange()) continue;
+            for (String name : referenceNames(column)) {
+                byName.computeIfAbsent(name, k -> new ArrayList<>(1)).add(p);
+            }
+        }
+
+        for (int c = 0; c < profiled.size(); c++) {
+
+            SampledColumn childColumn = profiled.get(c);
+            ColumnStatistics child = statistics.get(c);
+            if (child.isKeyLike() || !child.hasRange()) continue;
+
+            List<Integer> named = byName.getOrDefault(childColumn.getColumn().toLowerCase(), List.of());
+            Map<String, Integer> partners = shared.getOrDefault(columnKey(childColumn), Map.of());
+
+            // Candidates: name matches, then key columns sharing a histogram value
+            Set<Integer> candidates = new LinkedHashSet<>(named);
+            for (String partner : partners.keySet()) {
+                Integer other = position.get(partner);
+                if (other != null && statistics.get(other).isKeyLike()) candidates.add(other);
+            }
+
+            for (int p : candidates) {
+
+                SampledColumn parentColumn = profiled.get(p);
+                ColumnStatistics parent = statistics.get(p);
+                String pair = pairKey(parentColumn, childColumn);
+
+                if (!parent.hasRange()
+                        || !parentColumn.comparableWith(childColumn)
+                        || found.contains(pair)) {
+                    continue;
                 }
+
+                double coverage = RangeCoverage.of(
+                        child.getRanges(), parent.getRanges(), child.getTypeFamily());
+                if (coverage < MIN_RANGE_COVERAGE) continue;
+
+                boolean isNamed = named.contains(p);
+                boolean sharesValue = partners.getOrDefault(columnKey(parentColumn), 0) > 0;
+                boolean fits = RangeCoverage.distinctFits(child.getRanges(), child.getNumDistinct(),
+                        parent.getRanges(), parent.getNumDistinct(), child.getTypeFamily());
+
+                // Named pairs need one kind of agreement, value-only pairs both
+                if (isNamed ? !(sharesValue || fits) : !fits) continue;
+
+                double cap = isNamed ? RANGE_CONFIDENCE_NAMED : RANGE_CONFIDENCE_UNNAMED;
+                relationships.add(new Relationship(
+                        childColumn.getTable(), childColumn.getColumn(),
+                        parentColumn.getTable(), parentColumn.getColumn(),
+                        RelationshipType.DATA_SAMPLE, cap * coverage));
+                found.add(pair);
             }
         }
 
         return relationships;
     }
 
-    private boolean typesCompatible(int t1, int t2) {
-        return (NUMERIC_TYPES.contains(t1) && NUMERIC_TYPES.contains(t2))
-                || (STRING_TYPES.contains(t1) && STRING_TYPES.contains(t2))
-                || (DATE_TYPES.contains(t1) && DATE_TYPES.contains(t2));
+    // Same column name, or the key's name prefixed by its table: customers.id -> customer_id
+    private static List<String> referenceNames(SampledColumn key) {
+        String column = key.getColumn().toLowerCase();
+        String table = key.getTable().toLowerCase();
+        String singular = SemanticRelationshipDetector.singularize(table);
+        return singular.equals(table)
+                ? List.of(column, table + "_" + column)
+                : List.of(column, table + "_" + column, singular + "_" + column);
+    }
+
+    private static String columnKey(SampledColumn c) {
+        return c.getTable() + "." + c.getColumn();
+    }
+
+    private String pairKey(SampledColumn a, SampledColumn b) {
+        String left = columnKey(a);
+        String right = columnKey(b);
+        return left.compareTo(right) <= 0 ? left + "|" + right : right + "|" + left;
     }
 }
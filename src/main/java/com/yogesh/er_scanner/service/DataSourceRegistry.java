@@ -0,0 +1,104 @@
+package com.yogesh.er_scanner.service;
+
+import com.yogesh.er_scanner.config.DatabaseConfig;
+import com.yogesh.er_scanner.config.RelationshipConfig;
+import com.yogesh.er_scanner.config.SourcesConfig;
+import com.yogesh.er_scanner.db.DatabaseDialectFactory;
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.util.*;
+
+/**
+ * Named datasources available for scanning.
+ *
+ * The primary spring.datasource is registered under the default id and keeps
+ * writing to the output root. Each entry in sources.definitions gets its own
+ * Hikari pool (started lazily on first use), dialect and scan settings, and
+ * writes to output/&lt;id&gt;/.
+ */
+@Service
+public class DataSourceRegistry {
+
+    private final Map<String, ScanSource> sources = new LinkedHashMap<>();
+    private final List<HikariDataSource> ownedPools = new ArrayList<>();
+    private final String defaultId;
+
+    public DataSourceRegistry(DataSource dataSource,
+                              DatabaseConfig databaseConfig,
+                              RelationshipConfig relationshipConfig,
+                              SourcesConfig sourcesConfig,
+                              DatabaseDialectFactory dialectFactory,
+                              @Value("${output.dir:output}") String outputDir) {
+
+        this.defaultId = sourcesConfig.getDefaultId();
+
+        sources.put(defaultId, new ScanSource(
+                defaultId,
+                dataSource,
+                databaseConfig,
+                relationshipConfig,
+                new File(outputDir),
+                dialectFactory));
+
+        for (Map.Entry<String, SourcesConfig.Definition> entry
+                : sourcesConfig.getDefinitions().entrySet()) {
+
+            String id = entry.getKey();
+            SourcesConfig.Definition def = entry.getValue();
+
+            if (sources.containsKey(id)) {
+                throw new IllegalStateException("Duplicate source id: " + id);
+            }
+
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("source-" + id);
+            pool.setJdbcUrl(def.getUrl());
+            pool.setUsername(def.getUsername());
+            pool.setPassword(def.getPassword());
+            if (def.getDriverClassName() != null) {
+                pool.setDriverClassName(def.getDriverClassName());
+            }
+            pool.setMaximumPoolSize(def.getMaximumPoolSize());
+            ownedPools.add(pool);
+
+            sources.put(id, new ScanSource(
+                    id,
+                    pool,
+                    def.getDatabase(),
+                    def.getRelationship(),
+                    new File(outputDir, id.replaceAll("[^a-zA-Z0-9_-]", "_")),
+                    dialectFactory));
+        }
+    }
+
+    public String getDefaultId() {
+        return defaultId;
+    }
+
+    public Collection<ScanSource> all() {
+        return Collections.unmodifiableCollection(sources.values());
+    }
+
+    /**
+     * @throws IllegalArgumentException for an unknown source id
+     */
+    public ScanSource get(String id) {
+        ScanSource source = sources.get(id == null || id.isBlank() ? defaultId : id);
+        if (source == null) {
+            throw new IllegalArgumentException("Unknown source: " + id);
+        }
+        return source;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sources.values().forEach(s -> s.getScanExecutor().shutdown());
+        ownedPools.forEach(HikariDataSource::close);
+    }
+}
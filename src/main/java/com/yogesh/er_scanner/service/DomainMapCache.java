@@ -0,0 +1,174 @@
+package com.yogesh.er_scanner.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Each source's domains.json, parsed once and held as an immutable
+ * {@link DomainMap}.
+ *
+ * A WatchService on every loaded source's output directory reloads the
+ * file when it is created, changed or deleted, replacing the map in one
+ * step, so readers see either the old map or the new one. A file that
+ * fails to parse, such as one caught mid-write, keeps the previous map
+ * until the next change.
+ */
+@Service
+public class DomainMapCache {
+
+    private static final String FILE_NAME = "domains.json";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong versions = new AtomicLong();
+
+    private final Map<String, DomainMap> maps = new ConcurrentHashMap<>();
+    // Sources by watched directory; sources may share an output directory
+    private final Map<Path, List<ScanSource>> watched = new ConcurrentHashMap<>();
+    private WatchService watchService;
+
+    /** The source's current domain map, loading it on first use. */
+    public DomainMap get(ScanSource source) {
+        DomainMap map = maps.get(source.getId());
+        if (map != null) return map;
+
+        synchronized (this) {
+            map = maps.get(source.getId());
+            if (map != null) return map;
+
+            watch(source);
+            map = load(source, DomainMap.EMPTY);
+            maps.put(source.getId(), map);
+            return map;
+        }
+    }
+
+    private DomainMap load(ScanSource source, DomainMap previous) {
+
+        File file = source.outputFile(FILE_NAME);
+        if (!file.exists()) return new DomainMap(versions.incrementAndGet(), null);
+
+        try {
+            Map<String, List<String>> groups = objectMapper.readValue(file, new TypeReference<>() {});
+            return new DomainMap(versions.incrementAndGet(), groups);
+        } catch (Exception e) {
+            System.err.println("[DomainMapCache] Could not read " + file + ": " + e.getMessage());
+            return previous;
+        }
+    }
+
+    private void reload(ScanSource source) {
+        synchronized (this) {
+            DomainMap previous = maps.get(source.getId());
+            if (previous == null) return;
+            DomainMap map = load(source, previous);
+            if (map != previous) {
+                maps.put(source.getId(), map);
+                System.out.println("[DomainMapCache] Reloaded " + FILE_NAME + " for source: " + source.getId());
+            }
+        }
+    }
+
+    // Registers the output directory, starting the watcher thread on first use
+    private void watch(ScanSource source) {
+        try {
+            if (watchService == null) {
+                watchService = FileSystems.getDefault().newWatchService();
+                Thread t = new Thread(this::run, "domain-map-watcher");
+                t.setDaemon(true);
+                t.start();
+            }
+
+            File dir = source.getOutputDir();
+            if (!dir.exists()) dir.mkdirs();
+
+            Path path = dir.toPath().toAbsolutePath().normalize();
+            if (!watched.containsKey(path)) {
+                path.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+            }
+            watched.computeIfAbsent(path, k -> new CopyOnWriteArrayList<>()).add(source);
+        } catch (IOException e) {
+            // Still served, just not reloaded on change
+            System.err.println("[DomainMapCache] Cannot watch " + source.getOutputDir() + ": " + e.getMessage());
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                List<ScanSource> sources = watched.getOrDefault((Path) key.watchable(), List.of());
+
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                            || FILE_NAME.equals(String.valueOf(event.context()));
+                }
+                if (changed) sources.forEach(this::reload);
+
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // shutting down
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() throws IOException {
+        if (watchService != null) watchService.close();
+    }
+
+    /** One parsed domains.json: domain → tables, and table → domain. */
+    public static class DomainMap {
+
+        static final DomainMap EMPTY = new DomainMap(0, null);
+
+        private final long version;
+        private final Map<String, List<String>> groups;
+        private final Map<String, String> tableDomains;
+
+        DomainMap(long version, Map<String, List<String>> groups) {
+            this.version = version;
+            if (groups == null) {
+                this.groups = null;
+            } else {
+                Map<String, List<String>> copy = new LinkedHashMap<>();
+                groups.forEach((domain, names) -> copy.put(domain, Collections.unmodifiableList(new ArrayList<>(names))));
+                this.groups = Collections.unmodifiableMap(copy);
+            }
+
+            // Lower-cased table names; a table listed twice keeps its last domain
+            Map<String, String> tables = new HashMap<>();
+            if (groups != null) {
+                groups.forEach((domain, names) -> names.forEach(t -> tables.put(t.toLowerCase(), domain)));
+            }
+            this.tableDomains = Collections.unmodifiableMap(tables);
+        }
+
+        /** Changes whenever the file is reloaded. */
+        public long getVersion() { return version; }
+
+        /** False when the source has no domains.json. */
+        public boolean exists() { return groups != null; }
+
+        /** Domains in file order with their tables; empty without a file. */
+        public Map<String, List<String>> getGroups() { return groups == null ? Map.of() : groups; }
+
+        public String domainOf(String table, String fallback) {
+            return tableDomains.getOrDefault(table.toLowerCase(), fallback);
+        }
+    }
+}
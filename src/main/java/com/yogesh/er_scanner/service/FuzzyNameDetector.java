@@ -0,0 +1,359 @@
+package com.yogesh.er_scanner.service;
+
+import com.yogesh.er_scanner.config.RelationshipConfig;
+import com.yogesh.er_scanner.model.*;
+import com.yogesh.er_scanner.overlap.TypeFamily;
+
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Matches legacy key column names such as {@code cust_no}, {@code custid}
+ * or {@code customer_nbr} to the tables they reference.
+ *
+ * Names are split on underscores, camelCase and letter/digit boundaries,
+ * lower-cased, and abbreviations are expanded. A column is a candidate when
+ * its last word is a key suffix; the words before it name the referenced
+ * entity. Each table with a primary key is indexed under its singular name
+ * and its primary key's entity, by trigram.
+ *
+ * Trigrams are ordered rarest first across the whole index, and both sides
+ * keep only the prefix of that order a pair above the similarity threshold
+ * must share a gram in (prefix filtering). A column entity therefore only
+ * meets entries sharing one of its rare grams, and those candidates are
+ * scored by exact Dice similarity of the trigram sets. Results are cached
+ * per entity, since legacy schemas repeat the same key names everywhere.
+ */
+@Service
+public class FuzzyNameDetector {
+
+    private static final int Q = 3;
+
+    // Key suffixes safe to split off a glued word ("custid") whatever precedes them
+    private static final Set<String> GLUED_SUFFIXES = Set.of("id", "nbr", "num", "number", "key");
+
+    public List<Relationship> detect(List<Table> tables, RelationshipConfig.FuzzyNames config) {
+
+        List<Relationship> results = new ArrayList<>();
+        if (!config.isEnabled()) return results;
+
+        Normalizer normalizer = new Normalizer(config);
+        double threshold = config.getMinSimilarity();
+
+        // ---------- INDEX TABLES ----------
+        List<Table> targetTables = new ArrayList<>();
+        List<Column> targetKeys = new ArrayList<>();
+        List<TypeFamily> targetFamilies = new ArrayList<>();
+        GramIndex index = new GramIndex();
+
+        for (Table table : tables) {
+            Column pk = table.getColumns().stream()
+                    .filter(Column::isPrimaryKey)
+                    .findFirst()
+                    .orElse(null);
+            if (pk == null) continue;
+
+            int target = targetTables.size();
+            targetTables.add(table);
+            targetKeys.add(pk);
+            targetFamilies.add(TypeFamily.ofTypeName(pk.getType()));
+
+            index.add(normalizer.tableEntity(table.getName()), target);
+            String pkEntity = normalizer.keyEntity(pk.getName());
+            if (pkEntity != null) index.add(pkEntity, target);
+        }
+        index.freeze();
+
+        // ---------- MATCH KEY COLUMNS ----------
+        Map<String, List<double[]>> matchesByEntity = new HashMap<>();
+        // Parsing a type name is dearer than the lookup; schemas use few distinct types
+        Map<String, TypeFamily> keyFamilies = new HashMap<>();
+
+        for (Table table : tables) {
+            for (Column column : table.getColumns()) {
+
+                if (column.isPrimaryKey() || column.getType() == null) continue;
+
+                TypeFamily family = keyFamilies.computeIfAbsent(column.getType(),
+                        type -> TypeFamily.isKeyCandidate(type) ? TypeFamily.ofTypeName(type) : TypeFamily.OTHER);
+                if (family == TypeFamily.OTHER) continue;
+
+                String entity = normalizer.keyEntity(column.getName());
+                if (entity == null) continue;
+
+                Map<Integer, Double> best = new HashMap<>();
+
+                for (double[] match : matchesByEntity.computeIfAbsent(entity,
+                        e -> index.search(e, threshold))) {
+                    int target = index.target((int) match[0]);
+                    if (targetTables.get(target) == table) continue;
+                    if (!family.compatibleWith(targetFamilies.get(target))) continue;
+                    best.merge(target, match[1], Math::max);
+                }
+
+                best.entrySet().stream()
+                        .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                                .thenComparing(Map.Entry.comparingByKey()))
+                        .limit(config.getMaxMatches())
+                        .forEach(match -> results.add(new Relationship(
+                                table.getName(), column.getName(),
+                                targetTables.get(match.getKey()).getName(),
+                                targetKeys.get(match.getKey()).getName(),
+                                RelationshipType.INFERRED,
+                                config.getMaxConfidence() * match.getValue())));
+            }
+        }
+
+        return results;
+    }
+
+    // Fewest grams two sets must share for Dice >= threshold, given one side's size
+    private static int minShared(int size, double threshold) {
+        return Math.max(1, (int) Math.ceil(threshold * size / (2 - threshold) - 1e-9));
+    }
+
+    /**
+     * Splits and normalizes names into entity strings: the expanded words
+     * joined without separators.
+     */
+    private static class Normalizer {
+
+        private final Map<String, String> abbreviations = new HashMap<>();
+        private final Set<String> dictionary = new HashSet<>();
+        private final List<String> keySuffixes;
+
+        Normalizer(RelationshipConfig.FuzzyNames config) {
+            config.getAbbreviations().forEach((k, v) -> abbreviations.put(k.toLowerCase(), v.toLowerCase()));
+            dictionary.addAll(abbreviations.keySet());
+            dictionary.addAll(abbreviations.values());
+
+            // Longest first, so "number" is split off before "num"
+            keySuffixes = config.getKeySuffixes().stream()
+                    .map(String::toLowerCase)
+                    .sorted(Comparator.comparingInt(String::length).reversed())
+                    .toList();
+        }
+
+        /** Singular table name, e.g. {@code tbl_Customers} → {@code customer}. */
+        String tableEntity(String name) {
+            List<String> words = words(name);
+            words.remove("tbl");
+            if (words.isEmpty()) return name.toLowerCase();
+            int last = words.size() - 1;
+            words.set(last, SemanticRelationshipDetector.singularize(words.get(last)));
+            return join(words);
+        }
+
+        /** Entity named by a key column, e.g. {@code CustNo} → {@code customer}; null if not a key name. */
+        String keyEntity(String name) {
+            List<String> words = words(name);
+            if (words.isEmpty()) return null;
+
+            int last = words.size() - 1;
+            String word = words.get(last);
+
+            if (keySuffixes.contains(word)) {
+                words.remove(last);
+            } else {
+                String stem = gluedStem(word);
+                if (stem == null) return null;
+                words.set(last, stem);
+            }
+
+            return words.isEmpty() ? null : join(words);
+        }
+
+        private String gluedStem(String word) {
+            for (String suffix : keySuffixes) {
+                if (!word.endsWith(suffix)) continue;
+                String stem = word.substring(0, word.length() - suffix.length());
+                if (stem.length() >= 3 && (GLUED_SUFFIXES.contains(suffix) || dictionary.contains(stem))) {
+                    return abbreviations.getOrDefault(stem, stem);
+                }
+            }
+            return null;
+        }
+
+        private List<String> words(String name) {
+            List<String> words = new ArrayList<>();
+            StringBuilder word = new StringBuilder();
+
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (!Character.isLetterOrDigit(c)) {
+                    flush(word, words);
+                    continue;
+                }
+                if (word.length() > 0) {
+                    char prev = name.charAt(i - 1);
+                    boolean camel = Character.isLowerCase(prev) && Character.isUpperCase(c);
+                    boolean digits = Character.isDigit(prev) != Character.isDigit(c);
+                    if (camel || digits) flush(word, words);
+                }
+                word.append(Character.toLowerCase(c));
+            }
+            flush(word, words);
+            return words;
+        }
+
+        private void flush(StringBuilder word, List<String> words) {
+            if (word.length() == 0) return;
+            String w = word.toString();
+            words.add(abbreviations.getOrDefault(w, w));
+            word.setLength(0);
+        }
+
+        private static String join(List<String> words) {
+            return String.join("", words);
+        }
+    }
+
+    /**
+     * Trigram inverted index over entity strings. Each entry is one entity
+     * of one target table; its grams are kept as a sorted set of gram ids,
+     * and only its prefix grams are posted.
+     */
+    static class GramIndex {
+
+        private final Map<String, Integer> gramIds = new HashMap<>();
+        private final List<int[]> entryGrams = new ArrayList<>();
+        private final List<Integer> entryTargets = new ArrayList<>();
+        private final Set<String> entryKeys = new HashSet<>();
+
+        // Global gram order: rank 0 is the rarest gram
+        private int[] rank;
+        private List<int[]> postings;
+        private double threshold = -1;
+        private int[] seen;
+        private int stamp;
+
+        void add(String entity, int target) {
+            // The same entity twice for one table adds nothing
+            if (!entryKeys.add(target + ":" + entity)) return;
+
+            Set<String> grams = grams(entity);
+            int[] ids = new int[grams.size()];
+            int n = 0;
+            for (String gram : grams) {
+                ids[n++] = gramIds.computeIfAbsent(gram, k -> gramIds.size());
+            }
+            Arrays.sort(ids);
+            entryGrams.add(ids);
+            entryTargets.add(target);
+        }
+
+        void freeze() {
+            int[] counts = new int[gramIds.size()];
+            for (int[] ids : entryGrams) for (int id : ids) counts[id]++;
+
+            Integer[] order = new Integer[counts.length];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, Comparator.<Integer>comparingInt(id -> counts[id]).thenComparingInt(id -> id));
+
+            rank = new int[counts.length];
+            for (int r = 0; r < order.length; r++) rank[order[r]] = r;
+            seen = new int[entryGrams.size()];
+        }
+
+        int target(int entry) { return entryTargets.get(entry); }
+
+        /**
+         * Posts every entry under its prefix grams for the given threshold.
+         * Built on first search; one threshold is used per detection run.
+         */
+        private void post(double threshold) {
+            this.threshold = threshold;
+
+            List<List<Integer>> lists = new ArrayList<>();
+            for (int i = 0; i < rank.length; i++) lists.add(new ArrayList<>());
+
+            for (int entry = 0; entry < entryGrams.size(); entry++) {
+                int[] byRank = byRank(entryGrams.get(entry));
+                int prefix = byRank.length - minShared(byRank.length, threshold) + 1;
+                for (int p = 0; p < prefix; p++) lists.get(byRank[p]).add(entry);
+            }
+
+            postings = new ArrayList<>(lists.size());
+            for (List<Integer> list : lists) {
+                postings.add(list.stream().mapToInt(Integer::intValue).toArray());
+            }
+        }
+
+        /**
+         * Entries with Dice similarity of at least {@code threshold} to the
+         * entity, as {entry, similarity} pairs.
+         */
+        List<double[]> search(String entity, double threshold) {
+
+            if (threshold != this.threshold) post(threshold);
+
+            Set<String> grams = grams(entity);
+            int[] ids = new int[grams.size()];
+            int unknown = 0;
+            int n = 0;
+            for (String gram : grams) {
+                Integer id = gramIds.get(gram);
+                if (id == null) unknown++;
+                else ids[n++] = id;
+            }
+            ids = Arrays.copyOf(ids, n);
+            int[] byRank = byRank(ids);
+            Arrays.sort(ids);
+
+            // Unseen grams are rarer than any indexed one and lead the probe prefix
+            int size = n + unknown;
+            int prefix = size - minShared(size, threshold) + 1 - unknown;
+
+            int minLength = minShared(size, threshold);
+            int maxLength = (int) Math.floor(size * (2 - threshold) / threshold + 1e-9);
+
+            List<double[]> matches = new ArrayList<>();
+            stamp++;
+
+            for (int p = 0; p < Math.min(prefix, n); p++) {
+                for (int entry : postings.get(byRank[p])) {
+                    if (seen[entry] == stamp) continue;
+                    seen[entry] = stamp;
+
+                    // Dice bounds the size ratio: t/(2-t) <= |a|/|b| <= (2-t)/t
+                    int length = entryGrams.get(entry).length;
+                    if (length < minLength || length > maxLength) continue;
+
+                    double similarity = dice(ids, size, entryGrams.get(entry));
+                    if (similarity >= threshold) matches.add(new double[]{entry, similarity});
+                }
+            }
+            return matches;
+        }
+
+        // Gram ranks of a gram-id set, rarest first
+        private int[] byRank(int[] ids) {
+            int[] ranks = new int[ids.length];
+            for (int i = 0; i < ids.length; i++) ranks[i] = rank[ids[i]];
+            Arrays.sort(ranks);
+            return ranks;
+        }
+
+        // Dice coefficient by merging two sorted gram-id sets
+        private static double dice(int[] probe, int probeSize, int[] grams) {
+            int shared = 0;
+            int i = 0, j = 0;
+            while (i < probe.length && j < grams.length) {
+                if (probe[i] < grams[j]) i++;
+                else if (probe[i] > grams[j]) j++;
+                else { shared++; i++; j++; }
+            }
+            return 2.0 * shared / (probeSize + grams.length);
+        }
+
+        // Trigrams of the entity padded with '#', so short names still have some
+        private static Set<String> grams(String entity) {
+            String padded = "#" + entity + "#";
+            Set<String> grams = new LinkedHashSet<>();
+            for (int i = 0; i + Q <= padded.length(); i++) grams.add(padded.substring(i, i + Q));
+            if (grams.isEmpty()) grams.add(padded);
+            return grams;
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.yogesh.er_scanner.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yogesh.er_scanner.model.*;
 
 import org.springframework.stereotype.Service;
 
-import java.io.File;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -14,20 +18,47 @@ import java.util.stream.Collectors;
 public class GraphExportService {
 
     private final SchemaService schemaService;
+    private final DataSourceRegistry registry;
+    private final RenderCache renderCache;
+    private final DomainMapCache domainMapCache;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    public GraphExportService(SchemaService schemaService) {
+    // Distinguishes this process's export versions from an earlier run's
+    private final String instance = Long.toString(System.currentTimeMillis(), 36);
+
+    public GraphExportService(SchemaService schemaService,
+                              DataSourceRegistry registry,
+                              RenderCache renderCache,
+                              DomainMapCache domainMapCache) {
         this.schemaService = schemaService;
+        this.registry = registry;
+        this.renderCache = renderCache;
+        this.domainMapCache = domainMapCache;
     }
 
     // ============================================================
-    // Cytoscape JSON
+    // Cached renders
     // ============================================================
 
-    public Map<String, Object> getCytoscapeGraph() throws Exception {
+    public RenderCache.Rendered renderCytoscapeGraph(String sourceId) throws Exception {
+        ScanSource source = registry.get(sourceId);
+        CompactSchema schema = schemaService.getCompactSchema(source.getId());
+        DomainMapCache.DomainMap domains = domainMapCache.get(source);
+
+        return renderCache.get(source.getId(), "cytoscape", version(schema, domains), "application/json",
+                () -> objectMapper.writeValueAsBytes(buildCytoscapeGraph(schema.view(), domains)));
+    }
+
+    // Both graphs carry domain names, so a reloaded domains.json changes them too
+    private String version(CompactSchema schema, DomainMapCache.DomainMap domains) {
+        return schema.getVersion() + "-" + domains.getVersion();
+    }
+
+    // ============================================================
+    // Cytoscape JSON
+    // ============================================================
 
-        Schema schema = schemaService.getSchema();
-        Map<String, String> domainMap = loadDomainMap(schema);
+    private Map<String, Object> buildCytoscapeGraph(Schema schema, DomainMapCache.DomainMap domains) {
 
         List<Map<String, Object>> nodes = new ArrayList<>();
         for (Table table : schema.getTables()) {
@@ -35,7 +66,7 @@ public class GraphExportService {
             Map<String, Object> data = new LinkedHashMap<>();
             data.put("id", name);
             data.put("label", name.toUpperCase());
-            data.put("domain", domainMap.getOrDefault(name.toLowerCase(), "Uncategorized"));
+            data.put("domain", domains.domainOf(name, "Uncategorized"));
             data.put("columns", table.getColumns().stream()
                     .map(Column::getName)
                     .collect(Collectors.toList()));
@@ -57,6 +88,8 @@ public class GraphExportService {
             data.put("target", r.getTargetTable());
             data.put("sourceColumn", r.getSourceColumn());
             data.put("targetColumn", r.getTargetColumn());
+            data.put("sourceColumns", r.getSourceKey());
+            data.put("targetColumns", r.getTargetKey());
             data.put("relationshipType",
                     r.getRelationshipType() != null ? r.getRelationshipType().name() : "UNKNOWN");
             data.put("confidence", r.getConfidence());
@@ -76,94 +109,99 @@ public class GraphExportService {
     // GraphML Export
     // ============================================================
 
-    public String getGraphMl() throws Exception {
-
-        Schema schema = schemaService.getSchema();
-        Map<String, String> domainMap = loadDomainMap(schema);
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-        sb.append("<graphml xmlns=\"http://graphml.graphdrawing.org/graphml\"\n");
-        sb.append("         xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n");
-        sb.append("         xsi:schemaLocation=\"http://graphml.graphdrawing.org/graphml\n");
-        sb.append("           http://graphml.graphdrawing.org/graphml/1.0/graphml.xsd\">\n\n");
-
-        // Node attribute keys
-        sb.append("  <key id=\"domain\" for=\"node\" attr.name=\"domain\" attr.type=\"string\"/>\n");
-        sb.append("  <key id=\"tableType\" for=\"node\" attr.name=\"tableType\" attr.type=\"string\"/>\n");
-        sb.append("  <key id=\"columns\" for=\"node\" attr.name=\"columns\" attr.type=\"string\"/>\n");
-
-        // Edge attribute keys
-        sb.append("  <key id=\"relationshipType\" for=\"edge\" attr.name=\"relationshipType\" attr.type=\"string\"/>\n");
-        sb.append("  <key id=\"confidence\" for=\"edge\" attr.name=\"confidence\" attr.type=\"double\"/>\n");
-        sb.append("  <key id=\"sourceColumn\" for=\"edge\" attr.name=\"sourceColumn\" attr.type=\"string\"/>\n");
-        sb.append("  <key id=\"targetColumn\" for=\"edge\" attr.name=\"targetColumn\" attr.type=\"string\"/>\n\n");
+    /**
+     * The GraphML document of the current schema and domains, written on
+     * demand. Nothing is rendered up front, so huge graphs stream with flat
+     * memory; the version identifies the content within and across runs.
+     */
+    public GraphMl getGraphMl(String sourceId) {
+        ScanSource source = registry.get(sourceId);
+        CompactSchema schema = schemaService.getCompactSchema(source.getId());
+        DomainMapCache.DomainMap domains = domainMapCache.get(source);
+        return new GraphMl(instance + "-" + version(schema, domains), schema.view(), domains);
+    }
 
-        sb.append("  <graph id=\"G\" edgedefault=\"directed\">\n\n");
+    public static class GraphMl {
 
-        for (Table table : schema.getTables()) {
-            String name = table.getName();
-            String domain = domainMap.getOrDefault(name.toLowerCase(), "Uncategorized");
-            String cols = table.getColumns().stream()
-                    .map(Column::getName)
-                    .collect(Collectors.joining(","));
+        private final String version;
+        private final Schema schema;
+        private final DomainMapCache.DomainMap domains;
 
-            sb.append("    <node id=\"").append(escapeXml(name)).append("\">\n");
-            sb.append("      <data key=\"domain\">").append(escapeXml(domain)).append("</data>\n");
-            sb.append("      <data key=\"tableType\">business</data>\n");
-            sb.append("      <data key=\"columns\">").append(escapeXml(cols)).append("</data>\n");
-            sb.append("    </node>\n");
+        GraphMl(String version, Schema schema, DomainMapCache.DomainMap domains) {
+            this.version = version;
+            this.schema = schema;
+            this.domains = domains;
         }
 
-        sb.append("\n");
+        public String getVersion() { return version; }
+
+        /** Writes the document as UTF-8; leaves {@code out} open. */
+        public void writeTo(OutputStream out) throws IOException {
+
+            Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+
+            w.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            w.write("<graphml xmlns=\"http://graphml.graphdrawing.org/graphml\"\n");
+            w.write("         xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n");
+            w.write("         xsi:schemaLocation=\"http://graphml.graphdrawing.org/graphml\n");
+            w.write("           http://graphml.graphdrawing.org/graphml/1.0/graphml.xsd\">\n\n");
+
+            // Node attribute keys
+            w.write("  <key id=\"domain\" for=\"node\" attr.name=\"domain\" attr.type=\"string\"/>\n");
+            w.write("  <key id=\"tableType\" for=\"node\" attr.name=\"tableType\" attr.type=\"string\"/>\n");
+            w.write("  <key id=\"columns\" for=\"node\" attr.name=\"columns\" attr.type=\"string\"/>\n");
+
+            // Edge attribute keys
+            w.write("  <key id=\"relationshipType\" for=\"edge\" attr.name=\"relationshipType\" attr.type=\"string\"/>\n");
+            w.write("  <key id=\"confidence\" for=\"edge\" attr.name=\"confidence\" attr.type=\"double\"/>\n");
+            w.write("  <key id=\"sourceColumn\" for=\"edge\" attr.name=\"sourceColumn\" attr.type=\"string\"/>\n");
+            w.write("  <key id=\"targetColumn\" for=\"edge\" attr.name=\"targetColumn\" attr.type=\"string\"/>\n");
+            w.write("  <key id=\"composite\" for=\"edge\" attr.name=\"composite\" attr.type=\"boolean\"/>\n\n");
+
+            w.write("  <graph id=\"G\" edgedefault=\"directed\">\n\n");
+
+            for (Table table : schema.getTables()) {
+                String name = table.getName();
+                String domain = domains.domainOf(name, "Uncategorized");
+                String cols = table.getColumns().stream()
+                        .map(Column::getName)
+                        .collect(Collectors.joining(","));
+
+                w.write("    <node id=\"" + escapeXml(name) + "\">\n");
+                w.write("      <data key=\"domain\">" + escapeXml(domain) + "</data>\n");
+                w.write("      <data key=\"tableType\">business</data>\n");
+                w.write("      <data key=\"columns\">" + escapeXml(cols) + "</data>\n");
+                w.write("    </node>\n");
+            }
 
-        int edgeIdx = 0;
-        for (Relationship r : schema.getRelationships()) {
-            String type = r.getRelationshipType() != null
-                    ? r.getRelationshipType().name() : "UNKNOWN";
-
-            sb.append("    <edge id=\"e").append(edgeIdx++).append("\"");
-            sb.append(" source=\"").append(escapeXml(r.getSourceTable())).append("\"");
-            sb.append(" target=\"").append(escapeXml(r.getTargetTable())).append("\">\n");
-            sb.append("      <data key=\"relationshipType\">").append(type).append("</data>\n");
-            sb.append("      <data key=\"confidence\">").append(r.getConfidence()).append("</data>\n");
-            sb.append("      <data key=\"sourceColumn\">").append(escapeXml(r.getSourceColumn())).append("</data>\n");
-            sb.append("      <data key=\"targetColumn\">").append(escapeXml(r.getTargetColumn())).append("</data>\n");
-            sb.append("    </edge>\n");
-        }
+            w.write("\n");
+
+            int edgeIdx = 0;
+            for (Relationship r : schema.getRelationships()) {
+                String type = r.getRelationshipType() != null
+                        ? r.getRelationshipType().name() : "UNKNOWN";
+
+                w.write("    <edge id=\"e" + edgeIdx++ + "\"");
+                w.write(" source=\"" + escapeXml(r.getSourceTable()) + "\"");
+                w.write(" target=\"" + escapeXml(r.getTargetTable()) + "\">\n");
+                w.write("      <data key=\"relationshipType\">" + type + "</data>\n");
+                w.write("      <data key=\"confidence\">" + r.getConfidence() + "</data>\n");
+                w.write("      <data key=\"sourceColumn\">" + escapeXml(r.getSourceColumn()) + "</data>\n");
+                w.write("      <data key=\"targetColumn\">" + escapeXml(r.getTargetColumn()) + "</data>\n");
+                w.write("      <data key=\"composite\">" + r.isComposite() + "</data>\n");
+                w.write("    </edge>\n");
+            }
 
-        sb.append("\n  </graph>\n</graphml>\n");
-        return sb.toString();
+            w.write("\n  </graph>\n</graphml>\n");
+            w.flush();
+        }
     }
 
     // ============================================================
     // Helpers
     // ============================================================
 
-    private Map<String, String> loadDomainMap(Schema schema) {
-        Map<String, String> tableToDomainsMap = new LinkedHashMap<>();
-
-        File domainsFile = new File("output/domains.json");
-        if (domainsFile.exists()) {
-            try {
-                Map<String, List<String>> domainGroups = objectMapper.readValue(
-                        domainsFile,
-                        new TypeReference<>() {});
-
-                for (Map.Entry<String, List<String>> entry : domainGroups.entrySet()) {
-                    for (String table : entry.getValue()) {
-                        tableToDomainsMap.put(table.toLowerCase(), entry.getKey());
-                    }
-                }
-            } catch (Exception e) {
-                System.err.println("[GraphExportService] Could not read domains.json: " + e.getMessage());
-            }
-        }
-
-        return tableToDomainsMap;
-    }
-
-    private String escapeXml(String s) {
+    private static String escapeXml(String s) {
         if (s == null) return "";
         return s.replace("&", "&amp;")
                 .replace("<", "&lt;")
@@ -0,0 +1,379 @@
+package com.yogesh.er_scanner.service;
+
+import com.yogesh.er_scanner.config.RelationshipConfig;
+import com.yogesh.er_scanner.model.*;
+
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs scans against the previous result, reloading and re-sampling only
+ * tables whose fingerprint changed.
+ *
+ * Table names are discovered first, then the tables go through the
+ * pipeline in batches. For each batch the catalog change tokens and the
+ * metadata of every table are read, and each table is compared by full
+ * fingerprint (structure hash and token), so only tables that really
+ * changed are re-sampled. A token alone never skips the metadata, since
+ * some engines leave it unmoved by in-place DDL. Overlaps are then
+ * recomputed against the cached samples of every other table.
+ *
+ * Batching bounds the catalog and sampling work in flight: sampled rows
+ * are reduced to value fingerprints table by table, and metadata is kept
+ * only for tables that changed. What does grow with the schema is one name
+ * and fingerprint per table and the value fingerprints of re-sampled
+ * tables, since overlap compares them all at once; they are the same data
+ * the scan state retains once the scan commits.
+ */
+@Service
+public class IncrementalScanService {
+
+    private final SchemaScanner schemaScanner;
+    private final DataSampleService dataSampleService;
+    private final SchemaService schemaService;
+    private final RelationshipVerifier relationshipVerifier;
+    private final ColumnProfileStore profileStore;
+    private final CompositeKeyDetector compositeKeyDetector;
+
+    private final Map<String, SourceState> states = new ConcurrentHashMap<>();
+
+    public IncrementalScanService(SchemaScanner schemaScanner,
+                                  DataSampleService dataSampleService,
+                                  SchemaService schemaService,
+                                  RelationshipVerifier relationshipVerifier,
+                                  ColumnProfileStore profileStore,
+                                  CompositeKeyDetector compositeKeyDetector,
+                                  SchemaCache schemaCache) {
+        this.schemaScanner = schemaScanner;
+        this.dataSampleService = dataSampleService;
+        this.schemaService = schemaService;
+        this.relationshipVerifier = relationshipVerifier;
+        this.profileStore = profileStore;
+        this.compositeKeyDetector = compositeKeyDetector;
+
+        // An evicted schema takes its scan state with it; the next scan is full
+        schemaCache.onEviction(states::remove);
+    }
+
+    /**
+     * Validates requested table names against the source's scan scope.
+     *
+     * @throws IllegalArgumentException if a table is outside the scan scope
+     */
+    public Set<String> resolveTables(ScanSource source, Collection<String> requested) {
+        return schemaScanner.resolveTables(source, requested);
+    }
+
+    /**
+     * Rescans all tables in scope and publishes the patched schema.
+     * Scans of different sources run independently.
+     *
+     * @param forcedTables tables to reload and re-sample even if unchanged
+     * @return the tables that were re-sampled
+     */
+    public List<String> scan(ScanSource source,
+                             Set<String> forcedTables,
+                             ScanProgress progress) throws Exception {
+
+        SourceState state = states.computeIfAbsent(source.getId(), k -> new SourceState());
+
+        synchronized (state) {
+            return scan(source, state, forcedTables, progress);
+        }
+    }
+
+    private List<String> scan(ScanSource source,
+                              SourceState state,
+                              Set<String> forcedTables,
+                              ScanProgress progress) throws Exception {
+
+        RelationshipConfig config = source.getRelationshipConfig();
+
+        Map<String, TableFingerprint> fingerprints = state.fingerprints;
+        Map<String, Table> tables = state.tables;
+        Map<String, List<Relationship>> foreignKeys = state.foreignKeys;
+        Map<String, TableSample> samples = state.samples;
+        List<Relationship> sampleRelationships = state.sampleRelationships;
+
+        Set<String> forced = resolveTables(source, forcedTables);
+
+        boolean incremental = config.isIncremental() && !fingerprints.isEmpty();
+
+        // Results are staged and only committed once the scan can no longer
+        // be cancelled, so an aborted scan leaves the previous state intact
+        List<String> changed = new ArrayList<>();
+        Map<String, TableFingerprint> newFingerprints = new HashMap<>();
+        Map<String, Table> newTables = new HashMap<>();
+        Map<String, List<Relationship>> newForeignKeys = new HashMap<>();
+        Map<String, TableSample> newSamples = new HashMap<>();
+
+        // Names are cheap to hold, and knowing them all up front gives a fixed total
+        progress.phase("discovery");
+        List<List<String>> batches = new ArrayList<>();
+        List<String> seen = new ArrayList<>();
+        for (Iterator<List<String>> it = schemaScanner.tableBatches(source, progress); it.hasNext(); ) {
+            List<String> batch = it.next();
+            batches.add(batch);
+            seen.addAll(batch);
+        }
+        progress.tablesTotal(seen.size());
+
+        for (List<String> batch : batches) {
+
+            // ---------- CHANGE TOKENS ----------
+            progress.phase("versions");
+            Map<String, String> versions = schemaScanner.loadTableVersions(source, batch, progress);
+
+            // ---------- RELOAD METADATA ----------
+            // Every table, whatever its token: tokens miss in-place DDL on some
+            // engines, and the set-based catalog queries cost the same per batch
+            progress.phase("metadata");
+            progress.checkCancelled();
+
+            // Foreign keys are kept unfiltered here and scoped at publish,
+            // once the full table set is known
+            Schema reloaded = schemaScanner.scanTables(source, batch, null, progress);
+
+            Map<String, List<Relationship>> bySource = new HashMap<>();
+            for (Relationship r : reloaded.getRelationships()) {
+                bySource.computeIfAbsent(r.getSourceTable(), k -> new ArrayList<>()).add(r);
+            }
+
+            List<String> batchChanged = new ArrayList<>();
+            for (Table table : reloaded.getTables()) {
+
+                String name = table.getName();
+                List<Relationship> fks = bySource.getOrDefault(name, List.of());
+
+                TableFingerprint fingerprint = TableFingerprint.of(
+                        table, fks, versions.get(name.toLowerCase()));
+
+                // The fingerprint holds the token, so a moved token marks the
+                // table changed and re-samples it even with the same structure
+                newFingerprints.put(name, fingerprint);
+
+                if (!incremental
+                        || forced.contains(name.toLowerCase())
+                        || !fingerprint.equals(fingerprints.get(name))) {
+                    batchChanged.add(name);
+                    newTables.put(name, table);
+                    newForeignKeys.put(name, fks);
+                }
+            }
+
+            // ---------- RE-SAMPLE CHANGED ----------
+            if (!batchChanged.isEmpty()) {
+                progress.phase("sampling");
+                List<Table> toProfile = batchChanged.stream().map(newTables::get).toList();
+                newSamples.putAll(dataSampleService.profileTables(
+                        source, toProfile, loadProfiles(source, toProfile, newFingerprints, forced), progress));
+            }
+
+            for (int i = 0; i < batch.size(); i++) progress.tableDone();
+
+            changed.addAll(batchChanged);
+        }
+
+        Set<String> removed = new HashSet<>(tables.keySet());
+        removed.removeAll(seen);
+
+        if (incremental && changed.isEmpty() && removed.isEmpty()) {
+            // Every fingerprint, token included, matched the stored one
+            fingerprints.putAll(newFingerprints);
+            System.out.println("[IncrementalScanService] " + source.getId()
+                    + ": no table changes detected.");
+            return changed;
+        }
+
+        // ---------- OVERLAP ----------
+        progress.phase("overlap");
+        progress.checkCancelled();
+
+        Map<String, TableSample> ordered = new LinkedHashMap<>();
+        for (String table : seen) {
+            ordered.put(table, newSamples.containsKey(table)
+                    ? newSamples.get(table)
+                    : samples.get(table));
+        }
+
+        Map<String, Table> known = new HashMap<>(tables);
+        known.putAll(newTables);
+
+        // ---------- ADAPTIVE SAMPLING ----------
+        if (config.getSampling().isAdaptive() && !changed.isEmpty()) {
+            progress.phase("adaptive sampling");
+
+            Map<String, TableSample> refined = dataSampleService.refineSamples(
+                    source, ordered, new HashSet<>(changed), known, progress);
+            ordered.putAll(refined);
+            newSamples.putAll(refined);
+            progress.phase("overlap");
+        }
+
+        Set<String> dirty = new HashSet<>(changed);
+        dirty.addAll(removed);
+
+        List<Relationship> newSampleRelationships = new ArrayList<>(sampleRelationships);
+        newSampleRelationships.removeIf(r ->
+                dirty.contains(r.getSourceTable()) || dirty.contains(r.getTargetTable()));
+        List<Relationship> candidates = dataSampleService.computeOverlap(
+                ordered, new HashSet<>(changed), config);
+
+        // ---------- COMPOSITE KEYS ----------
+        if (config.getCompositeKeys().isEnabled() && !changed.isEmpty()) {
+            progress.phase("composite keys");
+            candidates = new ArrayList<>(candidates);
+            candidates.addAll(compositeKeyDetector.detect(
+                    source, ordered, known, new HashSet<>(changed), progress));
+        }
+
+        // ---------- VERIFY ----------
+        // Only new candidates; retained ones were verified when they were found
+        if (config.getVerification().isEnabled()) {
+            progress.phase("verification");
+            candidates = relationshipVerifier.verify(source, candidates, known, ordered, progress);
+        }
+        newSampleRelationships.addAll(candidates);
+
+        // Same pair order a full scan would produce
+        Map<String, Integer> position = new HashMap<>();
+        for (String table : seen) position.put(table, position.size());
+        newSampleRelationships.sort(Comparator
+                .comparingInt((Relationship r) -> position.get(r.getSourceTable()))
+                .thenComparingInt(r -> position.get(r.getTargetTable())));
+
+        progress.checkCancelled();
+
+        // ---------- COMMIT ----------
+        fingerprints.putAll(newFingerprints);
+        tables.putAll(newTables);
+        foreignKeys.putAll(newForeignKeys);
+        samples.putAll(newSamples);
+        for (String table : removed) {
+            fingerprints.remove(table);
+            tables.remove(table);
+            foreignKeys.remove(table);
+            samples.remove(table);
+        }
+        sampleRelationships.clear();
+        sampleRelationships.addAll(newSampleRelationships);
+
+        if (config.getProfileCache().isEnabled()) {
+            saveProfiles(source, state, newSamples.keySet(), removed);
+        }
+
+        // ---------- PUBLISH ----------
+        progress.phase("publish");
+
+        schemaService.buildSchema(
+                source,
+                assembleMetadata(seen, tables, foreignKeys),
+                new ArrayList<>(sampleRelationships));
+
+        System.out.println("[IncrementalScanService] " + source.getId() + ": re-sampled "
+                + changed.size() + " of " + seen.size() + " tables.");
+
+        return changed;
+    }
+
+    /**
+     * Reusable column profiles of the given tables from earlier scans, also
+     * across restarts. Forced tables are always sampled afresh.
+     */
+    private Map<String, TableSample> loadProfiles(ScanSource source,
+                                                  List<Table> toProfile,
+                                                  Map<String, TableFingerprint> fingerprints,
+                                                  Set<String> forced) {
+
+        if (!source.getRelationshipConfig().getProfileCache().isEnabled()) return Map.of();
+
+        Map<String, TableSample> cached = new HashMap<>();
+        for (Table table : toProfile) {
+            if (forced.contains(table.getName().toLowerCase())) continue;
+            TableSample sample = profileStore.load(source, table, fingerprints.get(table.getName()));
+            if (sample != null) cached.put(table.getName(), sample);
+        }
+
+        if (!cached.isEmpty()) {
+            System.out.println("[IncrementalScanService] " + source.getId() + ": reusing cached profiles for "
+                    + cached.size() + " of " + toProfile.size() + " tables.");
+        }
+        return cached;
+    }
+
+    /**
+     * Persists the samples taken by this scan. A cache write failure only
+     * costs a re-sample later, so it never fails the scan.
+     */
+    private void saveProfiles(ScanSource source,
+                              SourceState state,
+                              Set<String> sampled,
+                              Set<String> removed) {
+        for (String table : sampled) {
+            try {
+                profileStore.save(source, state.tables.get(table),
+                        state.fingerprints.get(table), state.samples.get(table));
+            } catch (Exception e) {
+                System.err.println("[IncrementalScanService] Could not cache profiles of "
+                        + table + ": " + e.getMessage());
+            }
+        }
+        for (String table : removed) profileStore.remove(source, table);
+        profileStore.evict(source);
+    }
+
+    /**
+     * Builds the metadata schema for the scanned table set, keeping only
+     * foreign keys whose target is part of it.
+     */
+    private Schema assembleMetadata(List<String> scanned,
+                                    Map<String, Table> tables,
+                                    Map<String, List<Relationship>> foreignKeys) {
+
+        Map<String, String> byLower = new HashMap<>();
+        for (String table : scanned) byLower.put(table.toLowerCase(), table);
+
+        List<Table> orderedTables = new ArrayList<>();
+        List<Relationship> strict = new ArrayList<>();
+
+        for (String name : scanned) {
+
+            Table table = tables.get(name);
+            Set<String> fkColumns = new HashSet<>();
+
+            for (Relationship r : foreignKeys.get(name)) {
+                String target = byLower.get(r.getTargetTable().toLowerCase());
+                if (target == null) continue;
+
+                for (String column : r.getSourceKey()) fkColumns.add(column.toLowerCase());
+                strict.add(new Relationship(
+                        r.getSourceTable(), r.getSourceKey(),
+                        target, r.getTargetKey(),
+                        r.getRelationshipType(), r.getConfidence()));
+            }
+
+            // A column only counts as FK if it references a scanned table
+            for (Column c : table.getColumns()) {
+                c.setForeignKey(fkColumns.contains(c.getName().toLowerCase()));
+            }
+
+            orderedTables.add(table);
+        }
+
+        return new Schema(orderedTables, strict);
+    }
+
+    /**
+     * State of the last published scan of one source, keyed by table name.
+     */
+    private static class SourceState {
+
+        final Map<String, TableFingerprint> fingerprints = new HashMap<>();
+        final Map<String, Table> tables = new HashMap<>();
+        final Map<String, List<Relationship>> foreignKeys = new HashMap<>();
+        final Map<String, TableSample> samples = new HashMap<>();
+        final List<Relationship> sampleRelationships = new ArrayList<>();
+    }
+}
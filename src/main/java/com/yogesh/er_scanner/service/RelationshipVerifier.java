@@ -0,0 +1,225 @@
+package com.yogesh.er_scanner.service;
+
+import com.yogesh.er_scanner.config.RelationshipConfig;
+import com.yogesh.er_scanner.db.ColumnStatistics;
+import com.yogesh.er_scanner.db.DatabaseDialect;
+import com.yogesh.er_scanner.model.*;
+
+import org.springframework.stereotype.Service;
+
+import java.sql.*;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Checks sample-based candidates against the full tables.
+ *
+ * Each candidate is checked in both directions with a bounded anti-join:
+ * up to maxDistinct distinct values of one side are looked up in the other,
+ * or distinct key tuples for composite candidates.
+ * The candidate keeps its direction unless the reverse is clearly better
+ * contained and only the reverse points at a key: a true foreign key with
+ * a few orphans must not turn around. Candidates of one batch share a single UNION ALL statement, and batches
+ * run in parallel on the source's scan workers.
+ */
+@Service
+public class RelationshipVerifier {
+
+    // Containment the reverse direction must win by before a candidate is turned around
+    private static final double FLIP_MARGIN = 0.1;
+
+    /**
+     * Returns the candidates with verified ones replaced by their checked
+     * version; candidates whose containment falls below the DATA_SAMPLE band
+     * are dropped. Candidates outside the configured band, or whose batch
+     * failed or timed out, are returned unchanged.
+     *
+     * @param tables  table metadata by name, for declared primary keys
+     * @param samples samples by name, for sampled or statistics uniqueness
+     */
+    public List<Relationship> verify(ScanSource source,
+                                     List<Relationship> candidates,
+                                     Map<String, Table> tables,
+                                     Map<String, TableSample> samples,
+                                     ScanProgress progress) throws Exception {
+
+        RelationshipConfig.Verification config = source.getRelationshipConfig().getVerification();
+        double minUniqueness = source.getRelationshipConfig().getPruning().getMinKeyUniqueness();
+        if (!config.isEnabled() || candidates.isEmpty()) return candidates;
+
+        List<Relationship> selected = candidates.stream()
+                .filter(r -> r.getConfidence() >= config.getMinConfidence()
+                        && r.getConfidence() <= config.getMaxConfidence())
+                .toList();
+
+        List<List<Relationship>> batches = new ArrayList<>();
+        for (int from = 0; from < selected.size(); from += config.getBatchSize()) {
+            batches.add(selected.subList(from,
+                    Math.min(from + config.getBatchSize(), selected.size())));
+        }
+
+        DatabaseDialect dialect = source.getDialect();
+
+        List<List<Relationship>> verified = source.getScanExecutor().map(batches, batch -> {
+            progress.checkCancelled();
+            try (Connection conn = source.getConnection(progress)) {
+                return verifyBatch(conn, dialect, batch, config,
+                        r -> keyLike(r.getSourceTable(), r.getSourceKey(), tables, samples, minUniqueness),
+                        r -> keyLike(r.getTargetTable(), r.getTargetKey(), tables, samples, minUniqueness),
+                        progress);
+            }
+        });
+
+        Map<Relationship, Relationship> outcome = new IdentityHashMap<>();
+        for (int b = 0; b < batches.size(); b++) {
+            for (int i = 0; i < batches.get(b).size(); i++) {
+                outcome.put(batches.get(b).get(i), verified.get(b).get(i));
+            }
+        }
+
+        List<Relationship> result = new ArrayList<>();
+        int dropped = 0;
+        for (Relationship r : candidates) {
+            Relationship checked = outcome.containsKey(r) ? outcome.get(r) : r;
+            if (checked != null) result.add(checked);
+            else dropped++;
+        }
+
+        System.out.println("[RelationshipVerifier] " + source.getId() + ": verified "
+                + selected.size() + " candidates in " + batches.size()
+                + " statements, dropped " + dropped);
+
+        return result;
+    }
+
+    /** Returns one entry per candidate: verified, null when rejected, or unchanged. */
+    private List<Relationship> verifyBatch(Connection conn,
+                                           DatabaseDialect dialect,
+                                           List<Relationship> batch,
+                                           RelationshipConfig.Verification config,
+                                           Predicate<Relationship> sourceKeyLike,
+                                           Predicate<Relationship> targetKeyLike,
+                                           ScanProgress progress) throws Exception {
+
+        // key 2i checks source values in target, 2i+1 the reverse
+        List<String> parts = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Relationship r = batch.get(i);
+            parts.add(dialect.getContainmentQuery(2 * i,
+                    r.getSourceTable(), r.getSourceKey(),
+                    r.getTargetTable(), r.getTargetKey(), config.getMaxDistinct()));
+            parts.add(dialect.getContainmentQuery(2 * i + 1,
+                    r.getTargetTable(), r.getTargetKey(),
+                    r.getSourceTable(), r.getSourceKey(), config.getMaxDistinct()));
+        }
+
+        long[] checked = new long[2 * batch.size()];
+        long[] orphans = new long[2 * batch.size()];
+
+        try (Statement st = conn.createStatement()) {
+
+            st.setQueryTimeout(config.getQueryTimeoutSeconds());
+
+            try (ResultSet rs = st.executeQuery(String.join(" UNION ALL ", parts))) {
+                while (rs.next()) {
+                    int key = rs.getInt(1);
+                    checked[key] = rs.getLong(2);
+                    orphans[key] = rs.getLong(3);
+                }
+            }
+
+        } catch (SQLException e) {
+            progress.checkCancelled();
+            // A timeout or type mismatch leaves the batch unverified, not the scan failed
+            System.err.println("[RelationshipVerifier] Batch of " + batch.size()
+                    + " candidates not verified: " + e.getMessage());
+            return batch;
+        }
+
+        List<Relationship> result = new ArrayList<>();
+
+        for (int i = 0; i < batch.size(); i++) {
+
+            Relationship r = batch.get(i);
+            double forward = containment(checked[2 * i], orphans[2 * i]);
+            double reverse = containment(checked[2 * i + 1], orphans[2 * i + 1]);
+
+            // Turn around only on a clear margin, and only onto a key from a non-key
+            boolean flip = reverse >= Math.max(forward, 0) + FLIP_MARGIN
+                    && sourceKeyLike.test(r)
+                    && !targetKeyLike.test(r);
+
+            // Nothing checked in the kept direction leaves the candidate unverified
+            if (!flip && forward < 0) {
+                result.add(r);
+                continue;
+            }
+
+            int key = flip ? 2 * i + 1 : 2 * i;
+            double containment = flip ? reverse : forward;
+
+            if (containment < 0.6) {
+                result.add(null);
+                continue;
+            }
+
+            Relationship v = flip
+                    ? new Relationship(r.getTargetTable(), r.getTargetKey(),
+                    r.getSourceTable(), r.getSourceKey(),
+                    bandOf(containment), containment)
+                    : new Relationship(r.getSourceTable(), r.getSourceKey(),
+                    r.getTargetTable(), r.getTargetKey(),
+                    bandOf(containment), containment);
+
+            v.setContainment(containment);
+            v.setOrphanRatio((double) orphans[key] / checked[key]);
+            result.add(v);
+        }
+
+        return result;
+    }
+
+    /**
+     * Whether {@code key} is the table's declared primary key, or a single
+     * column unique enough in its sample or statistics to be referenced.
+     */
+    private static boolean keyLike(String table,
+                                   List<String> key,
+                                   Map<String, Table> tables,
+                                   Map<String, TableSample> samples,
+                                   double minUniqueness) {
+
+        Table t = tables.get(table);
+        if (t != null) {
+            Set<String> primaryKey = new HashSet<>();
+            for (Column c : t.getColumns()) {
+                if (c.isPrimaryKey()) primaryKey.add(c.getName().toLowerCase());
+            }
+            Set<String> columns = new HashSet<>();
+            for (String c : key) columns.add(c.toLowerCase());
+            if (!primaryKey.isEmpty() && primaryKey.equals(columns)) return true;
+        }
+
+        TableSample sample = samples.get(table);
+        if (sample == null || key.size() != 1) return false;
+
+        for (Map.Entry<String, ColumnSummary> e : sample.getColumnSummaries().entrySet()) {
+            if (e.getKey().equalsIgnoreCase(key.get(0)) && e.getValue().getShape() != null) {
+                return e.getValue().getShape().getUniqueness() >= minUniqueness;
+            }
+        }
+        for (ColumnStatistics stats : sample.getColumnStatistics().values()) {
+            if (stats.getColumn().equalsIgnoreCase(key.get(0))) return stats.isKeyLike();
+        }
+        return false;
+    }
+
+    /** Share of checked values found on the other side, or -1 when nothing was checked. */
+    private double containment(long checked, long orphans) {
+        return checked == 0 ? -1 : 1.0 - (double) orphans / checked;
+    }
+
+    private RelationshipType bandOf(double containment) {
+        return containment >= 0.9 ? RelationshipType.DATA_INFERRED : RelationshipType.DATA_SAMPLE;
+    }
+}
@@ -0,0 +1,149 @@
+package com.yogesh.er_scanner.service;
+
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Rendered outputs (Mermaid and Cytoscape JSON) per source and format,
+ * kept as bytes until the inputs they were rendered from change.
+ *
+ * Callers pass the version of those inputs, normally the published schema
+ * version; a different version re-renders and replaces the entry. Each
+ * render gets a strong ETag from a digest of its bytes, so an ETag stays
+ * valid across restarts exactly as long as the content does.
+ */
+@Service
+public class RenderCache {
+
+    private final Map<String, Rendered> entries = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public RenderCache(SchemaCache schemaCache) {
+        schemaCache.onEviction(this::invalidate);
+    }
+
+    /**
+     * The cached render of {@code format} for {@code version}, rendering it
+     * first if missing or rendered from another version.
+     */
+    public Rendered get(String sourceId,
+                        String format,
+                        String version,
+                        String contentType,
+                        Renderer renderer) throws Exception {
+
+        String key = sourceId + "|" + format;
+
+        Rendered cached = entries.get(key);
+        if (cached != null && cached.version.equals(version)) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        // Concurrent misses of one key render once; others wait for the result
+        Exception[] failure = new Exception[1];
+        Rendered rendered = entries.compute(key, (k, current) -> {
+            if (current != null && current.version.equals(version)) return current;
+            misses.incrementAndGet();
+            try {
+                return new Rendered(version, contentType, renderer.render());
+            } catch (Exception e) {
+                failure[0] = e;
+                return current;
+            }
+        });
+
+        if (failure[0] != null) throw failure[0];
+        return rendered;
+    }
+
+    /** Drops every render of {@code sourceId}. */
+    public void invalidate(String sourceId) {
+        entries.keySet().removeIf(key -> key.startsWith(sourceId + "|"));
+    }
+
+    public Map<String, Object> stats() {
+
+        long bytes = 0;
+        for (Rendered r : entries.values()) bytes += r.retainedBytes();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("entries", entries.size());
+        stats.put("bytes", bytes);
+        return stats;
+    }
+
+    @FunctionalInterface
+    public interface Renderer {
+        byte[] render() throws Exception;
+    }
+
+    /** One rendered output, with its gzip encoding made on first request. */
+    public static class Rendered {
+
+        private final String version;
+        private final String contentType;
+        private final byte[] bytes;
+        private final String etag;
+        private volatile byte[] gzip;
+
+        Rendered(String version, String contentType, byte[] bytes) {
+            this.version = version;
+            this.contentType = contentType;
+            this.bytes = bytes;
+            this.etag = digest(bytes);
+        }
+
+        public String getContentType() { return contentType; }
+        public byte[] getBytes() { return bytes; }
+
+        /** Strong ETag of the identity or gzip encoding, quoted. */
+        public String getEtag(boolean gzipped) {
+            return "\"" + etag + (gzipped ? "-gz" : "") + "\"";
+        }
+
+        public byte[] getGzip() {
+            byte[] g = gzip;
+            if (g == null) {
+                synchronized (this) {
+                    if (gzip == null) gzip = compress(bytes);
+                    g = gzip;
+                }
+            }
+            return g;
+        }
+
+        long retainedBytes() {
+            byte[] g = gzip;
+            return bytes.length + (g == null ? 0 : g.length);
+        }
+
+        private static String digest(byte[] bytes) {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+                return HexFormat.of().formatHex(hash, 0, 16);
+            } catch (Exception e) {
+                throw new IllegalStateException("SHA-256 unavailable", e);
+            }
+        }
+
+        private static byte[] compress(byte[] bytes) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+            try (GZIPOutputStream gz = new GZIPOutputStream(out, 1 << 16)) {
+                gz.write(bytes);
+            } catch (Exception e) {
+                throw new IllegalStateException("gzip failed", e);
+            }
+            return out.toByteArray();
+        }
+    }
+}
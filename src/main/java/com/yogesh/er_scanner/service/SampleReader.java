@@ -0,0 +1,344 @@
+package com.yogesh.er_scanner.service;
+
+import com.yogesh.er_scanner.overlap.TypeFamily;
+import com.yogesh.er_scanner.overlap.ValueFingerprint;
+import com.yogesh.er_scanner.overlap.ValueShape;
+import com.yogesh.er_scanner.util.LongHashSet;
+import com.yogesh.er_scanner.util.SortedLongSet;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads sample rows into per-column fingerprint buffers.
+ *
+ * Column names, types and the getter to use are resolved once from the
+ * result metadata. Rows are then read with typed getters, and integral
+ * numbers go from {@code getLong} straight to a fingerprint, so the per-row
+ * path allocates nothing for them. Buffers outlive a single query, so
+ * several rounds of rows can be read into the same reader.
+ */
+class SampleReader {
+
+    private static final int LONG = 0;
+    private static final int DECIMAL = 1;
+    private static final int DOUBLE = 2;
+    private static final int TIMESTAMP = 3;
+    private static final int STRING = 4;
+
+    // Buffers start small and grow; most columns hold far fewer distinct values than rows
+    private static final int INITIAL_BUFFER = 1024;
+
+    // LinkedHashMaps keep columns in select-list order
+    private final Map<String, ColumnBuffer> buffers = new LinkedHashMap<>();
+    private final Map<String, Integer> columnTypes = new LinkedHashMap<>();
+
+    private int[] indexes = new int[0];
+    private int[] readers = new int[0];
+    private TypeFamily[] families = new TypeFamily[0];
+    private ColumnBuffer[] targets = new ColumnBuffer[0];
+    private int flagOffset;
+
+    private long rows;
+
+    /**
+     * Binds the reader to one result set. With {@code valueColumns} &gt; 0 the
+     * result carries that many values followed by one membership flag each,
+     * and a value only counts when its flag is non-zero.
+     */
+    void bind(ResultSetMetaData meta,
+              int valueColumns,
+              Set<String> skipColumns,
+              int sampleSize) throws Exception {
+
+        int colCount = valueColumns > 0 ? valueColumns : meta.getColumnCount();
+        flagOffset = valueColumns;
+
+        int[] idx = new int[colCount];
+        int[] rdr = new int[colCount];
+        TypeFamily[] fam = new TypeFamily[colCount];
+        ColumnBuffer[] tgt = new ColumnBuffer[colCount];
+        int n = 0;
+
+        // Collect type info and filter system columns before reading rows
+        for (int i = 1; i <= colCount; i++) {
+            String col = meta.getColumnName(i);
+            if (skipColumns.contains(col.toUpperCase())) continue;
+
+            int type = meta.getColumnType(i);
+            idx[n] = i;
+            rdr[n] = readerFor(type, meta.getColumnTypeName(i), meta.getPrecision(i), meta.getScale(i));
+            fam[n] = TypeFamily.of(type);
+            tgt[n] = buffers.computeIfAbsent(col,
+                    k -> new ColumnBuffer(Math.min(sampleSize, INITIAL_BUFFER)));
+            columnTypes.putIfAbsent(col, type);
+            n++;
+        }
+
+        indexes = Arrays.copyOf(idx, n);
+        readers = Arrays.copyOf(rdr, n);
+        families = Arrays.copyOf(fam, n);
+        targets = Arrays.copyOf(tgt, n);
+    }
+
+    /** Reads every remaining row of {@code rs}; returns the number read. */
+    long readAll(ResultSet rs) throws Exception {
+        long read = 0;
+        while (rs.next()) {
+            readRow(rs);
+            read++;
+        }
+        rows += read;
+        return read;
+    }
+
+    private void readRow(ResultSet rs) throws Exception {
+
+        for (int k = 0; k < indexes.length; k++) {
+
+            int index = indexes[k];
+            if (flagOffset > 0 && rs.getInt(flagOffset + index) == 0) continue;
+
+            ColumnBuffer target = targets[k];
+            target.rows++;
+
+            long fingerprint;
+            switch (readers[k]) {
+                case LONG: {
+                    long v = rs.getLong(index);
+                    if (rs.wasNull()) {
+                        target.nulls++;
+                        continue;
+                    }
+                    target.range(v);
+                    fingerprint = ValueFingerprint.ofLong(v);
+                    break;
+                }
+                case DECIMAL: {
+                    BigDecimal v = rs.getBigDecimal(index);
+                    if (v == null) {
+                        target.nulls++;
+                        continue;
+                    }
+                    target.range(v);
+                    if (v.scale() > 0 && v.stripTrailingZeros().scale() > 0) target.fractionalValues++;
+                    fingerprint = ValueFingerprint.ofDecimal(v);
+                    break;
+                }
+                case DOUBLE: {
+                    double v = rs.getDouble(index);
+                    if (rs.wasNull()) {
+                        target.nulls++;
+                        continue;
+                    }
+                    target.range(v);
+                    if (v != Math.rint(v)) target.fractionalValues++;
+                    fingerprint = ValueFingerprint.ofDouble(v);
+                    break;
+                }
+                case TIMESTAMP: {
+                    Timestamp v = rs.getTimestamp(index);
+                    if (v == null) {
+                        target.nulls++;
+                        continue;
+                    }
+                    target.range(v);
+                    fingerprint = ValueFingerprint.ofDateTime(v.toLocalDateTime());
+                    break;
+                }
+                default: {
+                    String v = rs.getString(index);
+                    if (v == null) {
+                        target.nulls++;
+                        continue;
+                    }
+                    target.range(v);
+                    if (families[k] == TypeFamily.STRING) {
+                        target.text(v);
+                        fingerprint = ValueFingerprint.ofString(v);
+                    } else {
+                        fingerprint = ValueFingerprint.of(v, families[k]);
+                    }
+                }
+            }
+
+            target.values.add(fingerprint);
+        }
+    }
+
+    long getRows() { return rows; }
+
+    /**
+     * Freezes the buffers; cardinality-1 columns are dropped from the values
+     * but keep their summary, so they still count as profiled.
+     */
+    TableSample toSample() {
+
+        long now = System.currentTimeMillis();
+
+        // Drop cardinality-1 columns — single unique value means no discriminating power
+        Map<String, SortedLongSet> columnValues = new LinkedHashMap<>();
+        Map<String, ColumnSummary> summaries = new LinkedHashMap<>();
+        buffers.forEach((col, buffer) -> {
+            if (buffer.values.size() > 1) columnValues.put(col, SortedLongSet.of(buffer.values));
+            summaries.put(col, buffer.summary(now));
+        });
+
+        return new TableSample(columnValues, new LinkedHashMap<>(columnTypes), Map.of(), summaries, rows);
+    }
+
+    /**
+     * Fingerprints plus null count, value range and shape of one column.
+     * Integral bounds are tracked as primitives; other bounds keep the
+     * boundary value.
+     */
+    private static class ColumnBuffer {
+
+        final LongHashSet values;
+        long rows;
+        long nulls;
+
+        boolean hasLong;
+        long longMin;
+        long longMax;
+        Comparable<Object> min;
+        Comparable<Object> max;
+
+        // String shape, measured without the trailing blanks fingerprints ignore
+        int minLength = Integer.MAX_VALUE;
+        int maxLength;
+        long totalLength;
+        long digitValues;
+        long spacedValues;
+        long fractionalValues;
+
+        ColumnBuffer(int capacity) {
+            values = new LongHashSet(capacity);
+        }
+
+        void range(long v) {
+            if (!hasLong || v < longMin) longMin = v;
+            if (!hasLong || v > longMax) longMax = v;
+            hasLong = true;
+        }
+
+        void range(double v) {
+            if (min == null || v < (Double) (Object) min) min = cast(v);
+            if (max == null || v > (Double) (Object) max) max = cast(v);
+        }
+
+        void range(Object v) {
+            if (min == null || min.compareTo(v) > 0) min = cast(v);
+            if (max == null || max.compareTo(v) < 0) max = cast(v);
+        }
+
+        void text(String v) {
+            int end = v.length();
+            while (end > 0 && v.charAt(end - 1) == ' ') end--;
+
+            boolean digits = end > 0;
+            boolean spaced = false;
+            for (int i = 0; i < end; i++) {
+                char c = v.charAt(i);
+                if (c < '0' || c > '9') digits = false;
+                if (Character.isWhitespace(c)) spaced = true;
+            }
+
+            if (end < minLength) minLength = end;
+            if (end > maxLength) maxLength = end;
+            totalLength += end;
+            if (digits) digitValues++;
+            if (spaced) spacedValues++;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Comparable<Object> cast(Object v) {
+            return (Comparable<Object>) v;
+        }
+
+        ColumnSummary summary(long profiledAt) {
+            String lo = hasLong ? Long.toString(longMin) : text(min);
+            String hi = hasLong ? Long.toString(longMax) : text(max);
+            return new ColumnSummary(values.size(), nulls, rows, lo, hi, profiledAt, shape());
+        }
+
+        private ValueShape shape() {
+            long nonNull = rows - nulls;
+            double low = hasLong ? longMin : min instanceof Number n ? n.doubleValue() : Double.NaN;
+            double high = hasLong ? longMax : max instanceof Number n ? n.doubleValue() : Double.NaN;
+            boolean text = maxLength > 0;
+            return new ValueShape(
+                    nonNull,
+                    nonNull == 0 ? 0 : (double) values.size() / nonNull,
+                    low, high,
+                    text ? minLength : 0,
+                    maxLength,
+                    nonNull == 0 ? 0 : (double) totalLength / nonNull,
+                    digitValues, spacedValues, fractionalValues);
+        }
+
+        private static String text(Object v) {
+            if (v instanceof Timestamp t) return t.toLocalDateTime().toString();
+            if (v instanceof BigDecimal d) return d.toPlainString();
+            return v == null ? null : v.toString();
+        }
+    }
+
+    /**
+     * Fingerprint of one value read with the given getter, without the
+     * range and shape bookkeeping. Check {@code rs.wasNull()} afterwards.
+     */
+    static long fingerprint(ResultSet rs, int index, int reader, TypeFamily family) throws Exception {
+        switch (reader) {
+            case LONG:
+                return ValueFingerprint.ofLong(rs.getLong(index));
+            case DECIMAL: {
+                BigDecimal v = rs.getBigDecimal(index);
+                return v == null ? 0 : ValueFingerprint.ofDecimal(v);
+            }
+            case DOUBLE:
+                return ValueFingerprint.ofDouble(rs.getDouble(index));
+            case TIMESTAMP: {
+                Timestamp v = rs.getTimestamp(index);
+                return v == null ? 0 : ValueFingerprint.ofDateTime(v.toLocalDateTime());
+            }
+            default: {
+                String v = rs.getString(index);
+                if (v == null) return 0;
+                return family == TypeFamily.STRING ? ValueFingerprint.ofString(v) : ValueFingerprint.of(v, family);
+            }
+        }
+    }
+
+    static int readerFor(int type, String typeName, int precision, int scale) {
+        switch (type) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return LONG;
+            case Types.BIGINT:
+                // BIGINT UNSIGNED can exceed Long.MAX_VALUE
+                return typeName != null && typeName.toUpperCase().contains("UNSIGNED") ? DECIMAL : LONG;
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                // NUMBER(p,0) with p <= 18 fits a long; unconstrained NUMBER does not
+                return scale == 0 && precision > 0 && precision <= 18 ? LONG : DECIMAL;
+            case Types.FLOAT:
+            case Types.DOUBLE:
+            case Types.REAL:
+                return DOUBLE;
+            case Types.DATE:
+            case Types.TIMESTAMP:
+                return TIMESTAMP;
+            default:
+                return STRING;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.yogesh.er_scanner.service;
+
+import com.yogesh.er_scanner.config.RelationshipConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded worker pool for one source's scan pipeline.
+ *
+ * Each task is expected to borrow its own pooled Connection, so
+ * relationship.parallelism should not exceed the Hikari maximum-pool-size.
+ * Results are always returned in input order, which keeps merged output
+ * stable no matter which worker finishes first.
+ */
+public class ScanExecutor {
+
+    @FunctionalInterface
+    public interface Task<I, O> {
+        O apply(I input) throws Exception;
+    }
+
+    private final int parallelism;
+    private final ExecutorService executor;
+
+    public ScanExecutor(RelationshipConfig config) {
+        this.parallelism = Math.max(1, config.getParallelism());
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = parallelism > 1
+                ? Executors.newFixedThreadPool(parallelism, r -> {
+                    Thread t = new Thread(r, "scan-worker-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                })
+                : null;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Runs the task for every input and returns outputs in input order.
+     * The first failure cancels the remaining tasks and is rethrown.
+     */
+    public <I, O> List<O> map(List<I> inputs, Task<I, O> task) throws Exception {
+
+        List<O> results = new ArrayList<>(inputs.size());
+
+        if (executor == null || inputs.size() <= 1) {
+            for (I input : inputs) {
+                results.add(task.apply(input));
+            }
+            return results;
+        }
+
+        List<Future<O>> futures = new ArrayList<>(inputs.size());
+        for (I input : inputs) {
+            futures.add(executor.submit(() -> task.apply(input)));
+        }
+
+        try {
+            for (Future<O> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception ex) throw ex;
+            throw e;
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+
+        return results;
+    }
+
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.yogesh.er_scanner.service;
+
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * One background scan. Tracks phase timings and table counts for the
+ * status endpoints, and holds the statements a cancel has to interrupt.
+ */
+public class ScanJob implements ScanProgress {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    // Per-table updates are coalesced so SSE clients are not flooded on huge scans
+    private static final long NOTIFY_INTERVAL_MS = 250;
+
+    private final String id;
+    private final String sourceId;
+    private final Set<String> tables;
+    private final long submittedAt = System.currentTimeMillis();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile String phase;
+    private volatile long phaseStartedAt;
+    private volatile int tablesTotal;
+    private volatile int tablesDone;
+    private volatile long rowsRead;
+    private volatile int fullScans;
+    private volatile long rowsScanned;
+    private volatile int samplingRounds;
+    private volatile long finishedAt;
+    private volatile String message;
+    private volatile boolean cancelled;
+    private volatile Future<?> future;
+    private volatile long lastNotifiedAt;
+
+    private final Map<String, Long> rowsByTable = new LinkedHashMap<>();
+    private final Map<String, Long> phaseMillis = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+    private final List<Consumer<Map<String, Object>>> listeners = new CopyOnWriteArrayList<>();
+
+    public ScanJob(String id, String sourceId, Set<String> tables) {
+        this.id = id;
+        this.sourceId = sourceId;
+        this.tables = tables;
+    }
+
+    public String getId() { return id; }
+    public String getSourceId() { return sourceId; }
+    public Set<String> getTables() { return tables; }
+    public Status getStatus() { return status; }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED
+                || status == Status.FAILED
+                || status == Status.CANCELLED;
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    // ============================================================
+    // Lifecycle
+    // ============================================================
+
+    void started() {
+        status = Status.RUNNING;
+        notifyListeners(true);
+    }
+
+    void completed(String message) {
+        finish(Status.COMPLETED, message);
+    }
+
+    void failed(String message) {
+        finish(cancelled ? Status.CANCELLED : Status.FAILED, message);
+    }
+
+    /**
+     * Marks the job cancelled, cancels in-flight statements and interrupts the worker.
+     */
+    void cancel() {
+        if (isFinished()) return;
+
+        cancelled = true;
+
+        for (Statement st : statements) {
+            try {
+                st.cancel();
+            } catch (Exception e) {
+                System.err.println("[ScanJob] Could not cancel statement: " + e.getMessage());
+            }
+        }
+
+        Future<?> f = future;
+        if (f != null) f.cancel(true);
+
+        // A queued job never reaches the worker, so finish it here
+        if (status == Status.QUEUED) {
+            finish(Status.CANCELLED, "Cancelled before start");
+        }
+    }
+
+    private void finish(Status status, String message) {
+        closePhase();
+        this.phase = null;
+        this.message = message;
+        this.finishedAt = System.currentTimeMillis();
+        this.status = status;
+        notifyListeners(true);
+        listeners.clear();
+    }
+
+    // ============================================================
+    // ScanProgress
+    // ============================================================
+
+    @Override
+    public void phase(String name) {
+        if (name.equals(phase)) return;
+        closePhase();
+        phase = name;
+        phaseStartedAt = System.currentTimeMillis();
+        notifyListeners(true);
+    }
+
+    @Override
+    public void tablesTotal(int total) {
+        tablesTotal = total;
+        notifyListeners(true);
+    }
+
+    @Override
+    public synchronized void tableDone() {
+        tablesDone++;
+        notifyListeners(false);
+    }
+
+    @Override
+    public synchronized void rowsRead(String table, long rows) {
+        rowsRead += rows;
+        rowsByTable.merge(table, rows, Long::sum);
+    }
+
+    @Override
+    public synchronized void fullScan(String table, long estimatedRows) {
+        fullScans++;
+        if (estimatedRows > 0) rowsScanned += estimatedRows;
+    }
+
+    @Override
+    public void samplingRound(int round) {
+        samplingRounds = round;
+        notifyListeners(true);
+    }
+
+    @Override
+    public void statementStarted(Statement statement) {
+        statements.add(statement);
+        // Cancel may have raced with statement creation
+        if (cancelled) {
+            try {
+                statement.cancel();
+            } catch (Exception ignored) {
+            }
+        }
+    }
+
+    @Override
+    public void statementFinished(Statement statement) {
+        statements.remove(statement);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    private void closePhase() {
+        if (phase != null) {
+            // Batched scans revisit phases, so time accumulates per phase
+            phaseMillis.merge(phase, System.currentTimeMillis() - phaseStartedAt, Long::sum);
+        }
+    }
+
+    // ============================================================
+    // Status snapshot / listeners
+    // ============================================================
+
+    public Map<String, Object> snapshot() {
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("id", id);
+        snapshot.put("source", sourceId);
+        snapshot.put("status", status.name());
+        snapshot.put("tables", tables);
+        snapshot.put("phase", phase);
+        snapshot.put("tablesDone", tablesDone);
+        snapshot.put("tablesTotal", tablesTotal);
+        snapshot.put("rowsRead", rowsRead);
+        // Server-side reads of full-scan samples, from row estimates
+        snapshot.put("fullScans", fullScans);
+        snapshot.put("rowsScanned", rowsScanned);
+        snapshot.put("samplingRounds", samplingRounds);
+
+        Map<String, Long> elapsed;
+        synchronized (phaseMillis) {
+            elapsed = new LinkedHashMap<>(phaseMillis);
+        }
+        if (phase != null) {
+            elapsed.merge(phase, System.currentTimeMillis() - phaseStartedAt, Long::sum);
+        }
+        snapshot.put("phaseMillis", elapsed);
+
+        long end = finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+        snapshot.put("elapsedMillis", end - submittedAt);
+        snapshot.put("message", message);
+
+        // Per-table detail only once the job is over; it grows with the table count
+        if (isFinished()) {
+            synchronized (this) {
+                snapshot.put("rowsReadByTable", new LinkedHashMap<>(rowsByTable));
+            }
+        }
+        return snapshot;
+    }
+
+    void addListener(Consumer<Map<String, Object>> listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(Consumer<Map<String, Object>> listener) {
+        listeners.remove(listener);
+    }
+
+    private void notifyListeners(boolean force) {
+        if (listeners.isEmpty()) return;
+
+        long now = System.currentTimeMillis();
+        if (!force && now - lastNotifiedAt < NOTIFY_INTERVAL_MS) return;
+        lastNotifiedAt = now;
+
+        Map<String, Object> snapshot = snapshot();
+        for (Consumer<Map<String, Object>> listener : listeners) {
+            listener.accept(snapshot);
+        }
+    }
+}
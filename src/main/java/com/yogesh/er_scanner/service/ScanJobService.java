@@ -0,0 +1,167 @@
+package com.yogesh.er_scanner.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs scans as background jobs: one at a time per source, with different
+ * sources scanning concurrently.
+ *
+ * A scan request that matches the source's running job attaches to it
+ * instead of starting a duplicate; a different request while it runs is rejected.
+ */
+@Service
+public class ScanJobService {
+
+    // Finished jobs kept around for status queries
+    private static final int MAX_HISTORY = 20;
+
+    private final IncrementalScanService incrementalScanService;
+    private final DataSourceRegistry registry;
+    private final ExecutorService executor;
+
+    private final Map<String, ScanJob> jobs = new LinkedHashMap<>();
+    private final Map<String, ScanJob> current = new HashMap<>();
+
+    public ScanJobService(IncrementalScanService incrementalScanService,
+                          DataSourceRegistry registry) {
+        this.incrementalScanService = incrementalScanService;
+        this.registry = registry;
+
+        // One job thread per source is all that can ever be busy
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(registry.all().size(), r -> {
+            Thread t = new Thread(r, "scan-job-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Submits a scan, or returns the running job if it covers the same tables.
+     *
+     * @param tables tables to force-refresh; empty for a full (incremental) scan
+     * @throws IllegalArgumentException for an unknown source or a table not configured for scanning
+     * @throws IllegalStateException    if a different scan of the source is already running
+     */
+    public synchronized ScanJob submit(String sourceId, Set<String> tables) {
+
+        ScanSource source = registry.get(sourceId);
+
+        Set<String> normalized = new TreeSet<>(
+                incrementalScanService.resolveTables(source, tables));
+
+        ScanJob running = current.get(source.getId());
+        if (running != null && !running.isFinished()) {
+            if (running.getTables().equals(normalized)) {
+                return running;
+            }
+            throw new IllegalStateException(
+                    "Scan job " + running.getId() + " is already running for source "
+                            + source.getId() + ".");
+        }
+
+        ScanJob job = new ScanJob(UUID.randomUUID().toString(), source.getId(), normalized);
+        jobs.put(job.getId(), job);
+        trimHistory();
+        current.put(source.getId(), job);
+
+        job.setFuture(executor.submit(() -> run(source, job)));
+        return job;
+    }
+
+    public synchronized Optional<ScanJob> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public synchronized Optional<ScanJob> current(String sourceId) {
+        return Optional.ofNullable(current.get(registry.get(sourceId).getId()));
+    }
+
+    public Optional<ScanJob> cancel(String id) {
+        Optional<ScanJob> job = find(id);
+        job.ifPresent(ScanJob::cancel);
+        return job;
+    }
+
+    /**
+     * Streams job snapshots as "progress" events until the job finishes.
+     */
+    public SseEmitter subscribe(ScanJob job) {
+
+        SseEmitter emitter = new SseEmitter(0L);
+
+        Consumer<Map<String, Object>> listener = snapshot -> {
+            try {
+                emitter.send(SseEmitter.event().name("progress").data(snapshot));
+                if (!"QUEUED".equals(snapshot.get("status"))
+                        && !"RUNNING".equals(snapshot.get("status"))) {
+                    emitter.complete();
+                }
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        };
+
+        emitter.onCompletion(() -> job.removeListener(listener));
+        emitter.onTimeout(() -> job.removeListener(listener));
+        emitter.onError(e -> job.removeListener(listener));
+
+        job.addListener(listener);
+
+        // Initial state, and closes straight away if the job already finished
+        listener.accept(job.snapshot());
+
+        return emitter;
+    }
+
+    private void run(ScanSource source, ScanJob job) {
+
+        if (job.isCancelled()) return;
+
+        job.started();
+
+        try {
+
+            List<String> changed = incrementalScanService.scan(source, job.getTables(), job);
+
+            job.completed("Schema scanned successfully for configured tables. "
+                    + changed.size() + " table(s) refreshed.");
+
+        } catch (CancellationException e) {
+
+            job.failed("Scan cancelled");
+
+        } catch (Exception e) {
+
+            e.printStackTrace();
+            job.failed(job.isCancelled()
+                    ? "Scan cancelled"
+                    : "Scan failed: " + e.getMessage());
+
+        } finally {
+            // Clear any interrupt left by a cancel so the pool thread is reusable
+            Thread.interrupted();
+        }
+    }
+
+    private void trimHistory() {
+        Iterator<ScanJob> it = jobs.values().iterator();
+        while (jobs.size() > MAX_HISTORY && it.hasNext()) {
+            if (it.next().isFinished()) it.remove();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
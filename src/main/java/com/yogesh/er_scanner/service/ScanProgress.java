@@ -0,0 +1,63 @@
+package com.yogesh.er_scanner.service;
+
+import java.sql.Statement;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Callbacks the scan pipeline reports into. Also the channel through which
+ * a cancel request reaches running JDBC statements.
+ */
+public interface ScanProgress {
+
+    /**
+     * Starts a named phase, closing the previous one. Phases may repeat
+     * when tables are processed in batches.
+     */
+    void phase(String name);
+
+    /** Sets the number of tables in the scan, once discovery has listed them. */
+    void tablesTotal(int total);
+
+    /** Marks one table processed; called once per table. */
+    void tableDone();
+
+    /** Adds rows fetched by a sampling query of {@code table}. */
+    void rowsRead(String table, long rows);
+
+    /**
+     * Records a sampling query that reads the whole of {@code table} on the
+     * server however few rows it returns, such as a hash-coordinated sample.
+     *
+     * @param estimatedRows the table's estimated row count, -1 when unknown
+     */
+    void fullScan(String table, long estimatedRows);
+
+    /** Starts another adaptive sampling round (the first sample is round 1). */
+    void samplingRound(int round);
+
+    /** Registers a running statement so a cancel can interrupt it. */
+    void statementStarted(Statement statement);
+
+    void statementFinished(Statement statement);
+
+    boolean isCancelled();
+
+    default void checkCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException("Scan cancelled");
+        }
+    }
+
+    /** For callers that do not track progress. */
+    ScanProgress NONE = new ScanProgress() {
+        @Override public void phase(String name) {}
+        @Override public void tablesTotal(int total) {}
+        @Override public void tableDone() {}
+        @Override public void rowsRead(String table, long rows) {}
+        @Override public void fullScan(String table, long estimatedRows) {}
+        @Override public void samplingRound(int round) {}
+        @Override public void statementStarted(Statement statement) {}
+        @Override public void statementFinished(Statement statement) {}
+        @Override public boolean isCancelled() { return false; }
+    };
+}
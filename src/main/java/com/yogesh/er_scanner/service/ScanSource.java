@@ -0,0 +1,76 @@
+package com.yogesh.er_scanner.service;
+
+import com.yogesh.er_scanner.config.DatabaseConfig;
+import com.yogesh.er_scanner.config.RelationshipConfig;
+import com.yogesh.er_scanner.db.DatabaseDialect;
+import com.yogesh.er_scanner.db.DatabaseDialectFactory;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * One scannable database: its pool, dialect, scan settings, worker pool
+ * and output directory.
+ */
+public class ScanSource {
+
+    private final String id;
+    private final DataSource dataSource;
+    private final DatabaseConfig databaseConfig;
+    private final RelationshipConfig relationshipConfig;
+    private final ScanExecutor scanExecutor;
+    private final File outputDir;
+    private final DatabaseDialectFactory dialectFactory;
+
+    private volatile DatabaseDialect dialect;
+
+    public ScanSource(String id,
+                      DataSource dataSource,
+                      DatabaseConfig databaseConfig,
+                      RelationshipConfig relationshipConfig,
+                      File outputDir,
+                      DatabaseDialectFactory dialectFactory) {
+        this.id = id;
+        this.dataSource = dataSource;
+        this.databaseConfig = databaseConfig;
+        this.relationshipConfig = relationshipConfig;
+        this.scanExecutor = new ScanExecutor(relationshipConfig);
+        this.outputDir = outputDir;
+        this.dialectFactory = dialectFactory;
+    }
+
+    public String getId() { return id; }
+    public DataSource getDataSource() { return dataSource; }
+    public DatabaseConfig getDatabaseConfig() { return databaseConfig; }
+    public RelationshipConfig getRelationshipConfig() { return relationshipConfig; }
+    public ScanExecutor getScanExecutor() { return scanExecutor; }
+    public File getOutputDir() { return outputDir; }
+
+    /**
+     * A pooled connection whose statements are registered with {@code progress},
+     * so a scan cancel interrupts whatever query is running on it.
+     */
+    public Connection getConnection(ScanProgress progress) throws SQLException {
+        return TrackedConnection.wrap(dataSource.getConnection(), progress);
+    }
+
+    public File outputFile(String name) {
+        return new File(outputDir, name);
+    }
+
+    /**
+     * Resolves the dialect on first use; the product never changes for a pool.
+     */
+    public DatabaseDialect getDialect() throws Exception {
+        DatabaseDialect d = dialect;
+        if (d == null) {
+            try (Connection conn = dataSource.getConnection()) {
+                d = dialectFactory.getDialect(conn);
+            }
+            dialect = d;
+        }
+        return d;
+    }
+}
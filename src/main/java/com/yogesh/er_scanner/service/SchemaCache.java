@@ -0,0 +1,144 @@
+package com.yogesh.er_scanner.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yogesh.er_scanner.config.SourcesConfig;
+import com.yogesh.er_scanner.model.*;
+
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Published schemas per source, held as {@link CompactSchema}s and capped by
+ * an estimated heap budget (sources.cache-max-mb).
+ *
+ * Least recently used schemas are evicted once the budget is exceeded.
+ * Every published schema is already written to its source's schema-ai.json,
+ * so an evicted schema is transparently reloaded from disk on next access.
+ */
+@Service
+public class SchemaCache {
+
+    private final DataSourceRegistry registry;
+    private final long maxBytes;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final List<Consumer<String>> evictionListeners = new ArrayList<>();
+    private long totalBytes;
+
+    // One disk reload per source at a time
+    private final Map<String, Object> reloadLocks = new ConcurrentHashMap<>();
+
+    public SchemaCache(DataSourceRegistry registry, SourcesConfig sourcesConfig) {
+        this.registry = registry;
+        this.maxBytes = sourcesConfig.getCacheMaxMb() * 1024 * 1024;
+    }
+
+    /**
+     * Registers a callback receiving the id of every evicted source.
+     */
+    public synchronized void onEviction(Consumer<String> listener) {
+        evictionListeners.add(listener);
+    }
+
+    public void put(String sourceId, CompactSchema schema) {
+        insert(sourceId, schema, true);
+    }
+
+    /**
+     * Adds {@code schema}, replacing the current entry only when
+     * {@code replace} is set, and returns the schema now cached.
+     */
+    private CompactSchema insert(String sourceId, CompactSchema schema, boolean replace) {
+
+        List<String> evicted = new ArrayList<>();
+
+        synchronized (this) {
+            if (!replace) {
+                Entry current = entries.get(sourceId);
+                if (current != null) return current.schema;
+            }
+
+            Entry previous = entries.remove(sourceId);
+            if (previous != null) totalBytes -= previous.bytes;
+
+            Entry entry = new Entry(schema, schema.estimateBytes());
+            entries.put(sourceId, entry);
+            totalBytes += entry.bytes;
+
+            // Never evict the schema that was just published
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && it.hasNext()) {
+                Map.Entry<String, Entry> lru = it.next();
+                if (lru.getKey().equals(sourceId)) continue;
+                totalBytes -= lru.getValue().bytes;
+                it.remove();
+                evicted.add(lru.getKey());
+            }
+        }
+
+        for (String id : evicted) {
+            System.out.println("[SchemaCache] Evicted schema for source: " + id);
+            List<Consumer<String>> listeners;
+            synchronized (this) {
+                listeners = new ArrayList<>(evictionListeners);
+            }
+            listeners.forEach(l -> l.accept(id));
+        }
+        return schema;
+    }
+
+    /**
+     * Returns the schema for a source, reloading it from schema-ai.json if it
+     * was evicted. Empty when the source has never been scanned.
+     */
+    public Optional<CompactSchema> get(String sourceId) {
+
+        Optional<CompactSchema> cached = cached(sourceId);
+        if (cached.isPresent()) return cached;
+
+        synchronized (reloadLocks.computeIfAbsent(sourceId, k -> new Object())) {
+
+            // Reloaded by another request while this one waited
+            cached = cached(sourceId);
+            if (cached.isPresent()) return cached;
+
+            File file = registry.get(sourceId).outputFile("schema-ai.json");
+            if (!file.exists()) return Optional.empty();
+
+            try {
+                CompactSchema schema = CompactSchema.of(objectMapper.readValue(file, Schema.class));
+                // A scan may have published a newer schema while the file was read
+                return Optional.of(insert(sourceId, schema, false));
+            } catch (Exception e) {
+                System.err.println("[SchemaCache] Could not reload " + file + ": " + e.getMessage());
+                return Optional.empty();
+            }
+        }
+    }
+
+    private synchronized Optional<CompactSchema> cached(String sourceId) {
+        Entry entry = entries.get(sourceId);
+        return entry == null ? Optional.empty() : Optional.of(entry.schema);
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private static class Entry {
+
+        final CompactSchema schema;
+        final long bytes;
+
+        Entry(CompactSchema schema, long bytes) {
+            this.schema = schema;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.yogesh.er_scanner.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.yogesh.er_scanner.model.*;
+
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Writes a schema as JSON one table or relationship at a time, so the
+ * document is never built in memory. Objects come from the schema's lists
+ * as they are written; with a {@link CompactSchema} view each is created,
+ * written and dropped.
+ *
+ * Two layouts: the {@link Schema} document, identical to serializing the
+ * whole object, and NDJSON with one {@code {"table": ...}} or
+ * {@code {"relationship": ...}} object per line.
+ */
+@Service
+public class SchemaJsonExporter {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    // Flushing after every element would send one chunk per table
+    private final ObjectWriter elementWriter =
+            mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    /**
+     * Writes the schema document to {@code file}, pretty-printed. The
+     * document goes to a temporary file that then replaces {@code file} in
+     * one step, so readers never see it half-written.
+     */
+    public void writeFile(Schema schema, File file) throws IOException {
+
+        Path target = file.toPath().toAbsolutePath();
+        // Beside the target, so the move stays within one file system
+        Path temp = target.resolveSibling(file.getName() + ".tmp");
+
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16)) {
+                writeJson(schema, Filter.NONE, out, true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /** Writes the {@link Schema} document; leaves {@code out} open. */
+    public void writeJson(Schema schema, Filter filter, OutputStream out, boolean pretty) throws IOException {
+
+        try (JsonGenerator gen = generator(out)) {
+            // Elements are written through the generator's printer, keeping its indentation
+            if (pretty) gen.useDefaultPrettyPrinter();
+
+            gen.writeStartObject();
+
+            gen.writeFieldName("tables");
+            gen.writeStartArray();
+            for (Table table : schema.getTables()) {
+                if (filter.includes(table)) elementWriter.writeValue(gen, table);
+            }
+            gen.writeEndArray();
+
+            gen.writeFieldName("relationships");
+            gen.writeStartArray();
+            for (Relationship r : schema.getRelationships()) {
+                if (filter.includes(r)) elementWriter.writeValue(gen, r);
+            }
+            gen.writeEndArray();
+
+            gen.writeEndObject();
+        }
+    }
+
+    /** Writes tables, then relationships, one JSON object per line; leaves {@code out} open. */
+    public void writeNdjson(Schema schema, Filter filter, OutputStream out) throws IOException {
+
+        try (JsonGenerator gen = generator(out)) {
+            // Root-level values are separated by a newline instead of a space
+            gen.setRootValueSeparator(null);
+
+            for (Table table : schema.getTables()) {
+                if (filter.includes(table)) writeLine(gen, "table", table);
+            }
+            for (Relationship r : schema.getRelationships()) {
+                if (filter.includes(r)) writeLine(gen, "relationship", r);
+            }
+        }
+    }
+
+    private void writeLine(JsonGenerator gen, String kind, Object value) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName(kind);
+        elementWriter.writeValue(gen, value);
+        gen.writeEndObject();
+        gen.writeRaw('\n');
+    }
+
+    private JsonGenerator generator(OutputStream out) throws IOException {
+        JsonGenerator gen = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return gen;
+    }
+
+    /**
+     * Which parts of a schema to export. Tables match by name ignoring
+     * case; a relationship is kept when either end is a kept table.
+     */
+    public static class Filter {
+
+        public static final Filter NONE = new Filter(null, null, 0);
+
+        private final Set<String> tables;
+        private final Set<RelationshipType> types;
+        private final double minConfidence;
+
+        /**
+         * @param tables        table names to keep, or null for all
+         * @param types         relationship types to keep, or null for all
+         * @param minConfidence lowest relationship confidence kept
+         */
+        public Filter(Collection<String> tables, Collection<RelationshipType> types, double minConfidence) {
+            this.tables = tables == null ? null : lowerCase(tables);
+            this.types = types == null ? null : EnumSet.copyOf(types);
+            this.minConfidence = minConfidence;
+        }
+
+        /**
+         * Parses request parameters: comma-separated table names and type
+         * names (case-insensitive), each blank or null for all.
+         */
+        public static Filter parse(String tables, String types, Double minConfidence) {
+
+            List<String> tableNames = split(tables);
+
+            List<RelationshipType> typeValues = null;
+            List<String> typeNames = split(types);
+            if (typeNames != null) {
+                typeValues = new ArrayList<>();
+                for (String name : typeNames) {
+                    try {
+                        typeValues.add(RelationshipType.valueOf(name.toUpperCase()));
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Unknown relationship type: " + name
+                                + " (expected one of " + Arrays.toString(RelationshipType.values()) + ")");
+                    }
+                }
+            }
+
+            return new Filter(tableNames, typeValues, minConfidence == null ? 0 : minConfidence);
+        }
+
+        boolean includes(Table table) {
+            return tables == null || tables.contains(table.getName().toLowerCase());
+        }
+
+        boolean includes(Relationship r) {
+            if (types != null && !types.contains(r.getRelationshipType())) return false;
+            if (r.getConfidence() < minConfidence) return false;
+            return tables == null
+                    || tables.contains(r.getSourceTable().toLowerCase())
+                    || tables.contains(r.getTargetTable().toLowerCase());
+        }
+
+        private static List<String> split(String value) {
+            if (value == null) return null;
+            List<String> parts = Arrays.stream(value.split(","))
+                    .map(String::trim)
+                    .filter(s -> !s.isEmpty())
+                    .toList();
+            return parts.isEmpty() ? null : parts;
+        }
+
+        private static Set<String> lowerCase(Collection<String> names) {
+            Set<String> set = new HashSet<>();
+            for (String name : names) set.add(name.toLowerCase());
+            return set;
+        }
+    }
+}
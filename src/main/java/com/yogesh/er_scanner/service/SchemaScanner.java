@@ -1,36 +1,33 @@
 package com.yogesh.er_scanner.service;
 
 import com.yogesh.er_scanner.config.RelationshipConfig;
+import com.yogesh.er_scanner.db.DatabaseDialect;
 import com.yogesh.er_scanner.model.*;
 
 import org.springframework.stereotype.Service;
 
-import javax.sql.DataSource;
-import java.sql.*;
+import java.sql.Connection;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class SchemaScanner {
 
-    private final DataSource dataSource;
-    private final RelationshipConfig relationshipConfig;
+    // Below this the extra round trips cost more than the parallelism saves
+    private static final int MIN_BATCH_SIZE = 50;
 
-    public SchemaScanner(DataSource dataSource,
-                         RelationshipConfig relationshipConfig) {
-        this.dataSource = dataSource;
-        this.relationshipConfig = relationshipConfig;
+    public Schema scan(ScanSource source) throws Exception {
+        List<String> configuredTables = configuredTables(source);
+        return scanTables(source, configuredTables, configuredTables, ScanProgress.NONE);
     }
 
-    public Schema scan() throws Exception {
+    /**
+     * Returns the validated list of tables to scan.
+     */
+    public List<String> configuredTables(ScanSource source) {
 
-        List<Table> tables = new ArrayList<>();
-        List<Relationship> relationships = new ArrayList<>();
+        RelationshipConfig relationshipConfig = source.getRelationshipConfig();
 
-        if (!relationshipConfig.isEnabled()) {
-            throw new RuntimeException(
-                    "Relationship scanning disabled in config.");
-        }
+        checkEnabled(relationshipConfig);
 
         List<String> configuredTables =
                 relationshipConfig.getTables();
@@ -41,112 +38,171 @@ public class SchemaScanner {
                     "No tables configured for scanning.");
         }
 
-        if (configuredTables.size() >
-                relationshipConfig.getMaxTables()) {
+        if (relationshipConfig.getMaxTables() > 0 &&
+                configuredTables.size() >
+                        relationshipConfig.getMaxTables()) {
             throw new RuntimeException(
                     "Too many tables configured.");
         }
 
-        try (Connection conn = dataSource.getConnection()) {
-
-            DatabaseMetaData meta = conn.getMetaData();
-
-            Set<String> configuredSet =
-                    configuredTables.stream()
-                            .map(String::toLowerCase)
-                            .collect(Collectors.toSet());
-
-            for (String tableName : configuredTables) {
-
-                List<Column> columns = new ArrayList<>();
-
-                // ---------- LOAD COLUMNS ----------
-                try (ResultSet rsColumns =
-                             meta.getColumns(
-                                     null,
-                                     null,
-                                     tableName,
-                                     null)) {
-
-                    while (rsColumns.next()) {
-
-                        columns.add(
-                                new Column(
-                                        rsColumns.getString("COLUMN_NAME"),
-                                        rsColumns.getString("TYPE_NAME"),
-                                        false
-                                )
-                        );
-                    }
-                }
-
-                // ---------- LOAD PRIMARY KEYS ----------
-                try (ResultSet rsPK =
-                             meta.getPrimaryKeys(
-                                     null,
-                                     null,
-                                     tableName)) {
-
-                    while (rsPK.next()) {
-
-                        String pk =
-                                rsPK.getString("COLUMN_NAME");
-
-                        columns.stream()
-                                .filter(c ->
-                                        c.getName()
-                                                .equalsIgnoreCase(pk))
-                                .forEach(c ->
-                                        c.setPrimaryKey(true));
-                    }
-                }
-
-                // ---------- LOAD FOREIGN KEYS ----------
-                try (ResultSet rsFK =
-                             meta.getImportedKeys(
-                                     null,
-                                     null,
-                                     tableName)) {
-
-                    while (rsFK.next()) {
-
-                        String referencedTable =
-                                rsFK.getString("PKTABLE_NAME");
-
-                        // Only allow relationships
-                        // inside configured tables
-                        if (!configuredSet.contains(
-                                referencedTable.toLowerCase())) {
-                            continue;
-                        }
-
-                        String fkColumn =
-                                rsFK.getString("FKCOLUMN_NAME");
-
-                        columns.stream()
-                                .filter(c ->
-                                        c.getName()
-                                                .equalsIgnoreCase(fkColumn))
-                                .forEach(c ->
-                                        c.setForeignKey(true));
-
-                        relationships.add(
-                                new Relationship(
-                                        tableName,
-                                        fkColumn,
-                                        referencedTable,
-                                        rsFK.getString("PKCOLUMN_NAME"),
-                                        RelationshipType.STRICT,
-                                        1.0
-                                )
-                        );
-                    }
-                }
-
-                tables.add(new Table(tableName, columns));
+        return configuredTables;
+    }
+
+    /**
+     * Streams the tables to scan in batches of relationship.batch-size,
+     * from the catalog when discovery is enabled, otherwise from the tables list.
+     */
+    public Iterator<List<String>> tableBatches(ScanSource source,
+                                               ScanProgress progress) throws Exception {
+
+        RelationshipConfig relationshipConfig = source.getRelationshipConfig();
+        int batchSize = Math.max(1, relationshipConfig.getBatchSize());
+        RelationshipConfig.Discovery discovery = relationshipConfig.getDiscovery();
+
+        if (!discovery.isEnabled()) {
+            List<String> configured = configuredTables(source);
+            List<List<String>> batches = new ArrayList<>();
+            for (int i = 0; i < configured.size(); i += batchSize) {
+                batches.add(configured.subList(i, Math.min(i + batchSize, configured.size())));
+            }
+            return batches.iterator();
+        }
+
+        checkEnabled(relationshipConfig);
+
+        return new TableDiscovery(
+                source.getDataSource(),
+                source.getDialect(),
+                source.getDatabaseConfig().getSchema(),
+                new TableNameFilter(discovery.getInclude(), discovery.getExclude()),
+                Math.max(1, discovery.getPageSize()),
+                batchSize,
+                relationshipConfig.getMaxTables(),
+                progress);
+    }
+
+    /**
+     * Checks that requested tables are in scan scope.
+     * Returns their lower-case names.
+     *
+     * @throws IllegalArgumentException if a table is outside the scan scope
+     */
+    public Set<String> resolveTables(ScanSource source, Collection<String> requested) {
+
+        RelationshipConfig.Discovery discovery =
+                source.getRelationshipConfig().getDiscovery();
+
+        Set<String> inScope = new HashSet<>();
+        TableNameFilter filter = null;
+
+        if (discovery.isEnabled()) {
+            checkEnabled(source.getRelationshipConfig());
+            filter = new TableNameFilter(discovery.getInclude(), discovery.getExclude());
+        } else {
+            for (String table : configuredTables(source)) inScope.add(table.toLowerCase());
+        }
+
+        Set<String> resolved = new HashSet<>();
+        for (String table : requested) {
+            boolean ok = filter != null
+                    ? filter.matches(table)
+                    : inScope.contains(table.toLowerCase());
+            if (!ok) {
+                throw new IllegalArgumentException(
+                        "Table not configured for scanning: " + table);
+            }
+            resolved.add(table.toLowerCase());
+        }
+        return resolved;
+    }
+
+    private void checkEnabled(RelationshipConfig relationshipConfig) {
+        if (!relationshipConfig.isEnabled()) {
+            throw new RuntimeException(
+                    "Relationship scanning disabled in config.");
+        }
+    }
+
+    /**
+     * Loads metadata for {@code tables}, keeping foreign keys that point
+     * anywhere inside {@code scopeTables}, or every foreign key when it is null.
+     */
+    public Schema scanTables(ScanSource source,
+                             List<String> tables,
+                             List<String> scopeTables,
+                             ScanProgress progress) throws Exception {
+
+        DatabaseDialect dialect = source.getDialect();
+        ScanExecutor scanExecutor = source.getScanExecutor();
+
+        // lower-case name → configured spelling
+        Map<String, String> configuredNames = new LinkedHashMap<>();
+        if (scopeTables != null) {
+            for (String table : scopeTables) {
+                configuredNames.put(table.toLowerCase(), table);
             }
         }
+        Set<String> scope = scopeTables != null ? configuredNames.keySet() : null;
+
+        // One batch per worker so each gets a share of the catalog queries
+        List<List<String>> batches = partition(tables,
+                scanExecutor.getParallelism());
+
+        List<Schema> partials = scanExecutor.map(batches, batch -> {
+            progress.checkCancelled();
+            try (Connection conn = source.getConnection(progress)) {
+                return dialect.loadCatalog(
+                        conn,
+                        source.getDatabaseConfig().getSchema(),
+                        batch,
+                        scope);
+            }
+        });
+
+        // Batches are contiguous slices, so concatenating keeps configured order
+        List<Table> result = new ArrayList<>();
+        List<Relationship> relationships = new ArrayList<>();
 
-        return new Schema(tables, relationships);
+        for (Schema partial : partials) {
+            result.addAll(partial.getTables());
+
+            for (Relationship r : partial.getRelationships()) {
+                relationships.add(new Relationship(
+                        r.getSourceTable(),
+                        r.getSourceKey(),
+                        configuredNames.getOrDefault(
+                                r.getTargetTable().toLowerCase(),
+                                r.getTargetTable()),
+                        r.getTargetKey(),
+                        r.getRelationshipType(),
+                        r.getConfidence()));
+            }
+        }
+
+        return new Schema(result, relationships);
+    }
+
+    /**
+     * Catalog change tokens keyed by lower-case table name.
+     */
+    public Map<String, String> loadTableVersions(ScanSource source,
+                                                 List<String> tables,
+                                                 ScanProgress progress) throws Exception {
+        try (Connection conn = source.getConnection(progress)) {
+            return source.getDialect()
+                    .loadTableVersions(conn, source.getDatabaseConfig().getSchema(), tables);
+        }
+    }
+
+    private List<List<String>> partition(List<String> tables, int parts) {
+
+        int size = Math.max(MIN_BATCH_SIZE,
+                (tables.size() + parts - 1) / parts);
+
+        List<List<String>> batches = new ArrayList<>();
+        for (int i = 0; i < tables.size(); i += size) {
+            batches.add(tables.subList(i, Math.min(i + size, tables.size())));
+        }
+        return batches;
     }
-}
\ No newline at end of file
+}
@@ -1,85 +1,97 @@
 package com.yogesh.er_scanner.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.yogesh.er_scanner.config.RelationshipConfig;
 import com.yogesh.er_scanner.model.*;
+import com.yogesh.er_scanner.util.LongIntHashMap;
+import com.yogesh.er_scanner.util.SymbolTable;
 
 import org.springframework.stereotype.Service;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 public class SchemaService {
 
-    private Schema schema;
-
-    private final DataSampleService dataSampleService;
     private final SemanticRelationshipDetector semanticDetector;
-    private final RelationshipConfig config;
-
-    public SchemaService(DataSampleService dataSampleService,
-                         SemanticRelationshipDetector semanticDetector,
-                         RelationshipConfig config) {
-        this.dataSampleService = dataSampleService;
+    private final FuzzyNameDetector fuzzyNameDetector;
+    private final SchemaCache schemaCache;
+    private final SchemaJsonExporter jsonExporter;
+    private final RenderCache renderCache;
+    private final DomainMapCache domainMapCache;
+
+    public SchemaService(SemanticRelationshipDetector semanticDetector,
+                         FuzzyNameDetector fuzzyNameDetector,
+                         SchemaCache schemaCache,
+                         SchemaJsonExporter jsonExporter,
+                         RenderCache renderCache,
+                         DomainMapCache domainMapCache) {
         this.semanticDetector = semanticDetector;
-        this.config = config;
+        this.fuzzyNameDetector = fuzzyNameDetector;
+        this.schemaCache = schemaCache;
+        this.jsonExporter = jsonExporter;
+        this.renderCache = renderCache;
+        this.domainMapCache = domainMapCache;
     }
 
     // ============================================================
-    // 1️⃣ SET / GET SCHEMA
+    // 1️⃣ GET SCHEMA
     // ============================================================
 
-    public void setSchema(Schema schema) {
-        this.schema = schema;
+    public Schema getSchema(String sourceId) {
+        return getCompactSchema(sourceId).view();
     }
 
-    public Schema getSchema() {
-        if (schema == null) {
-            throw new RuntimeException("Schema not found. Run /schema/scan first.");
-        }
-        return schema;
+    /** The published snapshot, whose version changes with every publish. */
+    public CompactSchema getCompactSchema(String sourceId) {
+        return schemaCache.get(sourceId)
+                .orElseThrow(() -> new RuntimeException(
+                        "Schema not found. Run /schema/scan first."));
     }
 
     // ============================================================
     // 2️⃣ BUILD FULL SCHEMA
     // ============================================================
 
-    public void buildSchema(Schema metadataSchema) throws Exception {
+    public void buildSchema(ScanSource source,
+                            Schema metadataSchema,
+                            List<Relationship> sampleRelationships) throws Exception {
 
         List<Relationship> mergedRelationships =
                 new ArrayList<>(metadataSchema.getRelationships());
 
-        List<String> tableNames = metadataSchema.getTables()
-                .stream()
-                .map(Table::getName)
-                .collect(Collectors.toList());
-
-        List<Relationship> sampleRelationships =
-                dataSampleService.detectSampleRelationships(tableNames, config.getSampleSize());
-
         List<Relationship> semanticRelationships =
-                semanticDetector.detect(metadataSchema.getTables());
+                semanticDetector.detect(metadataSchema.getTables(),
+                        source.getRelationshipConfig().getSemantic());
+
+        // Scored below the exact naming rules, so those win in deduplication
+        List<Relationship> fuzzyRelationships =
+                fuzzyNameDetector.detect(metadataSchema.getTables(),
+                        source.getRelationshipConfig().getFuzzyNames());
 
         mergedRelationships.addAll(sampleRelationships);
         mergedRelationships.addAll(semanticRelationships);
+        mergedRelationships.addAll(fuzzyRelationships);
 
-        mergedRelationships = deduplicate(mergedRelationships);
+        // Names are interned once, for deduplication and the published schema
+        SymbolTable symbols = new SymbolTable(metadataSchema.getTables().size() * 8);
+        mergedRelationships = deduplicate(mergedRelationships, symbols);
 
-        this.schema = new Schema(
-                metadataSchema.getTables(),
-                mergedRelationships
-        );
+        CompactSchema compact = CompactSchema.of(
+                new Schema(metadataSchema.getTables(), mergedRelationships), symbols);
+        Schema schema = compact.view();
 
-        System.out.println("\n[SchemaService] Writing output files...");
+        System.out.println("\n[SchemaService] Writing output files for source " + source.getId() + "...");
 
-        writeAiJson();
-        writeMermaidDiagram();
-        splitAndWriteDomainChunks(20); // 🔥 uses domains.json
+        writeAiJson(source, schema);
+        writeMermaidDiagram(source, schema);
+        splitAndWriteDomainChunks(source, compact, 20); // 🔥 uses domains.json
+
+        // Published after the files, so an evicted schema always reloads current
+        schemaCache.put(source.getId(), compact);
+        renderCache.invalidate(source.getId());
 
         System.out.println("[SchemaService] File writing complete.\n");
     }
@@ -88,119 +100,116 @@ public class SchemaService {
     // 3️⃣ WRITE schema-ai.json
     // ============================================================
 
-    public void writeAiJson() throws Exception {
-
-        ObjectMapper mapper = new ObjectMapper();
+    public void writeAiJson(ScanSource source, Schema schema) throws Exception {
 
-        File dir = new File("output");
+        File dir = source.getOutputDir();
         if (!dir.exists()) dir.mkdirs();
 
-        mapper.writerWithDefaultPrettyPrinter()
-                .writeValue(new File("output/schema-ai.json"), this.schema);
+        // Streamed element by element; the compact view never materializes in full
+        File file = source.outputFile("schema-ai.json");
+        jsonExporter.writeFile(schema, file);
 
-        System.out.println("✓ Written: output/schema-ai.json");
+        System.out.println("✓ Written: " + file.getPath());
     }
 
     // ============================================================
     // 4️⃣ WRITE FULL MERMAID
     // ============================================================
 
-    public void writeMermaidDiagram() throws Exception {
+    public void writeMermaidDiagram(ScanSource source, Schema schema) throws Exception {
 
-        String mermaidContent = generateMermaid();
+        String mermaidContent = buildMermaid(schema.getTables(), schema.getRelationships());
 
-        File dir = new File("output");
+        File dir = source.getOutputDir();
         if (!dir.exists()) dir.mkdirs();
 
+        File file = source.outputFile("er_diagram-from-server.mmd");
         Files.write(
-                Paths.get("output/er_diagram-from-server.mmd"),
+                file.toPath(),
                 mermaidContent.getBytes()
         );
 
-        System.out.println("✓ Written: output/er_diagram-from-server.mmd");
+        System.out.println("✓ Written: " + file.getPath());
     }
 
     // ============================================================
     // 5️⃣ SPLIT USING AI domains.json
     // ============================================================
 
-    public void splitAndWriteDomainChunks(int maxTablesPerChunk) throws Exception {
-
-        String fullMermaid = Files.readString(
-                Paths.get("output/er_diagram-from-server.mmd")
-        );
-
-        Map<String, String> tableBlocks = extractTableBlocks(fullMermaid);
-        List<String> relationships = extractRelationshipLines(fullMermaid);
-
-        File domainsFile = new File("output/domains.json");
-        if (!domainsFile.exists()) {
+    /**
+     * Writes each domain's tables, in chunks of at most maxTablesPerChunk,
+     * with every relationship that has a chunk table at either end.
+     * Relationships come from the schema's per-table index, so the work is
+     * linear in the schema size; domains are rendered and written in
+     * parallel on the source's scan workers.
+     */
+    public void splitAndWriteDomainChunks(ScanSource source,
+                                          CompactSchema schema,
+                                          int maxTablesPerChunk) throws Exception {
+
+        DomainMapCache.DomainMap domains = domainMapCache.get(source);
+        if (!domains.exists()) {
             System.out.println("[SchemaService] domains.json not found — skipping domain chunk split.");
             return;
         }
 
-        ObjectMapper mapper = new ObjectMapper();
-        Map<String, List<String>> domainMap =
-                mapper.readValue(domainsFile, new TypeReference<>() {});
-
-        File domainDir = new File("output/mermaid-domains");
+        File domainDir = source.outputFile("mermaid-domains");
         if (!domainDir.exists()) domainDir.mkdirs();
 
-        for (Map.Entry<String, List<String>> entry : domainMap.entrySet()) {
+        source.getScanExecutor().map(new ArrayList<>(domains.getGroups().entrySet()), entry -> {
+            writeDomainChunks(domainDir, entry.getKey(), entry.getValue(), schema, maxTablesPerChunk);
+            return null;
+        });
+    }
 
-            String domainName = sanitizeFileName(entry.getKey());
+    private void writeDomainChunks(File domainDir,
+                                   String domain,
+                                   List<String> domainTables,
+                                   CompactSchema schema,
+                                   int maxTablesPerChunk) throws Exception {
 
-            List<String> domainTablesUpper =
-                    entry.getValue().stream()
-                            .map(String::toUpperCase)
-                            .toList();
+        String domainName = sanitizeFileName(domain);
 
-            List<String> existingTables =
-                    domainTablesUpper.stream()
-                            .filter(tableBlocks::containsKey)
-                            .toList();
+        int[] existingTables = domainTables.stream()
+                .mapToInt(schema::indexOfTable)
+                .filter(t -> t >= 0)
+                .distinct()
+                .toArray();
 
-            if (existingTables.isEmpty()) continue;
+        if (existingTables.length == 0) return;
 
-            for (int i = 0; i < existingTables.size(); i += maxTablesPerChunk) {
+        List<Table> tables = schema.view().getTables();
+        List<Relationship> relationships = schema.view().getRelationships();
 
-                List<String> chunkTables =
-                        existingTables.subList(
-                                i,
-                                Math.min(i + maxTablesPerChunk,
-                                        existingTables.size())
-                        );
+        for (int i = 0; i < existingTables.length; i += maxTablesPerChunk) {
 
-                Set<String> chunkSet = new HashSet<>(chunkTables);
+            int[] chunkTables = Arrays.copyOfRange(existingTables, i,
+                    Math.min(i + maxTablesPerChunk, existingTables.length));
 
-                List<String> chunkRelationships =
-                        relationships.stream()
-                                .filter(r ->
-                                        chunkSet.stream()
-                                                .anyMatch(r::contains))
-                                .toList();
+            // Positions are ascending per table; merged, they keep schema order
+            int[] chunkRelationships = Arrays.stream(chunkTables)
+                    .flatMap(t -> Arrays.stream(schema.relationshipsOf(t)))
+                    .sorted()
+                    .distinct()
+                    .toArray();
 
-                String chunkMermaid =
-                        buildChunkMermaid(
-                                chunkTables,
-                                tableBlocks,
-                                chunkRelationships
-                        );
+            String chunkMermaid = buildMermaid(
+                    Arrays.stream(chunkTables).mapToObj(tables::get).toList(),
+                    Arrays.stream(chunkRelationships).mapToObj(relationships::get).toList());
 
-                String fileName =
-                        domainName
-                                + (existingTables.size() > maxTablesPerChunk
-                                ? "_Part_" + (i / maxTablesPerChunk + 1)
-                                : "")
-                                + ".mmd";
+            String fileName =
+                    domainName
+                            + (existingTables.length > maxTablesPerChunk
+                            ? "_Part_" + (i / maxTablesPerChunk + 1)
+                            : "")
+                            + ".mmd";
 
-                Files.write(
-                        Paths.get("output/mermaid-domains/" + fileName),
-                        chunkMermaid.getBytes()
-                );
+            Files.write(
+                    new File(domainDir, fileName).toPath(),
+                    chunkMermaid.getBytes()
+            );
 
-                System.out.println("✓ Written: " + fileName);
-            }
+            System.out.println("✓ Written: " + fileName);
         }
     }
 
@@ -208,51 +217,88 @@ public class SchemaService {
     // 6️⃣ DEDUPLICATION
     // ============================================================
 
-    private List<Relationship> deduplicate(List<Relationship> relationships) {
+    private List<Relationship> deduplicate(List<Relationship> relationships,
+                                           SymbolTable symbols) {
 
-        // Priority: STRICT > DATA_INFERRED > INFERRED > DATA_SAMPLE
-        Map<RelationshipType, Integer> priority = new EnumMap<>(RelationshipType.class);
-        priority.put(RelationshipType.STRICT, 4);
-        priority.put(RelationshipType.DATA_INFERRED, 3);
-        priority.put(RelationshipType.INFERRED, 2);
-        priority.put(RelationshipType.DATA_SAMPLE, 1);
-
-        // Canonical key: sorted pair so (A→B) and (B→A) are same
-        Map<String, Relationship> best = new LinkedHashMap<>();
+        // Canonical key: unordered pair of endpoints, so (A→B) and (B→A) are
+        // the same. An endpoint is a case-folded table and key symbol pair,
+        // numbered densely so that two of them pack into one long. Composite
+        // keys are column sets, so a declared key and an inferred one listing
+        // its columns in another order meet
+        LongIntHashMap endpoints = new LongIntHashMap(relationships.size() * 2);
+        LongIntHashMap positions = new LongIntHashMap(relationships.size());
+        List<Relationship> best = new ArrayList<>();
 
         for (Relationship r : relationships) {
-            String key = canonicalKey(r);
-            Relationship existing = best.get(key);
-
-            if (existing == null) {
-                best.put(key, r);
-            } else {
-                int newPri = priority.getOrDefault(r.getRelationshipType(), 0);
-                int exPri = priority.getOrDefault(existing.getRelationshipType(), 0);
-
-                if (newPri > exPri
-                        || (newPri == exPri && r.getConfidence() > existing.getConfidence())) {
-                    best.put(key, r);
-                }
+            int a = endpoint(endpoints, symbols, r.getSourceTable(), r.getSourceKey());
+            int b = endpoint(endpoints, symbols, r.getTargetTable(), r.getTargetKey());
+            long key = pack(Math.min(a, b), Math.max(a, b));
+
+            int position = positions.get(key, -1);
+            if (position < 0) {
+                positions.put(key, best.size());
+                best.add(r);
+                continue;
             }
+
+            Relationship existing = best.get(position);
+            int newPri = priority(r.getRelationshipType());
+            int exPri = priority(existing.getRelationshipType());
+
+            if (newPri > exPri
+                    || (newPri == exPri && r.getConfidence() > existing.getConfidence())) {
+                best.set(position, r);
+            }
+        }
+
+        return best;
+    }
+
+    // Priority: STRICT > DATA_INFERRED > INFERRED > DATA_SAMPLE
+    private static int priority(RelationshipType type) {
+        if (type == null) return 0;
+        switch (type) {
+            case STRICT: return 4;
+            case DATA_INFERRED: return 3;
+            case INFERRED: return 2;
+            case DATA_SAMPLE: return 1;
+            default: return 0;
         }
+    }
+
+    private static int endpoint(LongIntHashMap endpoints, SymbolTable symbols,
+                                String table, List<String> columns) {
+        long key = pack(symbols.folded(symbols.intern(table)), symbols.folded(symbols.intern(keyName(columns))));
+        int id = endpoints.get(key, -1);
+        if (id < 0) {
+            id = endpoints.size();
+            endpoints.put(key, id);
+        }
+        return id;
+    }
 
-        return new ArrayList<>(best.values());
+    // A single column as it is; composite columns lower-cased, sorted and joined
+    private static String keyName(List<String> columns) {
+        if (columns.size() == 1) return columns.get(0);
+        return columns.stream().map(String::toLowerCase).sorted().collect(Collectors.joining(","));
     }
 
-    private String canonicalKey(Relationship r) {
-        String a = r.getSourceTable().toLowerCase() + "." + r.getSourceColumn().toLowerCase();
-        String b = r.getTargetTable().toLowerCase() + "." + r.getTargetColumn().toLowerCase();
-        return a.compareTo(b) <= 0 ? a + "|" + b : b + "|" + a;
+    // Two non-negative ints as one non-zero long
+    private static long pack(int high, int low) {
+        return ((long) (high + 1) << 32) | (low + 1);
     }
 
     // ============================================================
     // 7️⃣ FULL MERMAID BUILDER
     // ============================================================
 
-    public String generateMermaid() {
-        Schema s = getSchema();
-        return buildMermaid(s.getTables(), s.getRelationships());
+    /** The full diagram, rendered once per published schema. */
+    public RenderCache.Rendered renderMermaid(ScanSource source) throws Exception {
+        CompactSchema compact = getCompactSchema(source.getId());
+        Schema s = compact.view();
+        return renderCache.get(source.getId(), "mermaid", String.valueOf(compact.getVersion()),
+                "text/plain;charset=UTF-8",
+                () -> buildMermaid(s.getTables(), s.getRelationships()).getBytes(StandardCharsets.UTF_8));
     }
 
     private String buildMermaid(List<Table> tables,
@@ -282,7 +328,10 @@ public class SchemaService {
 
         for (Relationship r : relationships) {
 
-            String label = r.getSourceColumn();
+            // Mermaid labels are single words unless quoted
+            String label = r.isComposite()
+                    ? "\"" + String.join(", ", r.getSourceColumns()) + "\""
+                    : r.getSourceColumn();
 
 //            if (r.getRelationshipType() != null) {
 //                label += " (" + r.getRelationshipType().name().toLowerCase() + ")";
@@ -304,65 +353,6 @@ public class SchemaService {
     // 8️⃣ HELPERS
     // ============================================================
 
-    private Map<String, String> extractTableBlocks(String content) {
-
-        Map<String, String> tableBlocks = new LinkedHashMap<>();
-
-        String[] lines = content.split("\n");
-        String currentTable = null;
-        StringBuilder buffer = new StringBuilder();
-
-        for (String line : lines) {
-
-            String trimmed = line.trim();
-
-            if (trimmed.endsWith("{")) {
-                currentTable = trimmed.replace("{", "").trim();
-                buffer = new StringBuilder();
-                buffer.append("    ").append(trimmed).append("\n");
-            }
-            else if (currentTable != null) {
-                buffer.append("    ").append(trimmed).append("\n");
-
-                if (trimmed.equals("}")) {
-                    tableBlocks.put(currentTable, buffer.toString());
-                    currentTable = null;
-                }
-            }
-        }
-
-        return tableBlocks;
-    }
-
-    private List<String> extractRelationshipLines(String content) {
-
-        return Arrays.stream(content.split("\n"))
-                .map(String::trim)
-                .filter(line -> line.contains("||--"))
-                .toList();
-    }
-
-    private String buildChunkMermaid(
-            List<String> tables,
-            Map<String, String> tableBlocks,
-            List<String> relationships) {
-
-        StringBuilder sb = new StringBuilder();
-
-        sb.append("erDiagram\n");
-        sb.append("    direction TB\n\n");
-
-        for (String table : tables) {
-            sb.append(tableBlocks.get(table)).append("\n");
-        }
-
-        for (String rel : relationships) {
-            sb.append("    ").append(rel).append("\n");
-        }
-
-        return sb.toString();
-    }
-
     private String sanitizeFileName(String input) {
         return input.replaceAll("[^a-zA-Z0-9_]", "_");
     }
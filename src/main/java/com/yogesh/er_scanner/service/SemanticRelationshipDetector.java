@@ -1,6 +1,8 @@
 package com.yogesh.er_scanner.service;
 
+import com.yogesh.er_scanner.config.RelationshipConfig;
 import com.yogesh.er_scanner.model.*;
+import com.yogesh.er_scanner.util.PrefixTrie;
 
 import org.springframework.stereotype.Service;
 
@@ -9,22 +11,26 @@ import java.util.*;
 /**
  * Detects FK relationships based on column naming conventions,
  * without touching the database at all.
+ *
+ * Candidate tables are looked up in indexes built once per call — primary
+ * key name to tables, rule key to tables, and a prefix trie of table
+ * names — so each column costs a fixed number of lookups however many
+ * tables there are.
  */
 @Service
 public class SemanticRelationshipDetector {
 
     /**
-     * Main entry point — returns INFERRED relationships detected via naming patterns.
+     * Main entry point — returns INFERRED relationships detected via the
+     * configured naming rules, in table, column and rule order.
      */
-    public List<Relationship> detect(List<Table> tables) {
-
-        // Step 1: build PK index  { tableName → pkColumnName }
-        Map<String, String> pkIndex = buildPkIndex(tables);
-
-        // Step 2: collect existing STRICT relationships to avoid duplicates
-        Set<String> strictKeys = new HashSet<>(); // filled by SchemaService before dedup
+    public List<Relationship> detect(List<Table> tables, RelationshipConfig.Semantic config) {
 
         List<Relationship> results = new ArrayList<>();
+        if (!config.isEnabled()) return results;
+
+        List<RelationshipConfig.Rule> rules = config.getRules();
+        Index index = new Index(tables, rules);
 
         for (Table table : tables) {
             String tableName = table.getName().toLowerCase();
@@ -35,89 +41,168 @@ public class SemanticRelationshipDetector {
                 // Skip the column if it IS a PK of its own table
                 if (column.isPrimaryKey()) continue;
 
-                // --- Pattern A: exact PK name match ---
-                for (Map.Entry<String, String> entry : pkIndex.entrySet()) {
-                    String targetTable = entry.getKey();
-                    String targetPk = entry.getValue();
+                for (int r = 0; r < rules.size(); r++) {
+                    for (int target : index.match(r, colName)) {
+                        String targetTable = index.tables.get(target);
+                        if (targetTable.equals(tableName)) continue; // same table
 
-                    if (targetTable.equals(tableName)) continue; // same table
-
-                    if (colName.equals(targetPk.toLowerCase())) {
                         results.add(new Relationship(
                                 table.getName(), column.getName(),
-                                targetTable, targetPk,
-                                RelationshipType.INFERRED, 0.95
+                                targetTable, index.primaryKeys.get(target),
+                                RelationshipType.INFERRED, rules.get(r).getConfidence()
                         ));
                     }
                 }
+            }
+        }
 
-                // --- Pattern B: {singular(tableName)}_id ---
-                for (Map.Entry<String, String> entry : pkIndex.entrySet()) {
-                    String targetTable = entry.getKey();
-                    String targetPk = entry.getValue();
+        return results;
+    }
 
-                    if (targetTable.equals(tableName)) continue;
+    /**
+     * Tables with a primary key, by position, and per-rule lookups returning
+     * positions in ascending order.
+     */
+    private static class Index {
 
-                    String singular = singularize(targetTable);
-                    String expected = singular + "_id";
+        private static final int[] NONE = new int[0];
 
-                    if (colName.equals(expected) && !colName.equals(targetPk.toLowerCase())) {
-                        // Only add if Pattern A didn't already match this combo
-                        results.add(new Relationship(
-                                table.getName(), column.getName(),
-                                targetTable, targetPk,
-                                RelationshipType.INFERRED, 0.90
-                        ));
+        private static final int PRIMARY_KEY = 0;
+        private static final int TABLE_NAME = 1;
+        private static final int TABLE_PREFIX = 2;
+
+        // Lower-cased table name and first PK column, by position
+        final List<String> tables = new ArrayList<>();
+        final List<String> primaryKeys = new ArrayList<>();
+
+        // Per rule: kind and lower-cased suffixes
+        private final int[] kinds;
+        private final String[][] suffixes;
+        private final Map<String, int[]> byPrimaryKey;
+        private final List<Map<String, int[]>> byRuleKey = new ArrayList<>();
+        private PrefixTrie prefixes;
+
+        Index(List<Table> schemaTables, List<RelationshipConfig.Rule> rules) {
+
+            kinds = new int[rules.size()];
+            suffixes = new String[rules.size()][];
+
+            // A later table with the same lower-cased name replaces the earlier one in place
+            Map<String, String> pkIndex = new LinkedHashMap<>();
+            for (Table table : schemaTables) {
+                for (Column col : table.getColumns()) {
+                    if (col.isPrimaryKey()) {
+                        pkIndex.put(table.getName().toLowerCase(), col.getName());
+                        break; // take first PK
                     }
                 }
-
-                // --- Pattern C: *_code / *_ref patterns ---
-                if (colName.endsWith("_code") || colName.endsWith("_ref")) {
-                    String prefix = colName.endsWith("_code")
-                            ? colName.substring(0, colName.length() - 5)
-                            : colName.substring(0, colName.length() - 4);
-
-                    for (Map.Entry<String, String> entry : pkIndex.entrySet()) {
-                        String targetTable = entry.getKey();
-                        String targetPk = entry.getValue();
-
-                        if (targetTable.equals(tableName)) continue;
-
-                        // target PK must end with _code or _ref to match
-                        if (targetPk.toLowerCase().equals(colName)
-                                || targetTable.toLowerCase().startsWith(prefix)) {
-                            results.add(new Relationship(
-                                    table.getName(), column.getName(),
-                                    targetTable, targetPk,
-                                    RelationshipType.INFERRED, 0.75
-                            ));
+            }
+            pkIndex.forEach((table, pk) -> {
+                tables.add(table);
+                primaryKeys.add(pk);
+            });
+
+            Map<String, List<Integer>> pkNames = new HashMap<>();
+            for (int i = 0; i < tables.size(); i++) {
+                add(pkNames, primaryKeys.get(i).toLowerCase(), i);
+            }
+            byPrimaryKey = freeze(pkNames);
+
+            for (int r = 0; r < rules.size(); r++) {
+                RelationshipConfig.Rule rule = rules.get(r);
+                suffixes[r] = rule.getSuffixes().stream().map(String::toLowerCase).toArray(String[]::new);
+
+                switch (rule.getKind()) {
+                    case "primary-key":
+                        kinds[r] = PRIMARY_KEY;
+                        byRuleKey.add(Map.of());
+                        break;
+                    case "table-name":
+                        kinds[r] = TABLE_NAME;
+                        byRuleKey.add(tableNameKeys(suffixes[r]));
+                        break;
+                    case "table-prefix":
+                        kinds[r] = TABLE_PREFIX;
+                        byRuleKey.add(Map.of());
+                        if (prefixes == null) {
+                            prefixes = new PrefixTrie();
+                            for (int i = 0; i < tables.size(); i++) prefixes.add(tables.get(i), i);
                         }
-                    }
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown semantic rule kind: " + rule.getKind()
+                                + " (expected primary-key, table-name or table-prefix)");
                 }
             }
         }
 
-        return results;
-    }
-
-    private Map<String, String> buildPkIndex(List<Table> tables) {
-        Map<String, String> index = new LinkedHashMap<>();
-        for (Table table : tables) {
-            for (Column col : table.getColumns()) {
-                if (col.isPrimaryKey()) {
-                    index.put(table.getName().toLowerCase(), col.getName());
-                    break; // take first PK
+        // {singular(table)}{suffix} → tables, skipping tables whose PK already has that name
+        private Map<String, int[]> tableNameKeys(String[] suffixes) {
+            Map<String, List<Integer>> keys = new HashMap<>();
+            for (int i = 0; i < tables.size(); i++) {
+                String singular = singularize(tables.get(i));
+                for (String suffix : suffixes) {
+                    String key = singular + suffix;
+                    if (!key.equals(primaryKeys.get(i).toLowerCase())) add(keys, key, i);
                 }
             }
+            return freeze(keys);
+        }
+
+        /** Positions of the tables the rule relates the column to. */
+        int[] match(int rule, String colName) {
+
+            switch (kinds[rule]) {
+                case PRIMARY_KEY:
+                    return byPrimaryKey.getOrDefault(colName, NONE);
+                case TABLE_NAME:
+                    return byRuleKey.get(rule).getOrDefault(colName, NONE);
+                default:
+                    for (String suffix : suffixes[rule]) {
+                        if (!colName.endsWith(suffix)) continue;
+                        String prefix = colName.substring(0, colName.length() - suffix.length());
+                        return union(prefixes.withPrefix(prefix), byPrimaryKey.getOrDefault(colName, NONE));
+                    }
+                    return NONE;
+            }
+        }
+
+        private static void add(Map<String, List<Integer>> index, String key, int position) {
+            List<Integer> list = index.computeIfAbsent(key, k -> new ArrayList<>(1));
+            // Positions arrive in order; two suffixes may produce the same key
+            if (list.isEmpty() || list.get(list.size() - 1) != position) list.add(position);
+        }
+
+        private static Map<String, int[]> freeze(Map<String, List<Integer>> index) {
+            Map<String, int[]> frozen = new HashMap<>(index.size() * 2);
+            index.forEach((key, list) -> frozen.put(key,
+                    list.stream().mapToInt(Integer::intValue).toArray()));
+            return frozen;
+        }
+
+        // Merge of two ascending position arrays, without duplicates
+        private static int[] union(int[] a, int[] b) {
+            if (b.length == 0) return a;
+            if (a.length == 0) return b;
+
+            int[] out = new int[a.length + b.length];
+            int i = 0, j = 0, n = 0;
+            while (i < a.length || j < b.length) {
+                int next;
+                if (j == b.length || (i < a.length && a[i] < b[j])) next = a[i++];
+                else if (i == a.length || b[j] < a[i]) next = b[j++];
+                else { next = a[i++]; j++; }
+                out[n++] = next;
+            }
+            return Arrays.copyOf(out, n);
         }
-        return index;
     }
 
     /**
      * Very simple English singularizer covering common DB naming conventions.
      * Handles: -ies → -y, -ses/-shes/-ches → drop -es, -s → drop -s.
      */
-    private String singularize(String word) {
+    static String singularize(String word) {
         if (word.endsWith("ies")) {
             return word.substring(0, word.length() - 3) + "y";
         }
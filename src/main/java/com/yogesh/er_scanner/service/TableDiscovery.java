@@ -0,0 +1,98 @@
+package com.yogesh.er_scanner.service;
+
+import com.yogesh.er_scanner.db.DatabaseDialect;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.*;
+
+/**
+ * Streams matching table names out of the catalog in fixed-size batches.
+ *
+ * Catalog pages are fetched lazily with keyset paging, so only one page of
+ * names and one batch are held at a time however large the schema is.
+ */
+class TableDiscovery implements Iterator<List<String>> {
+
+    private final DataSource dataSource;
+    private final DatabaseDialect dialect;
+    private final String schema;
+    private final TableNameFilter filter;
+    private final int pageSize;
+    private final int batchSize;
+    private final int maxTables;
+    private final ScanProgress progress;
+
+    private final Deque<String> buffer = new ArrayDeque<>();
+    private String after;
+    private boolean exhausted;
+    private int discovered;
+
+    TableDiscovery(DataSource dataSource,
+                   DatabaseDialect dialect,
+                   String schema,
+                   TableNameFilter filter,
+                   int pageSize,
+                   int batchSize,
+                   int maxTables,
+                   ScanProgress progress) {
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+        this.schema = schema;
+        this.filter = filter;
+        this.pageSize = pageSize;
+        this.batchSize = batchSize;
+        this.maxTables = maxTables;
+        this.progress = progress;
+    }
+
+    @Override
+    public boolean hasNext() {
+        fill(1);
+        return !buffer.isEmpty();
+    }
+
+    @Override
+    public List<String> next() {
+        fill(batchSize);
+        if (buffer.isEmpty()) throw new NoSuchElementException();
+
+        List<String> batch = new ArrayList<>(batchSize);
+        while (batch.size() < batchSize && !buffer.isEmpty()) {
+            batch.add(buffer.poll());
+        }
+        return batch;
+    }
+
+    private void fill(int wanted) {
+
+        while (buffer.size() < wanted && !exhausted) {
+
+            progress.checkCancelled();
+
+            List<String> page;
+            try (Connection conn = TrackedConnection.wrap(dataSource.getConnection(), progress)) {
+                page = dialect.listTables(conn, schema, after, pageSize);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException("Table discovery failed: " + e.getMessage(), e);
+            }
+
+            if (page.size() < pageSize) exhausted = true;
+            if (page.isEmpty()) break;
+
+            after = page.get(page.size() - 1);
+
+            for (String table : page) {
+                if (!filter.matches(table)) continue;
+
+                if (maxTables > 0 && ++discovered > maxTables) {
+                    throw new RuntimeException(
+                            "Too many tables discovered (max-tables " + maxTables + ").");
+                }
+                buffer.add(table);
+            }
+        }
+    }
+}
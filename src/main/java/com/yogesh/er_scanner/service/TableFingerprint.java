@@ -0,0 +1,66 @@
+package com.yogesh.er_scanner.service;
+
+import com.yogesh.er_scanner.model.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Identifies one version of a table: a hash over its columns, keys and
+ * outgoing foreign keys, plus the catalog change token when the engine has one.
+ */
+public class TableFingerprint {
+
+    private final String structureHash;
+    private final String version;
+
+    public TableFingerprint(String structureHash, String version) {
+        this.structureHash = structureHash;
+        this.version = version;
+    }
+
+    public static TableFingerprint of(Table table,
+                                      List<Relationship> foreignKeys,
+                                      String version) throws Exception {
+
+        StringBuilder sb = new StringBuilder();
+
+        for (Column c : table.getColumns()) {
+            sb.append(c.getName().toLowerCase()).append(':')
+                    .append(c.getType()).append(':')
+                    .append(c.isPrimaryKey() ? 'P' : '-')
+                    .append(c.isForeignKey() ? 'F' : '-')
+                    .append(';');
+        }
+
+        for (Relationship r : foreignKeys) {
+            sb.append(r.getSourceColumn().toLowerCase()).append('>')
+                    .append(r.getTargetTable().toLowerCase()).append('.')
+                    .append(r.getTargetColumn().toLowerCase()).append(';');
+        }
+
+        byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+
+        return new TableFingerprint(HexFormat.of().formatHex(digest), version);
+    }
+
+    public String getStructureHash() { return structureHash; }
+    public String getVersion() { return version; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TableFingerprint other)) return false;
+        return structureHash.equals(other.structureHash)
+                && Objects.equals(version, other.version);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(structureHash, version);
+    }
+}
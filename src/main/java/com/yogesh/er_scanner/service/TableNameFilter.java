@@ -0,0 +1,56 @@
+package com.yogesh.er_scanner.service;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Include/exclude matcher for discovered table names.
+ * Patterns are case-insensitive globs, or regexes when prefixed with "regex:".
+ */
+public class TableNameFilter {
+
+    private static final String REGEX_PREFIX = "regex:";
+
+    private final List<Pattern> include;
+    private final List<Pattern> exclude;
+
+    public TableNameFilter(List<String> include, List<String> exclude) {
+        this.include = compile(include);
+        this.exclude = compile(exclude);
+    }
+
+    public boolean matches(String table) {
+
+        if (!include.isEmpty()
+                && include.stream().noneMatch(p -> p.matcher(table).matches())) {
+            return false;
+        }
+
+        return exclude.stream().noneMatch(p -> p.matcher(table).matches());
+    }
+
+    private static List<Pattern> compile(List<String> patterns) {
+        if (patterns == null) return List.of();
+        return patterns.stream()
+                .map(TableNameFilter::compile)
+                .toList();
+    }
+
+    private static Pattern compile(String pattern) {
+
+        if (pattern.startsWith(REGEX_PREFIX)) {
+            return Pattern.compile(pattern.substring(REGEX_PREFIX.length()),
+                    Pattern.CASE_INSENSITIVE);
+        }
+
+        StringBuilder regex = new StringBuilder();
+        for (char c : pattern.toCharArray()) {
+            switch (c) {
+                case '*' -> regex.append(".*");
+                case '?' -> regex.append('.');
+                default -> regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE);
+    }
+}
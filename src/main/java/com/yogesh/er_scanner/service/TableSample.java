@@ -0,0 +1,86 @@
+package com.yogesh.er_scanner.service;
+
+import com.yogesh.er_scanner.db.ColumnStatistics;
+import com.yogesh.er_scanner.overlap.TypeFamily;
+import com.yogesh.er_scanner.util.SortedLongSet;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Fingerprints of sampled distinct values and JDBC types for one table, kept between scans
+ * so overlaps can be recomputed for changed tables only. Columns profiled
+ * from optimizer statistics carry those instead of sampled values.
+ * Row-sampled columns also carry a summary, kept for every sampled column
+ * even when its values were dropped as non-discriminating.
+ */
+public class TableSample {
+
+    private final Map<String, SortedLongSet> columnValues;
+    private final Map<String, Integer> columnTypes;
+    private final Map<String, ColumnStatistics> columnStatistics;
+    private final Map<String, ColumnSummary> columnSummaries;
+    private final long rowsRead;
+
+    public TableSample(Map<String, SortedLongSet> columnValues,
+                       Map<String, Integer> columnTypes) {
+        this(columnValues, columnTypes, Map.of(), 0);
+    }
+
+    public TableSample(Map<String, SortedLongSet> columnValues,
+                       Map<String, Integer> columnTypes,
+                       Map<String, ColumnStatistics> columnStatistics,
+                       long rowsRead) {
+        this(columnValues, columnTypes, columnStatistics, Map.of(), rowsRead);
+    }
+
+    public TableSample(Map<String, SortedLongSet> columnValues,
+                       Map<String, Integer> columnTypes,
+                       Map<String, ColumnStatistics> columnStatistics,
+                       Map<String, ColumnSummary> columnSummaries,
+                       long rowsRead) {
+        this.columnValues = columnValues;
+        this.columnTypes = columnTypes;
+        this.columnStatistics = columnStatistics;
+        this.columnSummaries = columnSummaries;
+        this.rowsRead = rowsRead;
+    }
+
+    /**
+     * Adds a follow-up sample of the same table: values of shared columns are
+     * unioned, other columns are taken as they are.
+     */
+    public TableSample merge(TableSample more) {
+        Map<String, SortedLongSet> values = new LinkedHashMap<>(columnValues);
+        more.columnValues.forEach((column, v) -> values.merge(column, v, SortedLongSet::union));
+
+        Map<String, Integer> types = new LinkedHashMap<>(columnTypes);
+        more.columnTypes.forEach(types::putIfAbsent);
+
+        Map<String, ColumnSummary> summaries = new LinkedHashMap<>(columnSummaries);
+        for (Map.Entry<String, ColumnSummary> entry : more.columnSummaries.entrySet()) {
+            String column = entry.getKey();
+            ColumnSummary before = summaries.get(column);
+            if (before == null) {
+                summaries.put(column, entry.getValue());
+                continue;
+            }
+            // Dropped single-value columns have no value set to count
+            SortedLongSet merged = values.get(column);
+            long distinct = merged != null
+                    ? merged.size()
+                    : Math.max(before.getDistinct(), entry.getValue().getDistinct());
+            Integer type = types.get(column);
+            summaries.put(column, before.merge(entry.getValue(), distinct,
+                    type == null ? TypeFamily.OTHER : TypeFamily.of(type)));
+        }
+
+        return new TableSample(values, types, columnStatistics, summaries, rowsRead + more.rowsRead);
+    }
+
+    public Map<String, SortedLongSet> getColumnValues() { return columnValues; }
+    public Map<String, Integer> getColumnTypes() { return columnTypes; }
+    public Map<String, ColumnStatistics> getColumnStatistics() { return columnStatistics; }
+    public Map<String, ColumnSummary> getColumnSummaries() { return columnSummaries; }
+    public long getRowsRead() { return rowsRead; }
+}
@@ -0,0 +1,82 @@
+package com.yogesh.er_scanner.service;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps a scan connection so every statement created on it is registered
+ * with the scan's {@link ScanProgress} until closed, letting a cancel reach
+ * catalog, estimate and statistics queries run inside dialects as well as
+ * sampling and verification.
+ *
+ * Statements the driver runs internally, such as those behind
+ * {@link java.sql.DatabaseMetaData}, are not reachable this way.
+ */
+final class TrackedConnection implements InvocationHandler {
+
+    private final Connection connection;
+    private final ScanProgress progress;
+    private final Set<Statement> open = ConcurrentHashMap.newKeySet();
+
+    private TrackedConnection(Connection connection, ScanProgress progress) {
+        this.connection = connection;
+        this.progress = progress;
+    }
+
+    static Connection wrap(Connection connection, ScanProgress progress) {
+        if (progress == ScanProgress.NONE) return connection;
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                new TrackedConnection(connection, progress));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+        if (method.getName().equals("close")) {
+            // Pools close leftover statements themselves, bypassing the wrappers
+            for (Statement st : open) progress.statementFinished(st);
+            open.clear();
+        }
+
+        Object result = call(connection, method, args);
+
+        if (result instanceof Statement st && Statement.class.isAssignableFrom(method.getReturnType())) {
+            Statement tracked = track(st, method.getReturnType());
+            open.add(tracked);
+            progress.statementStarted(tracked);
+            return tracked;
+        }
+        return result;
+    }
+
+    private Statement track(Statement statement, Class<?> type) {
+        return (Statement) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] {type},
+                (proxy, method, args) -> {
+                    // Identity, so the proxy works as a key in the job's statement set
+                    if (method.getName().equals("equals")) return proxy == args[0];
+                    if (method.getName().equals("hashCode")) return System.identityHashCode(proxy);
+                    if (method.getName().equals("close") && open.remove(proxy)) {
+                        progress.statementFinished((Statement) proxy);
+                    }
+                    return call(statement, method, args);
+                });
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
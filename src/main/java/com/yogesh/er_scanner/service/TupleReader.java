@@ -0,0 +1,128 @@
+package com.yogesh.er_scanner.service;
+
+import com.yogesh.er_scanner.overlap.TypeFamily;
+import com.yogesh.er_scanner.overlap.ValueFingerprint;
+import com.yogesh.er_scanner.util.LongHashSet;
+import com.yogesh.er_scanner.util.SortedLongSet;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.*;
+
+/**
+ * Reads sample rows into fingerprint sets of column tuples, for composite
+ * key detection. Each row adds one fingerprint per tuple whose values are
+ * all non-null; with membership flags, only when the tuple's slice column
+ * is in the hash slice.
+ */
+class TupleReader {
+
+    private static final int INITIAL_BUFFER = 1024;
+
+    private final List<ColumnTuple> tuples;
+    private final LongHashSet[] sets;
+
+    private int[] indexes = new int[0];
+    private int[] readers = new int[0];
+    private TypeFamily[] families = new TypeFamily[0];
+    private int[][] positions;
+    private int[] slicePositions;
+    private int flagOffset;
+
+    private long[] row;
+    private boolean[] nulls;
+    private long[][] parts;
+
+    TupleReader(Collection<ColumnTuple> tuples, int sampleSize) {
+        this.tuples = new ArrayList<>(tuples);
+        this.sets = new LongHashSet[this.tuples.size()];
+        for (int t = 0; t < sets.length; t++) sets[t] = new LongHashSet(Math.min(sampleSize, INITIAL_BUFFER));
+    }
+
+    /**
+     * Binds the reader to one result set. With {@code valueColumns} &gt; 0 the
+     * result carries that many values followed by one membership flag each.
+     */
+    void bind(ResultSetMetaData meta, int valueColumns) throws Exception {
+
+        int colCount = valueColumns > 0 ? valueColumns : meta.getColumnCount();
+        flagOffset = valueColumns;
+
+        indexes = new int[colCount];
+        readers = new int[colCount];
+        families = new TypeFamily[colCount];
+        Map<String, Integer> byName = new HashMap<>();
+
+        for (int i = 1; i <= colCount; i++) {
+            int type = meta.getColumnType(i);
+            indexes[i - 1] = i;
+            readers[i - 1] = SampleReader.readerFor(type, meta.getColumnTypeName(i),
+                    meta.getPrecision(i), meta.getScale(i));
+            families[i - 1] = TypeFamily.of(type);
+            byName.put(meta.getColumnName(i).toLowerCase(), i - 1);
+        }
+
+        positions = new int[tuples.size()][];
+        slicePositions = new int[tuples.size()];
+        parts = new long[tuples.size()][];
+
+        for (int t = 0; t < tuples.size(); t++) {
+            List<String> columns = tuples.get(t).getColumns();
+            positions[t] = new int[columns.size()];
+            for (int c = 0; c < columns.size(); c++) {
+                positions[t][c] = position(byName, columns.get(c));
+            }
+            slicePositions[t] = position(byName, tuples.get(t).getSlice());
+            parts[t] = new long[columns.size()];
+        }
+
+        row = new long[colCount];
+        nulls = new boolean[colCount];
+    }
+
+    private static int position(Map<String, Integer> byName, String column) {
+        Integer position = byName.get(column.toLowerCase());
+        if (position == null) {
+            throw new IllegalStateException("Tuple column not in sample query: " + column);
+        }
+        return position;
+    }
+
+    /** Reads every remaining row of {@code rs}; returns the number read. */
+    long readAll(ResultSet rs) throws Exception {
+
+        long read = 0;
+
+        while (rs.next()) {
+
+            for (int k = 0; k < indexes.length; k++) {
+                row[k] = SampleReader.fingerprint(rs, indexes[k], readers[k], families[k]);
+                nulls[k] = rs.wasNull();
+            }
+
+            for (int t = 0; t < positions.length; t++) {
+                if (flagOffset > 0 && rs.getInt(flagOffset + indexes[slicePositions[t]]) == 0) continue;
+                if (fill(t)) sets[t].add(ValueFingerprint.ofTuple(parts[t]));
+            }
+            read++;
+        }
+        return read;
+    }
+
+    // Copies the tuple's values out of the current row; false if one is null
+    private boolean fill(int t) {
+        int[] p = positions[t];
+        for (int c = 0; c < p.length; c++) {
+            if (nulls[p[c]]) return false;
+            parts[t][c] = row[p[c]];
+        }
+        return true;
+    }
+
+    /** Tuple fingerprints by tuple. */
+    Map<ColumnTuple, SortedLongSet> toTuples() {
+        Map<ColumnTuple, SortedLongSet> result = new LinkedHashMap<>();
+        for (int t = 0; t < tuples.size(); t++) result.put(tuples.get(t), SortedLongSet.of(sets[t]));
+        return result;
+    }
+}
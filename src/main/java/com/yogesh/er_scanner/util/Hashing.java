@@ -0,0 +1,37 @@
+package com.yogesh.er_scanner.util;
+
+/**
+ * 64-bit hashing helpers for value fingerprints and sketches.
+ */
+public final class Hashing {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private Hashing() {}
+
+    /** FNV-1a over the UTF-16 code units, finalized with {@link #mix}. */
+    public static long hash(CharSequence s) {
+        return hash(s, s.length());
+    }
+
+    /** Hashes the first {@code length} characters of {@code s}. */
+    public static long hash(CharSequence s, int length) {
+        long h = FNV_OFFSET;
+        for (int i = 0; i < length; i++) {
+            h ^= s.charAt(i);
+            h *= FNV_PRIME;
+        }
+        return mix(h);
+    }
+
+    /** MurmurHash3 fmix64 finalizer: spreads every input bit over the output. */
+    public static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,83 @@
+package com.yogesh.er_scanner.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of primitive longs with linear probing.
+ * Used as the write-side buffer while values are collected; freeze it into
+ * a {@link SortedLongSet} once complete.
+ */
+public class LongHashSet {
+
+    private static final double LOAD_FACTOR = 0.5;
+
+    // 0 marks a free slot, so the value 0 itself is tracked separately
+    private long[] slots;
+    private boolean containsZero;
+    private int size;
+
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) * 2 - 1);
+        slots = new long[capacity];
+    }
+
+    /** @return true if the value was not present */
+    public boolean add(long value) {
+        if (value == 0) {
+            if (containsZero) return false;
+            containsZero = true;
+            size++;
+            return true;
+        }
+
+        int mask = slots.length - 1;
+        int i = (int) Hashing.mix(value) & mask;
+        while (slots[i] != 0) {
+            if (slots[i] == value) return false;
+            i = (i + 1) & mask;
+        }
+
+        slots[i] = value;
+        size++;
+        if (size > slots.length * LOAD_FACTOR) grow();
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == 0) return containsZero;
+
+        int mask = slots.length - 1;
+        int i = (int) Hashing.mix(value) & mask;
+        while (slots[i] != 0) {
+            if (slots[i] == value) return true;
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() { return size; }
+
+    /** Copies the values into a new ascending array. */
+    public long[] toSortedArray() {
+        long[] values = new long[size];
+        int n = 0;
+        if (containsZero) values[n++] = 0;
+        for (long v : slots) {
+            if (v != 0) values[n++] = v;
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    private void grow() {
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        int mask = slots.length - 1;
+        for (long v : old) {
+            if (v == 0) continue;
+            int i = (int) Hashing.mix(v) & mask;
+            while (slots[i] != 0) i = (i + 1) & mask;
+            slots[i] = v;
+        }
+    }
+}
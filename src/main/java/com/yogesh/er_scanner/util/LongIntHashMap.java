@@ -0,0 +1,99 @@
+package com.yogesh.er_scanner.util;
+
+/**
+ * Open-addressing map from non-zero long keys to int values, used as a
+ * counter or as an index. Key 0 marks a free slot and cannot be stored.
+ */
+public class LongIntHashMap {
+
+    private static final double LOAD_FACTOR = 0.5;
+
+    private long[] keys;
+    private int[] counts;
+    private int size;
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) * 2 - 1);
+        keys = new long[capacity];
+        counts = new int[capacity];
+    }
+
+    public void increment(long key) {
+        requireKey(key);
+        int mask = keys.length - 1;
+        int i = (int) Hashing.mix(key) & mask;
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                counts[i]++;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        counts[i] = 1;
+        size++;
+        if (size > keys.length * LOAD_FACTOR) grow();
+    }
+
+    /** Value stored for {@code key}, or {@code missing}. */
+    public int get(long key, int missing) {
+        int mask = keys.length - 1;
+        int i = (int) Hashing.mix(key) & mask;
+        while (keys[i] != 0) {
+            if (keys[i] == key) return counts[i];
+            i = (i + 1) & mask;
+        }
+        return missing;
+    }
+
+    public void put(long key, int value) {
+        requireKey(key);
+        int mask = keys.length - 1;
+        int i = (int) Hashing.mix(key) & mask;
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                counts[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        counts[i] = value;
+        size++;
+        if (size > keys.length * LOAD_FACTOR) grow();
+    }
+
+    public int size() { return size; }
+
+    public void forEach(Entry consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) consumer.accept(keys[i], counts[i]);
+        }
+    }
+
+    private static void requireKey(long key) {
+        if (key == 0) throw new IllegalArgumentException("Key 0 is reserved for free slots");
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int k = 0; k < oldKeys.length; k++) {
+            if (oldKeys[k] == 0) continue;
+            int i = (int) Hashing.mix(oldKeys[k]) & mask;
+            while (keys[i] != 0) i = (i + 1) & mask;
+            keys[i] = oldKeys[k];
+            counts[i] = oldCounts[k];
+        }
+    }
+
+    @FunctionalInterface
+    public interface Entry {
+        void accept(long key, int count);
+    }
+}
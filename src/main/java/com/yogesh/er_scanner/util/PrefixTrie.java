@@ -0,0 +1,64 @@
+package com.yogesh.er_scanner.util;
+
+import java.util.Arrays;
+
+/**
+ * Character trie from string keys to int values. Every node keeps the
+ * values of its whole subtree in insertion order, so all values whose key
+ * starts with a prefix are found in one walk down the prefix.
+ */
+public class PrefixTrie {
+
+    private final Node root = new Node();
+
+    public void add(String key, int value) {
+        Node node = root;
+        node.append(value);
+        for (int i = 0; i < key.length(); i++) {
+            node = node.child(key.charAt(i), true);
+            node.append(value);
+        }
+    }
+
+    /** Values of every key starting with {@code prefix}, in insertion order. */
+    public int[] withPrefix(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i), false);
+        }
+        return node == null ? new int[0] : Arrays.copyOf(node.values, node.size);
+    }
+
+    private static class Node {
+
+        // Children sorted by character; most nodes have one or two
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private int[] values = new int[1];
+        private int size;
+
+        Node child(char c, boolean create) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) return children[i];
+            if (!create) return null;
+
+            int at = -i - 1;
+            char[] k = new char[keys.length + 1];
+            Node[] n = new Node[children.length + 1];
+            System.arraycopy(keys, 0, k, 0, at);
+            System.arraycopy(children, 0, n, 0, at);
+            System.arraycopy(keys, at, k, at + 1, keys.length - at);
+            System.arraycopy(children, at, n, at + 1, children.length - at);
+            k[at] = c;
+            n[at] = new Node();
+            keys = k;
+            children = n;
+            return n[at];
+        }
+
+        void append(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+    }
+}
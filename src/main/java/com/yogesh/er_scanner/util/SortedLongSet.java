@@ -0,0 +1,74 @@
+package com.yogesh.er_scanner.util;
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of longs backed by one ascending array: 8 bytes per value,
+ * no per-element objects, and intersections by a single merge pass.
+ */
+public final class SortedLongSet {
+
+    public static final SortedLongSet EMPTY = new SortedLongSet(new long[0]);
+
+    private final long[] values;
+
+    private SortedLongSet(long[] values) {
+        this.values = values;
+    }
+
+    public static SortedLongSet of(LongHashSet set) {
+        return new SortedLongSet(set.toSortedArray());
+    }
+
+    /** Sorts and de-duplicates {@code values} in place. */
+    public static SortedLongSet of(long[] values) {
+        Arrays.sort(values);
+        int n = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (i == 0 || values[i] != values[i - 1]) values[n++] = values[i];
+        }
+        return new SortedLongSet(n == values.length ? values : Arrays.copyOf(values, n));
+    }
+
+    public int size() { return values.length; }
+
+    public long get(int index) { return values[index]; }
+
+    public boolean contains(long value) {
+        return Arrays.binarySearch(values, value) >= 0;
+    }
+
+    /** Merges two sets in one pass. */
+    public SortedLongSet union(SortedLongSet other) {
+        long[] a = values;
+        long[] b = other.values;
+        long[] merged = new long[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) merged[n++] = a[i++];
+            else if (i == a.length || b[j] < a[i]) merged[n++] = b[j++];
+            else {
+                merged[n++] = a[i++];
+                j++;
+            }
+        }
+        return new SortedLongSet(n == merged.length ? merged : Arrays.copyOf(merged, n));
+    }
+
+    /** Counts common values without allocating. */
+    public int intersectionSize(SortedLongSet other) {
+        long[] a = values;
+        long[] b = other.values;
+        int i = 0, j = 0, count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                count++;
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,119 @@
+package com.yogesh.er_scanner.util;
+
+import java.util.Arrays;
+
+/**
+ * Interns strings to dense int ids, each distinct string stored once.
+ *
+ * Ids are exact: {@code "ID"} and {@code "id"} get different ids and keep
+ * their spelling. Every id also has a case-folded id, the id of the first
+ * interned string equal to it ignoring case, so case-insensitive lookups
+ * and comparisons run on ints without lower-casing anything.
+ */
+public class SymbolTable {
+
+    private static final double LOAD_FACTOR = 0.5;
+
+    private String[] symbols;
+    private int[] folded;
+    private int size;
+
+    // Open-addressing slots holding id + 1; 0 marks a free slot
+    private int[] exactSlots;
+    private int[] foldedSlots;
+
+    public SymbolTable(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) * 2 - 1);
+        symbols = new String[Math.max(4, expectedSize)];
+        folded = new int[symbols.length];
+        exactSlots = new int[capacity];
+        foldedSlots = new int[capacity];
+    }
+
+    /** Id of {@code s}, adding it if new. */
+    public int intern(String s) {
+        int id = find(s);
+        if (id >= 0) return id;
+
+        if (size == symbols.length) {
+            symbols = Arrays.copyOf(symbols, size * 2);
+            folded = Arrays.copyOf(folded, size * 2);
+        }
+        id = size++;
+        symbols[id] = s;
+
+        int canonical = findIgnoreCase(s);
+        folded[id] = canonical >= 0 ? canonical : id;
+
+        if (size > exactSlots.length * LOAD_FACTOR) {
+            rehash(exactSlots.length * 2);
+        } else {
+            insert(exactSlots, s.hashCode(), id);
+            if (canonical < 0) insert(foldedSlots, foldedHash(s), id);
+        }
+        return id;
+    }
+
+    /** Exact id of {@code s}, or -1. */
+    public int find(String s) {
+        int mask = exactSlots.length - 1;
+        int i = (int) Hashing.mix(s.hashCode()) & mask;
+        while (exactSlots[i] != 0) {
+            int id = exactSlots[i] - 1;
+            if (symbols[id].equals(s)) return id;
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /** Case-folded id of {@code s}, or -1 when no string equal to it ignoring case is interned. */
+    public int findIgnoreCase(String s) {
+        int mask = foldedSlots.length - 1;
+        int i = (int) Hashing.mix(foldedHash(s)) & mask;
+        while (foldedSlots[i] != 0) {
+            int id = foldedSlots[i] - 1;
+            if (symbols[id].equalsIgnoreCase(s)) return id;
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    public String get(int id) { return symbols[id]; }
+
+    /** Id of the first interned string equal to {@code id}'s ignoring case. */
+    public int folded(int id) { return folded[id]; }
+
+    public int size() { return size; }
+
+    /** Retained size of the arrays and strings, with Latin-1 string payloads. */
+    public long estimateBytes() {
+        long bytes = 2 * (16 + symbols.length * 4L) + 2 * (16 + exactSlots.length * 4L);
+        for (int id = 0; id < size; id++) bytes += 40 + symbols[id].length();
+        return bytes;
+    }
+
+    private void insert(int[] slots, int hash, int id) {
+        int mask = slots.length - 1;
+        int i = (int) Hashing.mix(hash) & mask;
+        while (slots[i] != 0) i = (i + 1) & mask;
+        slots[i] = id + 1;
+    }
+
+    private void rehash(int capacity) {
+        exactSlots = new int[capacity];
+        foldedSlots = new int[capacity];
+        for (int id = 0; id < size; id++) {
+            insert(exactSlots, symbols[id].hashCode(), id);
+            if (folded[id] == id) insert(foldedSlots, foldedHash(symbols[id]), id);
+        }
+    }
+
+    // Hash consistent with equalsIgnoreCase, which compares upper- then lower-cased chars
+    private static int foldedHash(String s) {
+        int h = 0;
+        for (int i = 0; i < s.length(); i++) {
+            h = 31 * h + Character.toLowerCase(Character.toUpperCase(s.charAt(i)));
+        }
+        return h;
+    }
+}
@@ -0,0 +1,91 @@
+package com.yogesh.er_scanner.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Heap held by a published schema as model objects and as a
+ * {@link CompactSchema}. Heavy and GC-dependent, so it runs only on request:
+ * {@code mvn test -Dtest=CompactSchemaFootprintTest -Dfootprint=true}.
+ */
+@EnabledIfSystemProperty(named = "footprint", matches = "true")
+class CompactSchemaFootprintTest {
+
+    private static final RelationshipType[] TYPES = RelationshipType.values();
+
+    @Test
+    void compactFormHoldsLessThanHalfTheObjectModel() {
+        long base = usedHeap();
+        Schema schema = syntheticSchema(10_000, 20, 7);
+        long objects = usedHeap() - base;
+
+        CompactSchema compact = CompactSchema.of(schema);
+        schema = null;
+        long compacted = usedHeap() - base;
+
+        System.out.printf("[CompactSchemaFootprintTest] %d tables, %d columns, %d relationships: "
+                        + "objects %.1f MB, compact %.1f MB (estimateBytes %.1f MB)%n",
+                compact.tableCount(), 10_000 * 20, compact.relationshipCount(),
+                objects / 1048576.0, compacted / 1048576.0, compact.estimateBytes() / 1048576.0);
+
+        assertTrue(compacted < objects / 2);
+    }
+
+    // Distinct String instances per name, as a JDBC driver or JSON parser returns them
+    private static Schema syntheticSchema(int tableCount, int columnCount, long seed) {
+        Random random = new Random(seed);
+
+        List<Table> tables = new ArrayList<>();
+        for (int t = 0; t < tableCount; t++) {
+            List<Column> columns = new ArrayList<>();
+            columns.add(new Column(new String("ID"), new String("NUMBER"), true));
+            for (int c = 1; c < columnCount; c++) {
+                boolean reference = c % 3 == 0;
+                Column column = new Column(
+                        reference ? "REF_" + random.nextInt(tableCount) + "_ID" : "COLUMN_" + c,
+                        new String(c % 2 == 0 ? "VARCHAR2" : "NUMBER"), false);
+                column.setForeignKey(reference);
+                columns.add(column);
+            }
+            tables.add(new Table("CUSTOMER_ORDER_" + t, columns));
+        }
+
+        List<Relationship> relationships = new ArrayList<>();
+        for (int i = 0; i < tableCount * 3; i++) {
+            int source = random.nextInt(tableCount);
+            int target = random.nextInt(tableCount);
+            Relationship rel = random.nextInt(5) == 0
+                    ? new Relationship("CUSTOMER_ORDER_" + source, List.of("A_ID", "B_ID"),
+                            "customer_order_" + target, List.of("ID", "X"),
+                            TYPES[random.nextInt(TYPES.length)], random.nextDouble())
+                    : new Relationship("CUSTOMER_ORDER_" + source, new String("COLUMN_3"),
+                            "customer_order_" + target, new String("ID"),
+                            TYPES[random.nextInt(TYPES.length)], random.nextInt(4) / 4.0);
+            if (random.nextInt(3) == 0) {
+                rel.setContainment(random.nextDouble());
+                rel.setOrphanRatio(0.1);
+            }
+            relationships.add(rel);
+        }
+        return new Schema(tables, relationships);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
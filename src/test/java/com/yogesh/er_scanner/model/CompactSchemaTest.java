@@ -0,0 +1,122 @@
+package com.yogesh.er_scanner.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yogesh.er_scanner.util.SymbolTable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactSchemaTest {
+
+    @Test
+    void viewSerializesLikeTheSchemaItWasBuiltFrom() throws Exception {
+        Schema schema = sample();
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        CompactSchema compact = CompactSchema.of(schema);
+
+        assertEquals(objectMapper.writeValueAsString(schema), objectMapper.writeValueAsString(compact.view()));
+        assertEquals(3, compact.tableCount());
+        assertEquals(3, compact.relationshipCount());
+    }
+
+    @Test
+    void viewListsAreReadOnly() {
+        Schema view = CompactSchema.of(sample()).view();
+        List<Column> columns = view.getTables().get(0).getColumns();
+
+        assertThrows(UnsupportedOperationException.class, () -> view.getTables().add(new Table()));
+        assertThrows(UnsupportedOperationException.class, () -> view.getTables().set(0, new Table()));
+        assertThrows(UnsupportedOperationException.class, () -> view.getRelationships().remove(0));
+        assertThrows(UnsupportedOperationException.class, () -> columns.add(new Column()));
+        assertThrows(UnsupportedOperationException.class, () -> columns.set(0, new Column()));
+    }
+
+    @Test
+    void viewListsCheckBounds() {
+        Schema view = CompactSchema.of(sample()).view();
+        // Customers' columns sit between other tables' columns in the flat arrays
+        List<Column> columns = view.getTables().get(1).getColumns();
+
+        assertEquals(List.of("ID", "Name"), columns.stream().map(Column::getName).toList());
+        assertThrows(IndexOutOfBoundsException.class, () -> columns.get(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> columns.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> view.getTables().get(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> view.getTables().get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> view.getRelationships().get(3));
+    }
+
+    @Test
+    void findsTablesIgnoringCase() {
+        SymbolTable symbols = new SymbolTable(8);
+        symbols.intern("ORDERS");
+        CompactSchema compact = CompactSchema.of(sample(), symbols);
+
+        assertEquals(0, compact.indexOfTable("orders"));
+        assertEquals(0, compact.indexOfTable("Orders"));
+        assertEquals(1, compact.indexOfTable("CUSTOMERS"));
+        assertEquals(-1, compact.indexOfTable("products"));
+
+        // Names interned after compaction are not tables of this schema
+        symbols.intern("later");
+        assertEquals(-1, compact.indexOfTable("LATER"));
+    }
+
+    @Test
+    void relationshipsOfListsBothEndsOnce() {
+        CompactSchema compact = CompactSchema.of(sample());
+
+        assertArrayEquals(new int[] {0, 1, 2}, compact.relationshipsOf(0));
+        assertArrayEquals(new int[] {0}, compact.relationshipsOf(1));
+        assertArrayEquals(new int[0], compact.relationshipsOf(2));
+
+        // Callers get copies
+        compact.relationshipsOf(0)[0] = 9;
+        assertArrayEquals(new int[] {0, 1, 2}, compact.relationshipsOf(0));
+    }
+
+    @Test
+    void compositeKeysAndScoresSurvive() {
+        Relationship rel = CompactSchema.of(sample()).view().getRelationships().get(2);
+
+        assertEquals(List.of("order_id", "line_no"), rel.getSourceColumns());
+        assertEquals(List.of("order_id", "line_no"), rel.getTargetColumns());
+        assertEquals(RelationshipType.DATA_INFERRED, rel.getRelationshipType());
+        assertEquals(0.97, rel.getContainment());
+        assertNull(rel.getOrphanRatio());
+    }
+
+    // Orders → customers, a self reference, and a composite key to an unknown table
+    private static Schema sample() {
+        List<Table> tables = new ArrayList<>();
+        tables.add(table("orders", "order_id", "customer_id", "parent_id"));
+        tables.add(table("Customers", "ID", "Name"));
+        tables.add(table("audit_log", "id"));
+
+        Relationship toCustomer = new Relationship("orders", "customer_id", "customers", "ID",
+                RelationshipType.STRICT, 1.0);
+        Relationship toParent = new Relationship("ORDERS", "parent_id", "orders", "order_id",
+                RelationshipType.INFERRED, 0.9);
+        toParent.setOrphanRatio(0.02);
+        Relationship composite = new Relationship("orders", List.of("order_id", "line_no"),
+                "order_lines", List.of("order_id", "line_no"), RelationshipType.DATA_INFERRED, 0.8);
+        composite.setContainment(0.97);
+
+        return new Schema(tables, List.of(toCustomer, toParent, composite));
+    }
+
+    // First column is the primary key, the rest are foreign keys
+    private static Table table(String name, String... columns) {
+        List<Column> list = new ArrayList<>();
+        for (int i = 0; i < columns.length; i++) {
+            Column column = new Column(columns[i], i == 0 ? "INT" : "BIGINT", i == 0);
+            column.setForeignKey(i > 0);
+            list.add(column);
+        }
+        return new Table(name, list);
+    }
+}
@@ -0,0 +1,78 @@
+package com.yogesh.er_scanner.overlap;
+
+import com.yogesh.er_scanner.util.SortedLongSet;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExactOverlapEngineTest {
+
+    private static final TypeFamily[] FAMILIES = {TypeFamily.NUMERIC, TypeFamily.STRING, TypeFamily.DATE};
+
+    @Test
+    void pairCountsMatchNaiveIntersections() {
+        Random random = new Random(42);
+        ExactOverlapEngine engine = new ExactOverlapEngine();
+
+        for (int round = 0; round < 20; round++) {
+            List<SampledColumn> columns = randomColumns(random, 60);
+
+            Map<Long, Integer> expected = naive(columns);
+            Map<Long, Integer> actual = new HashMap<>();
+            for (ColumnOverlap overlap : engine.compare(columns)) {
+                assertTrue(overlap.getLeft() < overlap.getRight());
+                assertNull(actual.put(pair(overlap.getLeft(), overlap.getRight()), overlap.getIntersection()));
+            }
+
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void emptyAndSingleColumnInputsHaveNoOverlaps() {
+        ExactOverlapEngine engine = new ExactOverlapEngine();
+        SampledColumn column = new SampledColumn(0, "t", "c", TypeFamily.NUMERIC, true,
+                SortedLongSet.of(new long[] {1, 2, 3}));
+
+        assertTrue(engine.compare(List.of()).isEmpty());
+        assertTrue(engine.compare(List.of(column)).isEmpty());
+    }
+
+    // Columns over a small value universe, so many pairs share values
+    static List<SampledColumn> randomColumns(Random random, int count) {
+        List<SampledColumn> columns = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long[] values = new long[random.nextInt(40)];
+            for (int v = 0; v < values.length; v++) values[v] = random.nextInt(200) - 20;
+            columns.add(new SampledColumn(i / 4, "t" + i / 4, "c" + i,
+                    FAMILIES[random.nextInt(FAMILIES.length)],
+                    random.nextInt(4) > 0,
+                    SortedLongSet.of(values),
+                    null,
+                    random.nextBoolean()));
+        }
+        return columns;
+    }
+
+    static Map<Long, Integer> naive(List<SampledColumn> columns) {
+        Map<Long, Integer> pairs = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            for (int j = i + 1; j < columns.size(); j++) {
+                if (!columns.get(i).comparableWith(columns.get(j))) continue;
+                int shared = 0;
+                for (int v = 0; v < columns.get(i).getValues().size(); v++) {
+                    if (columns.get(j).getValues().contains(columns.get(i).getValues().get(v))) shared++;
+                }
+                if (shared > 0) pairs.put(pair(i, j), shared);
+            }
+        }
+        return pairs;
+    }
+
+    static long pair(int left, int right) {
+        return ((long) left << 32) | right;
+    }
+}
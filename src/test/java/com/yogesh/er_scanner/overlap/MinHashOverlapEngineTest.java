@@ -0,0 +1,121 @@
+package com.yogesh.er_scanner.overlap;
+
+import com.yogesh.er_scanner.util.SortedLongSet;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinHashOverlapEngineTest {
+
+    // The application.yaml defaults: detection point near Jaccard 0.42
+    private static final int NUM_HASHES = 128;
+    private static final int BANDS = 32;
+
+    @Test
+    void findsPairsAboveTheDetectionPoint() {
+        // Jaccard 0.6: expected miss rate (1 - 0.6^4)^32 is below 1%
+        List<SampledColumn> columns = pairs(new Random(5), 100, 200, 0.75);
+
+        Set<Long> found = found(new MinHashOverlapEngine(NUM_HASHES, BANDS).compare(columns));
+
+        int hits = 0;
+        for (int p = 0; p < 100; p++) {
+            if (found.contains(ExactOverlapEngineTest.pair(2 * p, 2 * p + 1))) hits++;
+        }
+        assertTrue(hits >= 97, "recall " + hits + "/100");
+    }
+
+    @Test
+    void findsSmallSetsContainedInLargeOnes() {
+        Random random = new Random(8);
+        int[][] sizes = {{5, 20}, {10, 200}, {3, 64}, {40, 1000}};
+
+        for (int[] size : sizes) {
+            List<SampledColumn> columns = new ArrayList<>();
+            long next = 1;
+            for (int p = 0; p < 100; p++) {
+                long salt = random.nextLong();
+                long[] parent = new long[size[1]];
+                for (int v = 0; v < parent.length; v++) parent[v] = (next++) ^ salt;
+                // The child holds the first values of its parent, Jaccard size[0] / size[1]
+                columns.add(column(2 * p, Arrays.copyOf(parent, size[0])));
+                columns.add(column(2 * p + 1, parent));
+            }
+
+            Set<Long> found = found(new MinHashOverlapEngine(NUM_HASHES, BANDS).compare(columns));
+
+            int hits = 0;
+            for (int p = 0; p < 100; p++) {
+                if (found.contains(ExactOverlapEngineTest.pair(2 * p, 2 * p + 1))) hits++;
+            }
+            assertTrue(hits >= 97, size[0] + " in " + size[1] + ": recall " + hits + "/100");
+        }
+    }
+
+    @Test
+    void skipsMostPairsFarBelowTheDetectionPoint() {
+        // Jaccard about 0.05: expected detection rate 1 - (1 - 0.05^4)^32 is negligible
+        List<SampledColumn> columns = pairs(new Random(6), 100, 200, 0.1);
+
+        Set<Long> found = found(new MinHashOverlapEngine(NUM_HASHES, BANDS).compare(columns));
+
+        assertTrue(found.size() <= 3, "reported " + found.size() + " low-similarity pairs");
+    }
+
+    @Test
+    void reportedCountsAreExact() {
+        Random random = new Random(9);
+        List<SampledColumn> columns = ExactOverlapEngineTest.randomColumns(random, 60);
+        Map<Long, Integer> expected = ExactOverlapEngineTest.naive(columns);
+
+        for (ColumnOverlap overlap : new MinHashOverlapEngine(NUM_HASHES, BANDS).compare(columns)) {
+            long pair = ExactOverlapEngineTest.pair(overlap.getLeft(), overlap.getRight());
+            assertEquals(expected.get(pair), overlap.getIntersection());
+        }
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new MinHashOverlapEngine(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new MinHashOverlapEngine(16, 0));
+        assertThrows(IllegalArgumentException.class, () -> new MinHashOverlapEngine(16, 32));
+    }
+
+    // Pairs of columns in different tables sharing the given fraction of their values
+    private static List<SampledColumn> pairs(Random random, int count, int size, double shared) {
+        List<SampledColumn> columns = new ArrayList<>();
+        long next = 1;
+        for (int p = 0; p < count; p++) {
+            int common = (int) (size * shared);
+            long[] left = new long[size];
+            long[] right = new long[size];
+            for (int v = 0; v < size; v++) {
+                left[v] = next++;
+                right[v] = v < common ? left[v] : next++;
+            }
+            long salt = random.nextLong();
+            for (int v = 0; v < size; v++) {
+                left[v] ^= salt;
+                right[v] ^= salt;
+            }
+            columns.add(column(2 * p, left));
+            columns.add(column(2 * p + 1, right));
+        }
+        return columns;
+    }
+
+    private static SampledColumn column(int index, long[] values) {
+        return new SampledColumn(index, "t" + index, "c", TypeFamily.NUMERIC, true, SortedLongSet.of(values));
+    }
+
+    private static Set<Long> found(List<ColumnOverlap> overlaps) {
+        Set<Long> pairs = new HashSet<>();
+        for (ColumnOverlap overlap : overlaps) {
+            pairs.add(ExactOverlapEngineTest.pair(overlap.getLeft(), overlap.getRight()));
+        }
+        return pairs;
+    }
+}
@@ -0,0 +1,92 @@
+package com.yogesh.er_scanner.overlap;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValueFingerprintTest {
+
+    @Test
+    void numbersFingerprintAlikeWhateverTheirForm() {
+        long ten = ValueFingerprint.ofLong(10);
+
+        assertEquals(ten, ValueFingerprint.of("10", TypeFamily.NUMERIC));
+        assertEquals(ten, ValueFingerprint.of(" 10 ", TypeFamily.NUMERIC));
+        assertEquals(ten, ValueFingerprint.of("10.00", TypeFamily.NUMERIC));
+        assertEquals(ten, ValueFingerprint.of("1E+1", TypeFamily.NUMERIC));
+        assertEquals(ten, ValueFingerprint.ofDecimal(new BigDecimal("10.00")));
+        assertEquals(ten, ValueFingerprint.ofDouble(10.0));
+
+        assertEquals(ValueFingerprint.ofLong(0), ValueFingerprint.of("0.000", TypeFamily.NUMERIC));
+        assertEquals(ValueFingerprint.ofDouble(3.25), ValueFingerprint.of("3.2500", TypeFamily.NUMERIC));
+        assertEquals(ValueFingerprint.ofLong(Long.MIN_VALUE),
+                ValueFingerprint.of(String.valueOf(Long.MIN_VALUE), TypeFamily.NUMERIC));
+        assertEquals(ValueFingerprint.ofLong(Long.MAX_VALUE),
+                ValueFingerprint.ofDecimal(new BigDecimal(Long.MAX_VALUE).setScale(2)));
+        assertNotEquals(ValueFingerprint.ofLong(Long.MIN_VALUE),
+                ValueFingerprint.of("9223372036854775808", TypeFamily.NUMERIC));
+        assertNotEquals(ten, ValueFingerprint.ofLong(-10));
+        assertNotEquals(ten, ValueFingerprint.of("10", TypeFamily.STRING));
+    }
+
+    @Test
+    void charPaddingIsIgnored() {
+        assertEquals(ValueFingerprint.ofString("ACME"), ValueFingerprint.ofString("ACME    "));
+        assertEquals(ValueFingerprint.of("ACME", TypeFamily.STRING), ValueFingerprint.of("ACME  ", TypeFamily.STRING));
+        assertNotEquals(ValueFingerprint.ofString("ACME"), ValueFingerprint.ofString(" ACME"));
+        assertNotEquals(ValueFingerprint.ofString("ACME"), ValueFingerprint.ofString("acme"));
+    }
+
+    @Test
+    void midnightTimestampEqualsItsDate() {
+        long date = ValueFingerprint.of("2024-01-05", TypeFamily.DATE);
+
+        assertEquals(date, ValueFingerprint.of("2024-01-05 00:00:00", TypeFamily.DATE));
+        assertEquals(date, ValueFingerprint.of("2024-01-05 00:00:00.000000", TypeFamily.DATE));
+        assertEquals(date, ValueFingerprint.of("2024-01-05T00:00", TypeFamily.DATE));
+        assertEquals(date, ValueFingerprint.ofDateTime(LocalDateTime.of(2024, 1, 5, 0, 0)));
+        assertNotEquals(date, ValueFingerprint.of("2024-01-05 00:00:01", TypeFamily.DATE));
+    }
+
+    @Test
+    void dateTimesMatchTheirStringForms() {
+        List<LocalDateTime> values = List.of(
+                LocalDateTime.of(2024, 1, 5, 10, 30),
+                LocalDateTime.of(2024, 1, 5, 10, 30, 15),
+                LocalDateTime.of(2024, 1, 5, 10, 30, 15, 500_000_000),
+                LocalDateTime.of(2024, 1, 5, 0, 0, 0, 1_000),
+                LocalDateTime.of(1999, 12, 31, 23, 59, 59, 999_999_999));
+
+        for (LocalDateTime value : values) {
+            long typed = ValueFingerprint.ofDateTime(value);
+            assertEquals(typed, ValueFingerprint.of(value.toString(), TypeFamily.DATE), value.toString());
+            assertEquals(typed, ValueFingerprint.of(value.toString().replace('T', ' '), TypeFamily.DATE));
+        }
+
+        assertEquals(ValueFingerprint.of("2024-01-05 10:30:00.5", TypeFamily.DATE),
+                ValueFingerprint.of("2024-01-05 10:30:00.500000", TypeFamily.DATE));
+    }
+
+    @Test
+    void tupleFingerprintIsOrderSensitive() {
+        long a = ValueFingerprint.ofLong(1);
+        long b = ValueFingerprint.ofString("x");
+
+        assertNotEquals(ValueFingerprint.ofTuple(new long[] {a, b}), ValueFingerprint.ofTuple(new long[] {b, a}));
+        assertEquals(ValueFingerprint.ofTuple(new long[] {a, b}), ValueFingerprint.ofTuple(new long[] {a, b}));
+    }
+
+    @Test
+    void fingerprintsAreStableAcrossReleases() {
+        // Persisted column profiles hold these; a change here invalidates them
+        assertEquals(0x750e34cc14f6dbe0L, ValueFingerprint.ofLong(10));
+        assertEquals(0xe2588d50e5eabf86L, ValueFingerprint.of("3.25", TypeFamily.NUMERIC));
+        assertEquals(0x1bbf73295f336b98L, ValueFingerprint.of("ACME", TypeFamily.STRING));
+        assertEquals(0xc047026950f43ca4L, ValueFingerprint.of("2024-01-05", TypeFamily.DATE));
+        assertEquals(0x2eaf4876b9484392L, ValueFingerprint.ofTuple(new long[] {1, 2}));
+    }
+}
@@ -0,0 +1,156 @@
+package com.yogesh.er_scanner.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.yogesh.er_scanner.config.RelationshipConfig;
+import com.yogesh.er_scanner.model.Column;
+import com.yogesh.er_scanner.model.Table;
+import com.yogesh.er_scanner.overlap.ValueShape;
+import com.yogesh.er_scanner.util.SortedLongSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.sql.Types;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnProfileStoreTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @TempDir
+    File outputDir;
+
+    private final ColumnProfileStore store = new ColumnProfileStore();
+    private final TableFingerprint fingerprint = new TableFingerprint("abc", "v1");
+
+    @Test
+    void savedProfilesLoadBack() throws Exception {
+        ScanSource source = source(24);
+        long now = System.currentTimeMillis();
+        store.save(source, orders("VARCHAR(10)"), fingerprint, sample(now, now));
+
+        TableSample loaded = store.load(source, orders("VARCHAR(10)"), fingerprint);
+
+        assertNotNull(loaded);
+        assertEquals(0, loaded.getRowsRead());
+        assertEquals(Set.of("id"), loaded.getColumnValues().keySet());
+        assertEquals(3, loaded.getColumnValues().get("id").size());
+        assertTrue(loaded.getColumnValues().get("id").contains(20));
+        assertEquals(Map.of("id", Types.INTEGER, "status", Types.VARCHAR), loaded.getColumnTypes());
+
+        ColumnSummary id = loaded.getColumnSummaries().get("id");
+        assertEquals(3, id.getDistinct());
+        assertEquals(1, id.getNulls());
+        assertEquals("1", id.getMin());
+        assertEquals("3", id.getMax());
+        assertEquals(now, id.getProfiledAt());
+        assertEquals(3, id.getShape().getValues());
+        assertTrue(Double.isNaN(loaded.getColumnSummaries().get("status").getShape().getLow()));
+
+        assertEquals("open", loaded.getColumnSummaries().get("status").getMin());
+    }
+
+    @Test
+    void movedTokenOrMissingTokenIsAMiss() throws Exception {
+        ScanSource source = source(24);
+        long now = System.currentTimeMillis();
+        store.save(source, orders("VARCHAR(10)"), fingerprint, sample(now, now));
+
+        assertNull(store.load(source, orders("VARCHAR(10)"), new TableFingerprint("abc", "v2")));
+        assertNull(store.load(source, orders("VARCHAR(10)"), new TableFingerprint("abc", null)));
+
+        // Without a token nothing is written either
+        ScanSource other = new ScanSource("other", null, null, new RelationshipConfig(),
+                new File(outputDir, "other"), null);
+        store.save(other, orders("VARCHAR(10)"), new TableFingerprint("abc", null), sample(now, now));
+        assertNull(profileFiles(other));
+    }
+
+    @Test
+    void changedTypeDropsOnlyThatColumn() throws Exception {
+        ScanSource source = source(24);
+        long now = System.currentTimeMillis();
+        store.save(source, orders("VARCHAR(10)"), fingerprint, sample(now, now));
+
+        TableSample loaded = store.load(source, orders("VARCHAR(20)"), fingerprint);
+
+        assertNotNull(loaded);
+        assertEquals(Set.of("id"), loaded.getColumnSummaries().keySet());
+    }
+
+    @Test
+    void expiredColumnsAreNotReused() throws Exception {
+        ScanSource source = source(1);
+        long now = System.currentTimeMillis();
+
+        store.save(source, orders("VARCHAR(10)"), fingerprint, sample(now - 2 * HOUR, now));
+        assertEquals(Set.of("status"),
+                store.load(source, orders("VARCHAR(10)"), fingerprint).getColumnSummaries().keySet());
+
+        store.save(source, orders("VARCHAR(10)"), fingerprint, sample(now - 2 * HOUR, now - 2 * HOUR));
+        assertNull(store.load(source, orders("VARCHAR(10)"), fingerprint));
+    }
+
+    @Test
+    void otherFormatIsAMiss() throws Exception {
+        ScanSource source = source(24);
+        long now = System.currentTimeMillis();
+        store.save(source, orders("VARCHAR(10)"), fingerprint, sample(now, now));
+
+        File file = profileFiles(source)[0];
+        ObjectMapper mapper = new ObjectMapper();
+
+        // A file from before the format field, and one from a later format with new fields
+        ObjectNode stored = (ObjectNode) mapper.readTree(file);
+        stored.remove("format");
+        mapper.writeValue(file, stored);
+        assertNull(store.load(source, orders("VARCHAR(10)"), fingerprint));
+
+        stored.put("format", ColumnProfileStore.FORMAT + 1);
+        stored.put("encoding", "zstd");
+        mapper.writeValue(file, stored);
+        assertNull(store.load(source, orders("VARCHAR(10)"), fingerprint));
+
+        stored.put("format", ColumnProfileStore.FORMAT);
+        mapper.writeValue(file, stored);
+        assertNotNull(store.load(source, orders("VARCHAR(10)"), fingerprint));
+    }
+
+    private ScanSource source(long ttlHours) {
+        RelationshipConfig config = new RelationshipConfig();
+        config.getProfileCache().setTtlHours(ttlHours);
+        return new ScanSource("test", null, null, config, outputDir, null);
+    }
+
+    private static File[] profileFiles(ScanSource source) {
+        return source.outputFile("column-profiles").listFiles((d, name) -> name.endsWith(".json"));
+    }
+
+    private static Table orders(String statusType) {
+        return new Table("orders", List.of(
+                new Column("id", "INT", true),
+                new Column("status", statusType, false)));
+    }
+
+    // status held one value, so only its summary is kept
+    private static TableSample sample(long idProfiledAt, long statusProfiledAt) {
+        Map<String, SortedLongSet> values = new LinkedHashMap<>();
+        values.put("id", SortedLongSet.of(new long[] {10, 20, 30}));
+
+        Map<String, Integer> types = new LinkedHashMap<>();
+        types.put("id", Types.INTEGER);
+        types.put("status", Types.VARCHAR);
+
+        Map<String, ColumnSummary> summaries = new LinkedHashMap<>();
+        summaries.put("id", new ColumnSummary(3, 1, 4, "1", "3", idProfiledAt,
+                new ValueShape(3, 1.0, 1, 3, 1, 1, 1.0, 3, 0, 0)));
+        summaries.put("status", new ColumnSummary(1, 0, 4, "open", "open", statusProfiledAt,
+                new ValueShape(1, 0.25, Double.NaN, Double.NaN, 4, 4, 4.0, 0, 0, 0)));
+
+        return new TableSample(values, types, Map.of(), summaries, 4);
+    }
+}
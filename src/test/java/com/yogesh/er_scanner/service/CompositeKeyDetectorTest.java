@@ -0,0 +1,101 @@
+package com.yogesh.er_scanner.service;
+
+import com.yogesh.er_scanner.overlap.TypeFamily;
+import com.yogesh.er_scanner.overlap.ValueFingerprint;
+import com.yogesh.er_scanner.util.SortedLongSet;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Types;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompositeKeyDetectorTest {
+
+    @Test
+    void combinationsTakeBestMatchesFirstAndNeverRepeatAColumn() {
+        List<Map<String, Double>> matches = List.of(
+                Map.of("a", 0.9, "b", 0.95),
+                Map.of("a", 1.0, "c", 0.7));
+
+        assertEquals(List.of(List.of("b", "a"), List.of("b", "c"), List.of("a", "c")),
+                CompositeKeyDetector.combinations(matches, 10));
+        assertEquals(List.of(List.of("b", "a"), List.of("b", "c")),
+                CompositeKeyDetector.combinations(matches, 2));
+    }
+
+    @Test
+    void combinationsBreakTiesByNameAndStopAtEmptyMatches() {
+        List<Map<String, Double>> tied = List.of(Map.of("y", 1.0, "x", 1.0), Map.of("z", 1.0));
+        assertEquals(List.of(List.of("x", "z"), List.of("y", "z")),
+                CompositeKeyDetector.combinations(tied, 10));
+
+        List<Map<String, Double>> unmatched = List.of(Map.of("a", 1.0), Map.of());
+        assertTrue(CompositeKeyDetector.combinations(unmatched, 10).isEmpty());
+    }
+
+    @Test
+    void constantColumnMatchesKeyColumnHoldingItsValue() {
+        CompositeKeyDetector.Candidate c = new CompositeKeyDetector.Candidate(
+                "accounts", "invoices", List.of("tenant_id", "account_id"));
+        c.matches.get(1).put("account_id", 0.95);
+
+        TableSample accounts = new TableSample(
+                Map.of("TENANT_ID", numbers(1, 2), "account_id", numbers(10, 11, 12)),
+                Map.of("TENANT_ID", Types.INTEGER, "account_id", Types.INTEGER),
+                Map.of(), Map.of(), 3);
+
+        TableSample invoices = new TableSample(
+                Map.of("account_id", numbers(10, 12)),
+                Map.of("tenant", Types.INTEGER, "region", Types.INTEGER,
+                        "label", Types.VARCHAR, "account_id", Types.INTEGER),
+                Map.of(),
+                Map.of("tenant", constant("2"), "region", constant("7"),
+                        "label", constant("2"), "account_id", summary(2, "10", "12")),
+                2);
+
+        CompositeKeyDetector.matchConstants(c, accounts, invoices);
+
+        // Other-family and out-of-key constants stay out; matched components are left alone
+        assertEquals(Map.of("tenant", 1.0), c.matches.get(0));
+        assertEquals(Map.of("account_id", 0.95), c.matches.get(1));
+    }
+
+    @Test
+    void constantColumnMatchesConstantKeyColumn() {
+        CompositeKeyDetector.Candidate c = new CompositeKeyDetector.Candidate(
+                "accounts", "invoices", List.of("tenant_id", "account_id"));
+
+        TableSample accounts = new TableSample(
+                Map.of("account_id", numbers(10, 11)),
+                Map.of("tenant_id", Types.BIGINT, "account_id", Types.BIGINT),
+                Map.of(), Map.of("tenant_id", constant("5")), 2);
+
+        TableSample invoices = new TableSample(
+                Map.of(),
+                Map.of("tenant", Types.INTEGER, "other", Types.INTEGER),
+                Map.of(), Map.of("tenant", constant("5"), "other", constant("6")), 2);
+
+        CompositeKeyDetector.matchConstants(c, accounts, invoices);
+
+        assertEquals(Map.of("tenant", 1.0), c.matches.get(0));
+        assertTrue(c.matches.get(1).isEmpty());
+    }
+
+    private static SortedLongSet numbers(long... values) {
+        long[] fingerprints = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            fingerprints[i] = ValueFingerprint.of(String.valueOf(values[i]), TypeFamily.NUMERIC);
+        }
+        return SortedLongSet.of(fingerprints);
+    }
+
+    private static ColumnSummary constant(String value) {
+        return summary(1, value, value);
+    }
+
+    private static ColumnSummary summary(long distinct, String min, String max) {
+        return new ColumnSummary(distinct, 0, 2, min, max, 0, null);
+    }
+}
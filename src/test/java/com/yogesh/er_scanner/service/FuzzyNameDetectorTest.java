@@ -0,0 +1,108 @@
+package com.yogesh.er_scanner.service;
+
+import com.yogesh.er_scanner.config.RelationshipConfig;
+import com.yogesh.er_scanner.model.Column;
+import com.yogesh.er_scanner.model.Relationship;
+import com.yogesh.er_scanner.model.Table;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzyNameDetectorTest {
+
+    @Test
+    void prefixFilteredSearchMatchesBruteForce() {
+        Random random = new Random(17);
+
+        for (double threshold : new double[] {0.5, 0.7, 0.8, 0.95}) {
+            List<String> entities = new ArrayList<>();
+            FuzzyNameDetector.GramIndex index = new FuzzyNameDetector.GramIndex();
+            for (int i = 0; i < 300; i++) {
+                String entity = randomEntity(random, "abcdef", 1 + random.nextInt(9));
+                entities.add(entity);
+                index.add(entity, i);
+            }
+            index.freeze();
+
+            // Short probes, and probes with letters no indexed entity has
+            for (int p = 0; p < 300; p++) {
+                String alphabet = p % 3 == 0 ? "abcdefxyz" : "abcdef";
+                String probe = randomEntity(random, alphabet, random.nextInt(10));
+
+                Map<Integer, Double> expected = new TreeMap<>();
+                for (int i = 0; i < entities.size(); i++) {
+                    double similarity = dice(grams(probe), grams(entities.get(i)));
+                    if (similarity >= threshold) expected.merge(i, similarity, Math::max);
+                }
+
+                Map<Integer, Double> actual = new TreeMap<>();
+                for (double[] match : index.search(probe, threshold)) {
+                    actual.merge(index.target((int) match[0]), match[1], Math::max);
+                }
+
+                assertEquals(expected.keySet(), actual.keySet(), "probe '" + probe + "' at " + threshold);
+                expected.forEach((target, similarity) -> assertEquals(similarity, actual.get(target), 1e-9));
+            }
+        }
+    }
+
+    @Test
+    void matchesAbbreviatedLegacyKeyNames() {
+        RelationshipConfig.FuzzyNames config = new RelationshipConfig.FuzzyNames();
+        config.setEnabled(true);
+
+        List<Table> tables = List.of(
+                new Table("tbl_Customers", List.of(new Column("CustomerID", "INT", true))),
+                new Table("Departments", List.of(new Column("dept_code", "VARCHAR(10)", true))),
+                new Table("Orders", List.of(
+                        new Column("OrderID", "INT", true),
+                        new Column("cust_no", "INT", false),
+                        new Column("CustID", "INT", false),
+                        new Column("dept_cd", "VARCHAR(10)", false),
+                        new Column("is_active", "BIT", false),
+                        new Column("notes", "VARCHAR(200)", false))));
+
+        List<String> found = new ArrayList<>();
+        for (Relationship r : new FuzzyNameDetector().detect(tables, config)) {
+            found.add(r.getSourceColumn() + "->" + r.getTargetTable() + "." + r.getTargetColumn());
+        }
+
+        assertEquals(List.of(
+                "cust_no->tbl_Customers.CustomerID",
+                "CustID->tbl_Customers.CustomerID",
+                "dept_cd->Departments.dept_code"), found);
+    }
+
+    @Test
+    void disabledDetectsNothing() {
+        List<Table> tables = List.of(
+                new Table("customers", List.of(new Column("id", "INT", true))),
+                new Table("orders", List.of(new Column("cust_id", "INT", false))));
+
+        assertTrue(new FuzzyNameDetector().detect(tables, new RelationshipConfig.FuzzyNames()).isEmpty());
+    }
+
+    private static String randomEntity(Random random, String alphabet, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        return sb.toString();
+    }
+
+    // The detector's trigrams, padded with '#'
+    private static Set<String> grams(String entity) {
+        String padded = "#" + entity + "#";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) grams.add(padded.substring(i, i + 3));
+        if (grams.isEmpty()) grams.add(padded);
+        return grams;
+    }
+
+    private static double dice(Set<String> a, Set<String> b) {
+        int shared = 0;
+        for (String gram : a) if (b.contains(gram)) shared++;
+        return 2.0 * shared / (a.size() + b.size());
+    }
+}
@@ -0,0 +1,153 @@
+package com.yogesh.er_scanner.service;
+
+import com.yogesh.er_scanner.config.RelationshipConfig;
+import com.yogesh.er_scanner.model.Column;
+import com.yogesh.er_scanner.model.Relationship;
+import com.yogesh.er_scanner.model.RelationshipType;
+import com.yogesh.er_scanner.model.Table;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SemanticRelationshipDetectorTest {
+
+    private static final String[] TABLES = {
+            "customers", "Customers", "orders", "order_items", "categories", "boxes",
+            "status", "addresses", "cust", "product", "products_archive"};
+
+    private static final String[] COLUMNS = {
+            "id", "customer_id", "order_id", "order_item_id", "category_id", "box_id",
+            "status_id", "statu_id", "address_id", "product_id", "code", "category_code",
+            "cust_code", "order_ref", "product_ref", "prod_code", "_code", "name"};
+
+    @Test
+    void defaultRulesReproduceTheOriginalPatterns() {
+        Random random = new Random(23);
+        SemanticRelationshipDetector detector = new SemanticRelationshipDetector();
+        RelationshipConfig.Semantic config = new RelationshipConfig.Semantic();
+
+        for (int round = 0; round < 200; round++) {
+            List<Table> tables = randomSchema(random);
+
+            assertEquals(describe(baseline(tables)), describe(detector.detect(tables, config)));
+        }
+    }
+
+    @Test
+    void rulesAreConfigurable() {
+        RelationshipConfig.Semantic config = new RelationshipConfig.Semantic();
+        config.setRules(List.of(
+                new RelationshipConfig.Rule("table-name", List.of("_fk", "Key"), 0.6),
+                new RelationshipConfig.Rule("table-prefix", List.of("_no"), 0.5)));
+
+        List<Table> tables = List.of(
+                table("customers", "cust_id"),
+                table("orders", "id", "customer_fk", "customerkey", "cust_no", "customer_id"));
+
+        assertEquals(List.of(
+                "orders.customer_fk->customers.cust_id@0.6",
+                "orders.customerkey->customers.cust_id@0.6",
+                "orders.cust_no->customers.cust_id@0.5"),
+                describe(new SemanticRelationshipDetector().detect(tables, config)));
+    }
+
+    @Test
+    void unknownRuleKindIsRejected() {
+        RelationshipConfig.Semantic config = new RelationshipConfig.Semantic();
+        config.setRules(List.of(new RelationshipConfig.Rule("suffix", List.of("_id"), 0.5)));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new SemanticRelationshipDetector().detect(List.of(table("a", "id")), config));
+    }
+
+    private static List<Table> randomSchema(Random random) {
+        List<Table> tables = new ArrayList<>();
+        for (int t = random.nextInt(8); t >= 0; t--) {
+            String name = TABLES[random.nextInt(TABLES.length)];
+            List<String> columns = new ArrayList<>();
+            for (int c = random.nextInt(6); c >= 0; c--) columns.add(COLUMNS[random.nextInt(COLUMNS.length)]);
+            // Some tables have no primary key
+            if (random.nextInt(5) == 0) {
+                tables.add(new Table(name, columns.stream().map(c -> new Column(c, "INT", false)).toList()));
+            } else {
+                tables.add(table(name, columns.toArray(String[]::new)));
+            }
+        }
+        return tables;
+    }
+
+    // First column is the primary key
+    private static Table table(String name, String... columns) {
+        List<Column> list = new ArrayList<>();
+        for (int i = 0; i < columns.length; i++) list.add(new Column(columns[i], "INT", i == 0));
+        return new Table(name, list);
+    }
+
+    private static List<String> describe(List<Relationship> relationships) {
+        List<String> out = new ArrayList<>();
+        for (Relationship r : relationships) {
+            out.add(r.getSourceTable() + "." + r.getSourceColumn() + "->"
+                    + r.getTargetTable() + "." + r.getTargetColumn() + "@" + r.getConfidence());
+        }
+        return out;
+    }
+
+    // The detector before rules were configurable and indexed: patterns A, B and C
+    private static List<Relationship> baseline(List<Table> tables) {
+
+        Map<String, String> pkIndex = new LinkedHashMap<>();
+        for (Table table : tables) {
+            for (Column col : table.getColumns()) {
+                if (col.isPrimaryKey()) {
+                    pkIndex.put(table.getName().toLowerCase(), col.getName());
+                    break;
+                }
+            }
+        }
+
+        List<Relationship> results = new ArrayList<>();
+        for (Table table : tables) {
+            String tableName = table.getName().toLowerCase();
+            for (Column column : table.getColumns()) {
+                String colName = column.getName().toLowerCase();
+                if (column.isPrimaryKey()) continue;
+
+                pkIndex.forEach((targetTable, targetPk) -> {
+                    if (!targetTable.equals(tableName) && colName.equals(targetPk.toLowerCase())) {
+                        results.add(relationship(table, column, targetTable, targetPk, 0.95));
+                    }
+                });
+
+                pkIndex.forEach((targetTable, targetPk) -> {
+                    String expected = SemanticRelationshipDetector.singularize(targetTable) + "_id";
+                    if (!targetTable.equals(tableName) && colName.equals(expected)
+                            && !colName.equals(targetPk.toLowerCase())) {
+                        results.add(relationship(table, column, targetTable, targetPk, 0.90));
+                    }
+                });
+
+                if (colName.endsWith("_code") || colName.endsWith("_ref")) {
+                    String prefix = colName.endsWith("_code")
+                            ? colName.substring(0, colName.length() - 5)
+                            : colName.substring(0, colName.length() - 4);
+                    pkIndex.forEach((targetTable, targetPk) -> {
+                        if (!targetTable.equals(tableName)
+                                && (targetPk.toLowerCase().equals(colName) || targetTable.startsWith(prefix))) {
+                            results.add(relationship(table, column, targetTable, targetPk, 0.75));
+                        }
+                    });
+                }
+            }
+        }
+        return results;
+    }
+
+    private static Relationship relationship(Table table, Column column, String targetTable,
+                                             String targetPk, double confidence) {
+        return new Relationship(table.getName(), column.getName(), targetTable, targetPk,
+                RelationshipType.INFERRED, confidence);
+    }
+}
@@ -0,0 +1,140 @@
+package com.yogesh.er_scanner.service;
+
+import com.yogesh.er_scanner.overlap.ValueFingerprint;
+import com.yogesh.er_scanner.util.SortedLongSet;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TupleReaderTest {
+
+    @Test
+    void fingerprintsTuplesWithoutNulls() throws Exception {
+        ColumnTuple ab = new ColumnTuple(List.of("a", "b"), "a");
+        ColumnTuple ca = new ColumnTuple(List.of("C", "A"), "c");
+        TupleReader reader = new TupleReader(List.of(ab, ca), 10);
+
+        String[] names = {"a", "b", "c"};
+        int[] types = {Types.BIGINT, Types.VARCHAR, Types.BIGINT};
+        List<Object[]> rows = List.of(
+                new Object[] {1L, "x", 10L},
+                new Object[] {2L, null, 20L},
+                new Object[] {1L, "x", 30L},
+                new Object[] {3L, "y", null});
+
+        reader.bind(metaData(names, types), 0);
+        assertEquals(4, reader.readAll(resultSet(rows)));
+
+        Map<ColumnTuple, SortedLongSet> tuples = reader.toTuples();
+        assertEquals(List.of(ab, ca), new ArrayList<>(tuples.keySet()));
+
+        SortedLongSet abSet = tuples.get(ab);
+        assertEquals(2, abSet.size());
+        assertTrue(abSet.contains(tuple(1, "x")));
+        assertTrue(abSet.contains(tuple(3, "y")));
+
+        SortedLongSet caSet = tuples.get(ca);
+        assertEquals(3, caSet.size());
+        assertTrue(caSet.contains(tuple(10, 1)));
+        assertTrue(caSet.contains(tuple(20, 2)));
+        assertTrue(caSet.contains(tuple(30, 1)));
+    }
+
+    @Test
+    void flaggedRowsCountOnlyForTheirSliceColumn() throws Exception {
+        ColumnTuple ab = new ColumnTuple(List.of("a", "b"), "a");
+        ColumnTuple ba = new ColumnTuple(List.of("b", "a"), "b");
+        TupleReader reader = new TupleReader(List.of(ab, ba), 10);
+
+        // Two values, then one membership flag per value
+        String[] names = {"a", "b", "f0", "f1"};
+        int[] types = {Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.INTEGER};
+        List<Object[]> rows = List.of(
+                new Object[] {1L, 100L, 1L, 0L},
+                new Object[] {2L, 200L, 0L, 1L},
+                new Object[] {3L, 300L, 1L, 1L});
+
+        reader.bind(metaData(names, types), 2);
+        assertEquals(3, reader.readAll(resultSet(rows)));
+
+        Map<ColumnTuple, SortedLongSet> tuples = reader.toTuples();
+
+        SortedLongSet abSet = tuples.get(ab);
+        assertEquals(2, abSet.size());
+        assertTrue(abSet.contains(tuple(1, 100)));
+        assertTrue(abSet.contains(tuple(3, 300)));
+
+        SortedLongSet baSet = tuples.get(ba);
+        assertEquals(2, baSet.size());
+        assertTrue(baSet.contains(tuple(200, 2)));
+        assertTrue(baSet.contains(tuple(300, 3)));
+    }
+
+    @Test
+    void tupleColumnMissingFromQueryIsRejected() {
+        TupleReader reader = new TupleReader(List.of(new ColumnTuple(List.of("a", "z"), "a")), 10);
+
+        assertThrows(IllegalStateException.class, () -> reader.bind(
+                metaData(new String[] {"a", "b"}, new int[] {Types.BIGINT, Types.BIGINT}), 0));
+    }
+
+    private static long tuple(Object... values) {
+        long[] parts = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            parts[i] = values[i] instanceof String s
+                    ? ValueFingerprint.ofString(s)
+                    : ValueFingerprint.ofLong(((Number) values[i]).longValue());
+        }
+        return ValueFingerprint.ofTuple(parts);
+    }
+
+    private static ResultSetMetaData metaData(String[] names, int[] types) {
+        return (ResultSetMetaData) Proxy.newProxyInstance(
+                TupleReaderTest.class.getClassLoader(),
+                new Class<?>[] {ResultSetMetaData.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getColumnCount" -> names.length;
+                    case "getColumnName", "getColumnLabel" -> names[(int) args[0] - 1];
+                    case "getColumnType" -> types[(int) args[0] - 1];
+                    case "getColumnTypeName" -> types[(int) args[0] - 1] == Types.VARCHAR ? "VARCHAR" : "BIGINT";
+                    case "getPrecision", "getScale" -> 0;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    // Forward-only rows of Long and String values, null for SQL NULL
+    private static ResultSet resultSet(List<Object[]> rows) {
+        int[] cursor = {-1};
+        boolean[] wasNull = {false};
+
+        return (ResultSet) Proxy.newProxyInstance(
+                TupleReaderTest.class.getClassLoader(),
+                new Class<?>[] {ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "next":
+                            return ++cursor[0] < rows.size();
+                        case "wasNull":
+                            return wasNull[0];
+                        case "getLong":
+                        case "getInt":
+                        case "getString": {
+                            Object value = rows.get(cursor[0])[(int) args[0] - 1];
+                            wasNull[0] = value == null;
+                            if (method.getName().equals("getString")) return value == null ? null : value.toString();
+                            long number = value == null ? 0 : ((Number) value).longValue();
+                            return method.getName().equals("getInt") ? (Object) (int) number : (Object) number;
+                        }
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
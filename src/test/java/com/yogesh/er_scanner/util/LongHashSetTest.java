@@ -0,0 +1,80 @@
+package com.yogesh.er_scanner.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongHashSetTest {
+
+    @Test
+    void zeroIsStoredDespiteMarkingFreeSlots() {
+        LongHashSet set = new LongHashSet(4);
+
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.contains(0));
+        assertEquals(1, set.size());
+        assertArrayEquals(new long[] {0}, set.toSortedArray());
+    }
+
+    @Test
+    void collidingValuesAreAllKept() {
+        // Values landing in the same slot of the initial 4-slot table
+        long[] colliding = sameSlot(4, 3);
+        LongHashSet set = new LongHashSet(2);
+
+        for (long v : colliding) assertTrue(set.add(v));
+        for (long v : colliding) assertFalse(set.add(v));
+
+        assertEquals(colliding.length, set.size());
+        for (long v : colliding) assertTrue(set.contains(v));
+        long[] sorted = colliding.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(sorted, set.toSortedArray());
+    }
+
+    @Test
+    void growsPastInitialCapacityWithoutLosingValues() {
+        Random random = new Random(7);
+        Set<Long> expected = new HashSet<>();
+        LongHashSet set = new LongHashSet(1);
+
+        for (int i = 0; i < 50_000; i++) {
+            long v = random.nextInt(20_000) - 10_000L;
+            assertEquals(expected.add(v), set.add(v));
+        }
+
+        assertEquals(expected.size(), set.size());
+        for (long v : expected) assertTrue(set.contains(v));
+        assertFalse(set.contains(10_000));
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).sorted().toArray(), set.toSortedArray());
+    }
+
+    @Test
+    void extremeValuesSortSigned() {
+        LongHashSet set = new LongHashSet(4);
+        set.add(Long.MAX_VALUE);
+        set.add(Long.MIN_VALUE);
+        set.add(-1);
+        set.add(0);
+
+        assertArrayEquals(new long[] {Long.MIN_VALUE, -1, 0, Long.MAX_VALUE}, set.toSortedArray());
+    }
+
+    // Non-zero values whose probe starts at the same slot of a table with this capacity
+    static long[] sameSlot(int capacity, int count) {
+        long[] found = new long[count];
+        int n = 0;
+        int slot = (int) Hashing.mix(1) & (capacity - 1);
+        for (long v = 1; n < count; v++) {
+            if (((int) Hashing.mix(v) & (capacity - 1)) == slot) found[n++] = v;
+        }
+        return found;
+    }
+}
@@ -0,0 +1,83 @@
+package com.yogesh.er_scanner.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongIntHashMapTest {
+
+    @Test
+    void countsMatchAHashMapAcrossResizes() {
+        Random random = new Random(3);
+        Map<Long, Integer> expected = new HashMap<>();
+        LongIntHashMap counts = new LongIntHashMap(1);
+
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(5_000) + 1L;
+            if (random.nextBoolean()) key = -key;
+            counts.increment(key);
+            expected.merge(key, 1, Integer::sum);
+        }
+
+        assertEquals(expected.size(), counts.size());
+        expected.forEach((key, count) -> assertEquals(count, counts.get(key, -1)));
+
+        Map<Long, Integer> visited = new HashMap<>();
+        counts.forEach((key, count) -> assertNull(visited.put(key, count)));
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void putReplacesAndGetFallsBackToMissing() {
+        LongIntHashMap index = new LongIntHashMap(4);
+
+        assertEquals(-1, index.get(42, -1));
+        index.put(42, 7);
+        index.put(42, 9);
+        index.increment(42);
+
+        assertEquals(1, index.size());
+        assertEquals(10, index.get(42, -1));
+        assertEquals(-1, index.get(43, -1));
+    }
+
+    @Test
+    void collidingKeysKeepSeparateValues() {
+        long[] colliding = LongHashSetTest.sameSlot(4, 3);
+        LongIntHashMap index = new LongIntHashMap(2);
+
+        for (int i = 0; i < colliding.length; i++) index.put(colliding[i], i);
+
+        for (int i = 0; i < colliding.length; i++) assertEquals(i, index.get(colliding[i], -1));
+        assertEquals(colliding.length, index.size());
+    }
+
+    @Test
+    void packedPairKeysStayDistinct() {
+        // The overlap engines key pairs as (left << 32) | right with left < right
+        LongIntHashMap pairs = new LongIntHashMap(16);
+        for (int left = 0; left < 40; left++) {
+            for (int right = left + 1; right < 40; right++) {
+                pairs.put(((long) left << 32) | right, left * 100 + right);
+            }
+        }
+
+        assertEquals(40 * 39 / 2, pairs.size());
+        assertEquals(1_739, pairs.get((17L << 32) | 39, -1));
+        assertEquals(1, pairs.get(1L, -1));
+    }
+
+    @Test
+    void zeroKeyIsRejected() {
+        LongIntHashMap index = new LongIntHashMap(4);
+
+        assertThrows(IllegalArgumentException.class, () -> index.put(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> index.increment(0));
+        assertEquals(0, index.size());
+        assertEquals(-1, index.get(0, -1));
+    }
+}
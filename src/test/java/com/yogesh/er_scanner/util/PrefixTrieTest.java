@@ -0,0 +1,47 @@
+package com.yogesh.er_scanner.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixTrieTest {
+
+    @Test
+    void returnsValuesUnderAPrefixInInsertionOrder() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.add("orders", 0);
+        trie.add("customers", 1);
+        trie.add("order_items", 2);
+        trie.add("or", 3);
+        trie.add("orders", 4);
+
+        assertArrayEquals(new int[] {0, 2, 3, 4}, trie.withPrefix("or"));
+        assertArrayEquals(new int[] {0, 2, 4}, trie.withPrefix("order"));
+        assertArrayEquals(new int[] {2}, trie.withPrefix("order_"));
+        assertArrayEquals(new int[] {0, 4}, trie.withPrefix("orders"));
+        assertArrayEquals(new int[0], trie.withPrefix("orderss"));
+        assertArrayEquals(new int[0], trie.withPrefix("x"));
+    }
+
+    @Test
+    void emptyPrefixReturnsEveryValue() {
+        PrefixTrie trie = new PrefixTrie();
+        assertArrayEquals(new int[0], trie.withPrefix(""));
+
+        for (int i = 0; i < 10; i++) trie.add("t" + (9 - i), i);
+        trie.add("", 10);
+
+        assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10}, trie.withPrefix(""));
+        assertArrayEquals(new int[] {9}, trie.withPrefix("t0"));
+    }
+
+    @Test
+    void returnedArraysAreCopies() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.add("a", 1);
+
+        trie.withPrefix("a")[0] = 99;
+
+        assertArrayEquals(new int[] {1}, trie.withPrefix("a"));
+    }
+}
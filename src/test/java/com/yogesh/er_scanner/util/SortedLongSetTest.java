@@ -0,0 +1,71 @@
+package com.yogesh.er_scanner.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedLongSetTest {
+
+    @Test
+    void iteratesInAscendingSignedOrderWithoutDuplicates() {
+        SortedLongSet set = SortedLongSet.of(new long[] {5, -3, 5, Long.MIN_VALUE, 0, Long.MAX_VALUE, -3});
+
+        assertEquals(5, set.size());
+        long[] expected = {Long.MIN_VALUE, -3, 0, 5, Long.MAX_VALUE};
+        for (int i = 0; i < expected.length; i++) assertEquals(expected[i], set.get(i));
+    }
+
+    @Test
+    void freezesAHashSetIncludingZero() {
+        LongHashSet hashed = new LongHashSet(4);
+        for (long v : new long[] {9, 0, -9, 4}) hashed.add(v);
+
+        SortedLongSet set = SortedLongSet.of(hashed);
+
+        assertEquals(4, set.size());
+        assertTrue(set.contains(0));
+        assertFalse(set.contains(1));
+        assertEquals(-9, set.get(0));
+        assertEquals(9, set.get(3));
+    }
+
+    @Test
+    void unionAndIntersectionMatchTreeSets() {
+        Random random = new Random(11);
+
+        for (int round = 0; round < 50; round++) {
+            TreeSet<Long> a = new TreeSet<>();
+            TreeSet<Long> b = new TreeSet<>();
+            for (int i = random.nextInt(200); i > 0; i--) a.add((long) random.nextInt(300) - 150);
+            for (int i = random.nextInt(200); i > 0; i--) b.add((long) random.nextInt(300) - 150);
+
+            SortedLongSet left = SortedLongSet.of(a.stream().mapToLong(Long::longValue).toArray());
+            SortedLongSet right = SortedLongSet.of(b.stream().mapToLong(Long::longValue).toArray());
+
+            TreeSet<Long> union = new TreeSet<>(a);
+            union.addAll(b);
+            TreeSet<Long> common = new TreeSet<>(a);
+            common.retainAll(b);
+
+            SortedLongSet merged = left.union(right);
+            assertEquals(union.size(), merged.size());
+            int i = 0;
+            for (long v : union) assertEquals(v, merged.get(i++));
+
+            assertEquals(common.size(), left.intersectionSize(right));
+            assertEquals(common.size(), right.intersectionSize(left));
+        }
+    }
+
+    @Test
+    void emptySetIntersectsNothing() {
+        SortedLongSet set = SortedLongSet.of(new long[] {1, 2, 3});
+
+        assertEquals(0, SortedLongSet.EMPTY.size());
+        assertEquals(0, set.intersectionSize(SortedLongSet.EMPTY));
+        assertEquals(3, set.union(SortedLongSet.EMPTY).size());
+    }
+}
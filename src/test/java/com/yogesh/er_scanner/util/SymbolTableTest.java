@@ -0,0 +1,69 @@
+package com.yogesh.er_scanner.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolTableTest {
+
+    @Test
+    void internReturnsOneIdPerExactString() {
+        SymbolTable symbols = new SymbolTable(0);
+
+        int id = symbols.intern("ID");
+        int lower = symbols.intern("id");
+
+        assertNotEquals(id, lower);
+        assertEquals(id, symbols.intern(new String("ID")));
+        assertEquals("ID", symbols.get(id));
+        assertEquals("id", symbols.get(lower));
+        assertEquals(id, symbols.folded(lower));
+        assertEquals(id, symbols.folded(id));
+        assertEquals(2, symbols.size());
+        assertEquals(-1, symbols.find("Id"));
+        assertEquals(id, symbols.findIgnoreCase("Id"));
+        assertEquals(-1, symbols.findIgnoreCase("idx"));
+    }
+
+    @Test
+    void foldingAgreesWithEqualsIgnoreCaseAcrossRehashes() {
+        // Includes characters whose case mappings are not one-to-one
+        String alphabet = "aAbBkKKiIİıß_";
+        Random random = new Random(13);
+        SymbolTable symbols = new SymbolTable(1);
+        List<String> interned = new ArrayList<>();
+
+        for (int n = 0; n < 3_000; n++) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = random.nextInt(4); i >= 0; i--) sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            String s = sb.toString();
+
+            int id = symbols.intern(s);
+            if (id == interned.size()) interned.add(s);
+            assertEquals(s, symbols.get(id));
+        }
+
+        assertEquals(interned.size(), symbols.size());
+        for (int id = 0; id < interned.size(); id++) {
+            String s = interned.get(id);
+            assertEquals(id, symbols.find(s));
+
+            int first = 0;
+            while (!interned.get(first).equalsIgnoreCase(s)) first++;
+            assertEquals(first, symbols.folded(id), s);
+            assertEquals(first, symbols.findIgnoreCase(s), s);
+        }
+    }
+
+    @Test
+    void estimateGrowsWithContent() {
+        SymbolTable symbols = new SymbolTable(4);
+        long empty = symbols.estimateBytes();
+
+        for (int i = 0; i < 100; i++) symbols.intern("column_" + i);
+
+        assertTrue(symbols.estimateBytes() > empty + 100 * 40);
+    }
+}